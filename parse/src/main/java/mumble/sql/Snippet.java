@@ -5,6 +5,12 @@ package mumble.sql;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import mumble.sql.ast.AstBuilder;
+import mumble.sql.ast.AstNode;
+import mumble.sql.ast.Fingerprint;
 
 /**
  * Snippet holds all required elements for working with a PSS SQL AST. Having parsed a SQL statement, the PSS SQL Parse Event Walker 
@@ -17,9 +23,9 @@ public class Snippet {
 
 	/**
 	 * SQL Abstract Syntax Tree: This collects and constructs a nested Map data
-	 * structure representing the entire SQL statement
+	 * structure representing the entire SQL statement, held as immutable AST nodes
 	 */
-	private HashMap<String, Object> sqlAbstractTree;
+	private AstNode sqlAbstractTree;
 
 	/**
 	 * Collect Root Table Column Dictionary
@@ -41,6 +47,32 @@ public class Snippet {
 	 */
 	private  HashSet<String> queryInterface;
 
+	/**
+	 * Set once the Snippet is shared, for instance from a cache; its parts may then no longer be replaced
+	 */
+	private volatile boolean frozen = false;
+
+	/**
+	 * Builds the AST and the Query Interface on first access; let go once both are built
+	 */
+	private Source source;
+
+	/**
+	 * Builder of the Snippet parts that are only made when asked for
+	 */
+	public interface Source {
+
+		/**
+		 * @return the AST as typed nodes; may also share its nodes with the Symbol Table
+		 */
+		AstNode buildAbstractTree();
+
+		/**
+		 * @return the output interface of the query
+		 */
+		HashSet<String> buildQueryInterface();
+	}
+
 	// Constructors
 	
 	/**
@@ -53,6 +85,20 @@ public class Snippet {
 	public Snippet(HashMap<String, Object> sqlAbstractTree, HashMap<String, Object> tableDictionary,
 			HashMap<String, Object> symbolTable, HashMap<String, Object> substitutionsMap,
 			HashSet<String> queryInterface) {
+		this(toAst(sqlAbstractTree), tableDictionary, symbolTable, substitutionsMap, queryInterface);
+	}
+
+	/**
+	 * @param sqlAbstractTree
+	 *            already built into AST nodes
+	 * @param tableDictionary
+	 * @param symbolTable
+	 * @param substitutionsMap
+	 * @param queryInterface
+	 */
+	public Snippet(AstNode sqlAbstractTree, HashMap<String, Object> tableDictionary,
+			HashMap<String, Object> symbolTable, HashMap<String, Object> substitutionsMap,
+			HashSet<String> queryInterface) {
 		super();
 		this.sqlAbstractTree = sqlAbstractTree;
 		this.tableDictionary = tableDictionary;
@@ -60,16 +106,54 @@ public class Snippet {
 		this.substitutionsMap = substitutionsMap;
 		this.queryInterface = queryInterface;
 	}
+
+	/**
+	 * @param source
+	 *            builds the AST and the Query Interface when they are first asked for
+	 * @param tableDictionary
+	 * @param symbolTable
+	 * @param substitutionsMap
+	 */
+	public Snippet(Source source, HashMap<String, Object> tableDictionary, HashMap<String, Object> symbolTable,
+			HashMap<String, Object> substitutionsMap) {
+		this((AstNode) null, tableDictionary, symbolTable, substitutionsMap, null);
+		this.source = source;
+	}
 	
 	
 	// Getters and Setters
 	
+	/**
+	 * @return a copy of the AST as a tree of HashMaps, which the caller may change;
+	 *         changes are not seen by the Snippet. getAbstractTree reads the AST
+	 *         without copying it.
+	 */
 	public HashMap<String, Object> getSqlAbstractTree() {
+		AstNode tree = getAbstractTree();
+		return (tree == null) ? null : toHashMap(tree);
+	}
+
+	public synchronized void setSqlAbstractTree(HashMap<String, Object> sqlAbstractTree) {
+		checkNotFrozen();
+		materialize();
+		this.sqlAbstractTree = toAst(sqlAbstractTree);
+	}
+
+	/**
+	 * @return the AST as typed nodes, which are also read only Maps
+	 */
+	public synchronized AstNode getAbstractTree() {
+		materialize();
 		return sqlAbstractTree;
 	}
 
-	public void setSqlAbstractTree(HashMap<String, Object> sqlAbstractTree) {
-		this.sqlAbstractTree = sqlAbstractTree;
+	/**
+	 * @return the structural hash of the AST, the same for Snippets with equal ASTs,
+	 *         or null if there is no AST
+	 */
+	public Fingerprint getFingerprint() {
+		AstNode tree = getAbstractTree();
+		return (tree == null) ? null : tree.fingerprint();
 	}
 
 	public HashMap<String, Object> getTableDictionary() {
@@ -77,14 +161,20 @@ public class Snippet {
 	}
 
 	public void setTableDictionary(HashMap<String, Object> tableDictionary) {
+		checkNotFrozen();
 		this.tableDictionary = tableDictionary;
 	}
 
-	public HashMap<String, Object> getSymbolTable() {
+	/**
+	 * @return the Symbol Table, whose query interfaces share their nodes with the AST
+	 */
+	public synchronized HashMap<String, Object> getSymbolTable() {
+		materialize();
 		return symbolTable;
 	}
 
 	public void setSymbolTable(HashMap<String, Object> symbolTable) {
+		checkNotFrozen();
 		this.symbolTable = symbolTable;
 	}
 
@@ -93,16 +183,80 @@ public class Snippet {
 	}
 
 	public void setSubstitutionsMap(HashMap<String, Object> substitutionsMap) {
+		checkNotFrozen();
 		this.substitutionsMap = substitutionsMap;
 	}
 
-	public HashSet<String> getQueryInterface() {
+	public synchronized HashSet<String> getQueryInterface() {
+		materialize();
 		return queryInterface;
 	}
 
-	public void setQueryInterface(HashSet<String> queryInterface) {
+	public synchronized void setQueryInterface(HashSet<String> queryInterface) {
+		checkNotFrozen();
+		materialize();
 		this.queryInterface = queryInterface;
 	} 
 	
+	/**
+	 * Mark the Snippet as shared: its parts can no longer be replaced and callers
+	 * must treat the collections it holds as read only. The parts left to the source
+	 * are built first, so readers on other threads never build them.
+	 * 
+	 * @return this Snippet
+	 */
+	public synchronized Snippet freeze() {
+		materialize();
+		frozen = true;
+		return this;
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * @return true once the AST and the Query Interface have been built
+	 */
+	public synchronized boolean isMaterialized() {
+		return source == null;
+	}
+
+	/**
+	 * Build the parts left to the source now, on the calling thread, rather than on
+	 * the first reader's. Both are built together, as building the AST shares its
+	 * nodes into the Symbol Table the interface is read from.
+	 * 
+	 * @return this Snippet
+	 */
+	public synchronized Snippet materialize() {
+		if (source != null) {
+			sqlAbstractTree = source.buildAbstractTree();
+			queryInterface = source.buildQueryInterface();
+			source = null;
+		}
+		return this;
+	}
+
+	private void checkNotFrozen() {
+		if (frozen)
+			throw new IllegalStateException("Snippet is shared and cannot be modified");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static HashMap<String, Object> toHashMap(Map<String, Object> node) {
+		// Linked, so the copy iterates in the order of the node
+		HashMap<String, Object> map = new LinkedHashMap<String, Object>();
+		for (Map.Entry<String, Object> entry : node.entrySet()) {
+			Object value = entry.getValue();
+			map.put(entry.getKey(), (value instanceof Map) ? toHashMap((Map<String, Object>) value) : value);
+		}
+		return map;
+	}
+
+	private static AstNode toAst(HashMap<String, Object> sqlAbstractTree) {
+		return (sqlAbstractTree == null) ? null : new AstBuilder().build(sqlAbstractTree);
+	}
+	
 	
 }
@@ -0,0 +1,117 @@
+package mumble.sql;
+
+import org.antlr.v4.runtime.Token;
+
+/**
+ * Position of a column reference token, as held in the Symbol Table and Table
+ * Dictionary. The token's indexes, line, column and type are kept as primitives and
+ * its text may share the String of an equal column name, so an entry costs a few
+ * words; toString renders the position the way ANTLR renders the token:
+ * [@tokenIndex,start:stop='text',&lt;type&gt;,line:column]
+ */
+public final class TokenPosition {
+
+	private final int tokenIndex;
+	private final int start;
+	private final int stop;
+	private final int line;
+	private final int charPositionInLine;
+
+	/**
+	 * Token type in the low 16 bits, as a signed short so EOF is kept, and channel in
+	 * the high 16 bits
+	 */
+	private final int typeAndChannel;
+	private final String text;
+
+	public TokenPosition(int tokenIndex, int start, int stop, int line, int charPositionInLine, int type,
+			int channel, String text) {
+		this.tokenIndex = tokenIndex;
+		this.start = start;
+		this.stop = stop;
+		this.line = line;
+		this.charPositionInLine = charPositionInLine;
+		this.typeAndChannel = (type & 0xFFFF) | (channel << 16);
+		this.text = text;
+	}
+
+	/**
+	 * @param token
+	 * @param text
+	 *            the token's text, which may be a String already held elsewhere
+	 * @return the position of the token
+	 */
+	public static TokenPosition of(Token token, String text) {
+		return new TokenPosition(token.getTokenIndex(), token.getStartIndex(), token.getStopIndex(), token.getLine(),
+				token.getCharPositionInLine(), token.getType(), token.getChannel(), text);
+	}
+
+	public int getTokenIndex() {
+		return tokenIndex;
+	}
+
+	public int getStartIndex() {
+		return start;
+	}
+
+	public int getStopIndex() {
+		return stop;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getCharPositionInLine() {
+		return charPositionInLine;
+	}
+
+	public int getType() {
+		return (short) typeAndChannel;
+	}
+
+	public int getChannel() {
+		return typeAndChannel >>> 16;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		int channel = getChannel();
+		String channelText = (channel > 0) ? ",channel=" + channel : "";
+		String txt = text;
+		if (txt != null)
+			txt = txt.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+		else
+			txt = "<no text>";
+		return "[@" + tokenIndex + "," + start + ":" + stop + "='" + txt + "',<" + getType() + ">" + channelText + ","
+				+ line + ":" + charPositionInLine + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		int result = tokenIndex;
+		result = 31 * result + start;
+		result = 31 * result + stop;
+		result = 31 * result + line;
+		result = 31 * result + charPositionInLine;
+		result = 31 * result + typeAndChannel;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof TokenPosition))
+			return false;
+		TokenPosition other = (TokenPosition) obj;
+		return tokenIndex == other.tokenIndex && start == other.start && stop == other.stop && line == other.line
+				&& charPositionInLine == other.charPositionInLine && typeAndChannel == other.typeAndChannel
+				&& ((text == null) ? other.text == null : text.equals(other.text));
+	}
+
+}
@@ -0,0 +1,109 @@
+package mumble.sql.ast;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Converts the HashMap tree built by the SQL Parse Event Walker into AST nodes.
+ * The walker builds the nodes it finishes in an exit handler, such as column and
+ * table references, itself; those are kept. Each map left becomes the typed node of
+ * its shape when it has one, an AstList, an AstEntry or else a GenericNode keeping
+ * the iteration order of the map. A map reached twice, such as a select item that
+ * also appears in a query interface, becomes one shared node. Given an AstInterner,
+ * the builder also shares nodes equal to ones built before, for other trees,
+ * through it.
+ */
+public class AstBuilder {
+
+	private final IdentityHashMap<Object, AstNode> built = new IdentityHashMap<Object, AstNode>();
+	private final AstInterner interner;
+
+	public AstBuilder() {
+		this(null);
+	}
+
+	/**
+	 * @param interner
+	 *            table of canonical nodes to share equal subtrees through, or null
+	 */
+	public AstBuilder(AstInterner interner) {
+		this.interner = interner;
+	}
+
+	/**
+	 * @param tree
+	 * @return the tree as AST nodes
+	 */
+	@SuppressWarnings("unchecked")
+	public AstNode build(Map<String, Object> tree) {
+		AstNode node = built.get(tree);
+		if (node != null)
+			return node;
+
+		if (tree instanceof AstNode) {
+			node = (AstNode) tree;
+		} else {
+			String[] keys = new String[tree.size()];
+			Object[] values = new Object[keys.length];
+			int index = 0;
+			for (Map.Entry<String, Object> entry : tree.entrySet()) {
+				Object value = entry.getValue();
+				keys[index] = entry.getKey();
+				values[index] = (value instanceof Map) ? build((Map<String, Object>) value) : value;
+				index++;
+			}
+
+			node = typed(keys, values);
+			if (node == null)
+				node = (keys.length == 1) ? new AstEntry(keys[0], values[0]) : new GenericNode(keys, values);
+		}
+		if (interner != null)
+			node = interner.intern(node);
+		built.put(tree, node);
+		return node;
+	}
+
+	/**
+	 * Replace the maps of another structure that were built into nodes, such as the
+	 * interfaces of a Symbol Table, by those nodes so the two share them
+	 *
+	 * @param table
+	 */
+	@SuppressWarnings("unchecked")
+	public void share(Map<String, Object> table) {
+		for (Map.Entry<String, Object> entry : table.entrySet()) {
+			Object value = entry.getValue();
+			AstNode node = built.get(value);
+			if (node != null)
+				entry.setValue(node);
+			else if (value instanceof Map && !(value instanceof AstNode))
+				share((Map<String, Object>) value);
+		}
+	}
+
+	private static AstNode typed(String[] keys, Object[] values) {
+		if (AstList.isList(keys)) {
+			Object[] items = new Object[keys.length];
+			for (int index = 0; index < keys.length; index++)
+				items[Integer.parseInt(keys[index]) - 1] = values[index];
+			return new AstList(items);
+		}
+		AstNode node = ColumnRef.of(keys, values);
+		if (node == null)
+			node = Literal.of(keys, values);
+		if (node == null)
+			node = Condition.of(keys, values);
+		if (node == null)
+			node = Calc.of(keys, values);
+		if (node == null)
+			node = FunctionCall.of(keys, values);
+		if (node == null)
+			node = TableRef.of(keys, values);
+		if (node == null)
+			node = Join.of(keys, values);
+		if (node == null)
+			node = Query.of(keys, values);
+		return node;
+	}
+
+}
@@ -0,0 +1,44 @@
+package mumble.sql.ast;
+
+/**
+ * Node of a single entry, the most common shape in the tree: {column=...},
+ * {literal=...}, {and=...}, {SQL=...} and so on
+ */
+public final class AstEntry extends AstNode {
+
+	private final String key;
+	private final Object value;
+
+	public AstEntry(String key, Object value) {
+		this.key = key;
+		this.value = value;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public int size() {
+		return 1;
+	}
+
+	@Override
+	public String keyAt(int index) {
+		if (index != 0)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+		return key;
+	}
+
+	@Override
+	public Object valueAt(int index) {
+		if (index != 0)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+		return value;
+	}
+
+}
@@ -0,0 +1,128 @@
+package mumble.sql.ast;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+
+/**
+ * Table of canonical AST nodes, so that structurally equal subtrees built for
+ * different Snippets, of the same kinds and in the same order, are one shared
+ * subtree. Nodes are looked up by Fingerprint and
+ * held weakly, so a subtree leaves the table once no Snippet uses it.
+ *
+ * An AstBuilder given an interner interns each node after its children, so the
+ * children of a node are already canonical and two candidates are compared entry by
+ * entry without descending into them.
+ */
+public final class AstInterner {
+
+	/**
+	 * One table for the whole process, for Snippets from any parser or thread
+	 */
+	public static final AstInterner GLOBAL = new AstInterner();
+
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * Independently locked parts of the table, chosen by fingerprint, so parsers on
+	 * different threads seldom wait for each other
+	 */
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	public AstInterner() {
+		for (int segment = 0; segment < SEGMENTS; segment++)
+			segments[segment] = new Segment();
+	}
+
+	/**
+	 * @param node
+	 *            a node whose children have been interned
+	 * @return the canonical node equal to it, which is the node itself if there was
+	 *         none
+	 */
+	public AstNode intern(AstNode node) {
+		Fingerprint fingerprint = node.fingerprint();
+		// The top bits, as the segment's own table hashes on the low ones
+		return segments[(int) (fingerprint.getHigh() >>> 60)].intern(fingerprint, node);
+	}
+
+	/**
+	 * @return the number of canonical nodes still in use
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments)
+			size += segment.size();
+		return size;
+	}
+
+	public void clear() {
+		for (Segment segment : segments)
+			segment.clear();
+	}
+
+	private static final class Segment {
+
+		private final HashMap<Fingerprint, Entry> nodes = new HashMap<Fingerprint, Entry>();
+		private final ReferenceQueue<AstNode> collected = new ReferenceQueue<AstNode>();
+
+		synchronized AstNode intern(Fingerprint fingerprint, AstNode node) {
+			expunge();
+			Entry entry = nodes.get(fingerprint);
+			AstNode canonical = (entry == null) ? null : entry.get();
+			if (canonical == null) {
+				nodes.put(fingerprint, new Entry(fingerprint, node, collected));
+				return node;
+			}
+			// Subtrees that would print differently, or distinct subtrees with one
+			// fingerprint, are not shared
+			return sameLayout(canonical, node) && canonical.equals(node) ? canonical : node;
+		}
+
+		synchronized int size() {
+			expunge();
+			return nodes.size();
+		}
+
+		synchronized void clear() {
+			nodes.clear();
+			expunge();
+		}
+
+		/**
+		 * Drop the entries of nodes that have been collected
+		 */
+		private void expunge() {
+			Entry entry;
+			while ((entry = (Entry) collected.poll()) != null) {
+				if (nodes.get(entry.fingerprint) == entry)
+					nodes.remove(entry.fingerprint);
+			}
+		}
+	}
+
+	/**
+	 * @return true if the nodes are of one kind and iterate their keys in one order,
+	 *         so sharing one for the other leaves toString unchanged
+	 */
+	private static boolean sameLayout(AstNode canonical, AstNode node) {
+		if (canonical.getClass() != node.getClass() || canonical.size() != node.size())
+			return false;
+		int size = node.size();
+		for (int index = 0; index < size; index++)
+			if (!canonical.keyAt(index).equals(node.keyAt(index)))
+				return false;
+		return true;
+	}
+
+	private static final class Entry extends WeakReference<AstNode> {
+
+		private final Fingerprint fingerprint;
+
+		Entry(Fingerprint fingerprint, AstNode node, ReferenceQueue<AstNode> queue) {
+			super(node, queue);
+			this.fingerprint = fingerprint;
+		}
+	}
+
+}
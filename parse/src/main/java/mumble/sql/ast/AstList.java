@@ -0,0 +1,115 @@
+package mumble.sql.ast;
+
+/**
+ * List node: the items of a select list, parameter list, from list and so on, keyed
+ * "1", "2", ... in the order they were written, and iterated in that order
+ */
+public final class AstList extends AstNode {
+
+	private static final int CACHED = 64;
+
+	/**
+	 * Item keys of short lists, indexed by position
+	 */
+	private static final String[] KEYS = new String[CACHED + 1];
+
+	static {
+		for (int position = 1; position <= CACHED; position++)
+			KEYS[position] = Integer.toString(position);
+	}
+
+	private final Object[] items;
+
+	/**
+	 * @param items
+	 *            in list order; the array is not copied
+	 */
+	public AstList(Object[] items) {
+		this.items = items;
+	}
+
+	/**
+	 * @param position
+	 *            from 1
+	 * @return the item
+	 */
+	public Object getItem(int position) {
+		return items[position - 1];
+	}
+
+	/**
+	 * @return the number of items
+	 */
+	public int length() {
+		return items.length;
+	}
+
+	@Override
+	public int size() {
+		return items.length;
+	}
+
+	@Override
+	public String keyAt(int index) {
+		return key(index + 1);
+	}
+
+	@Override
+	public Object valueAt(int index) {
+		return items[index];
+	}
+
+	@Override
+	public int indexOf(Object key) {
+		int position = position(key, items.length);
+		return position < 0 ? -1 : position - 1;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int position = position(key, items.length);
+		return position < 0 ? null : items[position - 1];
+	}
+
+	/**
+	 * @param keys
+	 *            the keys of a source node
+	 * @return true if they are "1" to the number of keys
+	 */
+	static boolean isList(String[] keys) {
+		if (keys.length == 0)
+			return false;
+		boolean[] seen = new boolean[keys.length];
+		for (String key : keys) {
+			int position = position(key, keys.length);
+			if (position < 0 || seen[position - 1])
+				return false;
+			seen[position - 1] = true;
+		}
+		return true;
+	}
+
+	private static String key(int position) {
+		return position <= CACHED ? KEYS[position] : Integer.toString(position);
+	}
+
+	/**
+	 * @return the position a key names, or -1 if it is not "1" to length
+	 */
+	private static int position(Object key, int length) {
+		if (!(key instanceof String))
+			return -1;
+		String text = (String) key;
+		if (text.isEmpty() || text.length() > 9 || text.charAt(0) == '0')
+			return -1;
+		int position = 0;
+		for (int index = 0; index < text.length(); index++) {
+			char digit = text.charAt(index);
+			if (digit < '0' || digit > '9')
+				return -1;
+			position = position * 10 + (digit - '0');
+		}
+		return position <= length ? position : -1;
+	}
+
+}
@@ -0,0 +1,131 @@
+package mumble.sql.ast;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable node of a PSS SQL AST. Nodes are Maps keyed by the MumbleConstants
+ * keys, and list nodes by "1", "2", ..., so code written against the HashMap trees
+ * of the SQL Parse Event Walker reads them unchanged, but each kind of node keeps
+ * its entries in a few fields instead of a hash table. Each kind of node iterates
+ * its entries in a fixed order: typed nodes in the order the walker's maps of
+ * their shape mostly print their keys, lists by position and other nodes in the
+ * order of the map they were built from. equals and hashCode give the same results
+ * as for a HashMap of the same entries. Each node also has a structural
+ * Fingerprint, computed from its children's the first time it is asked for.
+ */
+public abstract class AstNode extends AbstractMap<String, Object> {
+
+	/**
+	 * Computed on first use; nodes are immutable, so a thread that sees none just
+	 * computes the same one again
+	 */
+	private Fingerprint fingerprint;
+
+	@Override
+	public abstract int size();
+
+	/**
+	 * @param index
+	 *            position in iteration order
+	 * @return the key of the entry
+	 */
+	public abstract String keyAt(int index);
+
+	/**
+	 * @param index
+	 *            position in iteration order
+	 * @return the value of the entry
+	 */
+	public abstract Object valueAt(int index);
+
+	/**
+	 * @param key
+	 * @return the position of the key in iteration order, or -1
+	 */
+	public int indexOf(Object key) {
+		int size = size();
+		for (int index = 0; index < size; index++)
+			if (keyAt(index).equals(key))
+				return index;
+		return -1;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int index = indexOf(key);
+		return index < 0 ? null : valueAt(index);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return the structural hash of the subtree, equal for all equal subtrees
+	 */
+	public final Fingerprint fingerprint() {
+		Fingerprint result = fingerprint;
+		if (result == null) {
+			result = Fingerprint.of(this);
+			fingerprint = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Nodes with different fingerprints are told apart without comparing their
+	 * entries
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (other == this)
+			return true;
+		if (other instanceof AstNode && !fingerprint().equals(((AstNode) other).fingerprint()))
+			return false;
+		return super.equals(other);
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Object>>() {
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				return new Iterator<Map.Entry<String, Object>>() {
+					private int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return next < size();
+					}
+
+					@Override
+					public Map.Entry<String, Object> next() {
+						if (next >= size())
+							throw new NoSuchElementException();
+						Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<String, Object>(
+								keyAt(next), valueAt(next));
+						next++;
+						return entry;
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException("AST nodes are immutable");
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return AstNode.this.size();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,89 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_LEFT_FACTOR_KEY;
+import static mumble.sql.MumbleConstants.PSS_OPERATOR_KEY;
+import static mumble.sql.MumbleConstants.PSS_RIGHT_FACTOR_KEY;
+
+/**
+ * Calculation or comparison: {left=..., operator=..., right=...}; a unary operator
+ * such as IS NULL has no right factor
+ */
+public final class Calc extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_LEFT_FACTOR_KEY, PSS_OPERATOR_KEY, PSS_RIGHT_FACTOR_KEY };
+	private static final int[] ORDER = order(SLOTS, PSS_LEFT_FACTOR_KEY, PSS_RIGHT_FACTOR_KEY, PSS_OPERATOR_KEY);
+
+	private final AstNode left;
+	private final String operator;
+	private final AstNode right;
+
+	public Calc(AstNode left, String operator) {
+		super(3);
+		this.left = left;
+		this.operator = operator;
+		this.right = null;
+	}
+
+	public Calc(AstNode left, String operator, AstNode right) {
+		super(7);
+		this.left = left;
+		this.operator = operator;
+		this.right = right;
+	}
+
+	static Calc of(String[] keys, Object[] values) {
+		int present = presence(SLOTS, keys);
+		if (present != 3 && present != 7)
+			return null;
+		Object left = slotValue(SLOTS, 0, keys, values);
+		Object operator = slotValue(SLOTS, 1, keys, values);
+		Object right = slotValue(SLOTS, 2, keys, values);
+		if (!isNode(left) || !isText(operator) || !isNode(right))
+			return null;
+		if (present == 3)
+			return new Calc((AstNode) left, (String) operator);
+		return new Calc((AstNode) left, (String) operator, (AstNode) right);
+	}
+
+	public AstNode getLeft() {
+		return left;
+	}
+
+	public String getOperator() {
+		return operator;
+	}
+
+	/**
+	 * @return the right factor, or null for a unary operator
+	 */
+	public AstNode getRight() {
+		return right;
+	}
+
+	public boolean isUnary() {
+		return !has(2);
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		switch (slot) {
+		case 0:
+			return left;
+		case 1:
+			return operator;
+		default:
+			return right;
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_NAME_KEY;
+import static mumble.sql.MumbleConstants.PSS_TABLE_REF_KEY;
+
+/**
+ * Column reference: {name=..., table_ref=...}, where the table reference may be null
+ */
+public final class ColumnRef extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_NAME_KEY, PSS_TABLE_REF_KEY };
+	private static final int[] ORDER = order(SLOTS, PSS_NAME_KEY, PSS_TABLE_REF_KEY);
+	private static final int ALL = 3;
+
+	private final String name;
+	private final String tableRef;
+
+	public ColumnRef(String name, String tableRef) {
+		super(ALL);
+		this.name = name;
+		this.tableRef = tableRef;
+	}
+
+	static ColumnRef of(String[] keys, Object[] values) {
+		if (presence(SLOTS, keys) != ALL)
+			return null;
+		Object name = slotValue(SLOTS, 0, keys, values);
+		Object tableRef = slotValue(SLOTS, 1, keys, values);
+		if (!isText(name) || !isText(tableRef))
+			return null;
+		return new ColumnRef((String) name, (String) tableRef);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the table or alias qualifying the column, or null
+	 */
+	public String getTableRef() {
+		return tableRef;
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		return slot == 0 ? name : tableRef;
+	}
+
+}
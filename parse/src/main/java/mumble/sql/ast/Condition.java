@@ -0,0 +1,45 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_CONDITION_KEY;
+
+/**
+ * Boolean condition wrapper: {condition=...}
+ */
+public final class Condition extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_CONDITION_KEY };
+	private static final int[] ORDER = { 0 };
+
+	private final AstNode condition;
+
+	public Condition(AstNode condition) {
+		super(1);
+		this.condition = condition;
+	}
+
+	static Condition of(String[] keys, Object[] values) {
+		if (presence(SLOTS, keys) != 1 || !isNode(values[0]))
+			return null;
+		return new Condition((AstNode) values[0]);
+	}
+
+	public AstNode getCondition() {
+		return condition;
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		return condition;
+	}
+
+}
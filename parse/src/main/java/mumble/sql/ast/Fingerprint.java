@@ -0,0 +1,149 @@
+package mumble.sql.ast;
+
+import java.util.Map;
+
+/**
+ * 128 bit structural hash of an AST subtree. Equal subtrees, in the sense of
+ * AstNode.equals, have equal fingerprints whatever kind of node or iteration order
+ * they were built with, so fingerprints can stand in for subtrees as hash keys and
+ * tell unequal subtrees apart at once.
+ *
+ * A node's fingerprint is computed from its keys and the fingerprints of its
+ * values, each entry mixed on its own and the entries summed so that their order
+ * does not count, the way Map.hashCode sums entry hashes.
+ */
+public final class Fingerprint {
+
+	private static final long M1 = 0x9E3779B97F4A7C15L;
+	private static final long M2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long M3 = 0x165667B19E3779F9L;
+
+	private static final Fingerprint NULL = new Fingerprint(0x5BD1E9955BD1E995L, 0x27D4EB2F165667C5L);
+
+	private final long high;
+	private final long low;
+
+	Fingerprint(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	/**
+	 * @return a 64 bit fingerprint, for keys where 64 bits are enough
+	 */
+	public long longValue() {
+		return high ^ low;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof Fingerprint))
+			return false;
+		Fingerprint fingerprint = (Fingerprint) other;
+		return high == fingerprint.high && low == fingerprint.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (low ^ (low >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", high, low);
+	}
+
+	/**
+	 * @param node
+	 * @return the fingerprint of the node's entries; the fingerprints of AstNode
+	 *         values are taken from the nodes, so each is only computed once
+	 */
+	static Fingerprint of(AstNode node) {
+		int size = node.size();
+		long high = 0;
+		long low = 0;
+		for (int index = 0; index < size; index++) {
+			Fingerprint key = ofText(node.keyAt(index));
+			Fingerprint value = ofValue(node.valueAt(index));
+			high += entryHigh(key, value);
+			low += entryLow(key, value);
+		}
+		return ofEntries(high, low, size);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Fingerprint ofValue(Object value) {
+		if (value == null)
+			return NULL;
+		if (value instanceof AstNode)
+			return ((AstNode) value).fingerprint();
+		if (value instanceof String)
+			return ofText((String) value);
+		if (value instanceof Map) {
+			// Not built from the walker's trees, but equal to a node all the same
+			long high = 0;
+			long low = 0;
+			Map<String, Object> map = (Map<String, Object>) value;
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
+				Fingerprint key = ofText(entry.getKey());
+				Fingerprint item = ofValue(entry.getValue());
+				high += entryHigh(key, item);
+				low += entryLow(key, item);
+			}
+			return ofEntries(high, low, map.size());
+		}
+		// Such as the Integer token types some clauses keep; only as strong as hashCode
+		long hash = value.hashCode();
+		return new Fingerprint(mix(hash * M2 + M3), mix(hash * M3 + M2));
+	}
+
+	private static Fingerprint ofText(String text) {
+		long high = M1;
+		long low = M2;
+		int length = text.length();
+		for (int index = 0; index < length; index++) {
+			char c = text.charAt(index);
+			high = (high ^ c) * M3;
+			low = (low + c) * M1;
+		}
+		return new Fingerprint(mix(high ^ length), mix(low + length));
+	}
+
+	private static long entryHigh(Fingerprint key, Fingerprint value) {
+		return mix(key.high * M1 + (value.high ^ Long.rotateLeft(value.low, 31)));
+	}
+
+	private static long entryLow(Fingerprint key, Fingerprint value) {
+		return mix(key.low * M2 + (value.low ^ Long.rotateLeft(value.high, 29)));
+	}
+
+	/**
+	 * @return the fingerprint of a node from the sums of its entry hashes
+	 */
+	private static Fingerprint ofEntries(long high, long low, int size) {
+		return new Fingerprint(mix(high ^ size * M3), mix(low + size * M1));
+	}
+
+	/**
+	 * The MurmurHash3 64 bit finalizer
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+}
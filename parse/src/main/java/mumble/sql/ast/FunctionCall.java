@@ -0,0 +1,86 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_FUNCTION_NAME_KEY;
+import static mumble.sql.MumbleConstants.PSS_PARAMETERS_KEY;
+import static mumble.sql.MumbleConstants.PSS_QUALIFIER_KEY;
+
+/**
+ * Function call: {function_name=..., parameters=...}, where the parameters are a
+ * list and aggregates may also have a qualifier such as distinct
+ */
+public final class FunctionCall extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_FUNCTION_NAME_KEY, PSS_PARAMETERS_KEY, PSS_QUALIFIER_KEY };
+	/**
+	 * Routine calls list their parameters first, aggregates their name and qualifier
+	 */
+	private static final int[] ORDER = order(SLOTS, PSS_PARAMETERS_KEY, PSS_FUNCTION_NAME_KEY,
+			PSS_QUALIFIER_KEY);
+	private static final int[] QUALIFIED_ORDER = order(SLOTS, PSS_FUNCTION_NAME_KEY, PSS_QUALIFIER_KEY,
+			PSS_PARAMETERS_KEY);
+
+	private final String name;
+	private final AstNode parameters;
+	private final String qualifier;
+
+	FunctionCall(int present, String name, AstNode parameters, String qualifier) {
+		super(present);
+		this.name = name;
+		this.parameters = parameters;
+		this.qualifier = qualifier;
+	}
+
+	public FunctionCall(String name, AstNode parameters) {
+		this(3, name, parameters, null);
+	}
+
+	static FunctionCall of(String[] keys, Object[] values) {
+		int present = presence(SLOTS, keys);
+		if (present < 0 || (present & 1) == 0)
+			return null;
+		Object name = slotValue(SLOTS, 0, keys, values);
+		Object parameters = slotValue(SLOTS, 1, keys, values);
+		Object qualifier = slotValue(SLOTS, 2, keys, values);
+		if (!isText(name) || !isNode(parameters) || !isText(qualifier))
+			return null;
+		return new FunctionCall(present, (String) name, (AstNode) parameters, (String) qualifier);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the list of parameters, or null
+	 */
+	public AstNode getParameters() {
+		return parameters;
+	}
+
+	public String getQualifier() {
+		return qualifier;
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return has(2) ? QUALIFIED_ORDER : ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		switch (slot) {
+		case 0:
+			return name;
+		case 1:
+			return parameters;
+		default:
+			return qualifier;
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+package mumble.sql.ast;
+
+/**
+ * Node of any other shape, holding its keys and values in parallel arrays in
+ * iteration order
+ */
+public final class GenericNode extends AstNode {
+
+	private final String[] keys;
+	private final Object[] values;
+
+	/**
+	 * @param keys
+	 * @param values
+	 *            in iteration order; the arrays are not copied
+	 */
+	public GenericNode(String[] keys, Object[] values) {
+		if (keys.length != values.length)
+			throw new IllegalArgumentException("Keys and values differ in length");
+		this.keys = keys;
+		this.values = values;
+	}
+
+	@Override
+	public int size() {
+		return keys.length;
+	}
+
+	@Override
+	public String keyAt(int index) {
+		return keys[index];
+	}
+
+	@Override
+	public Object valueAt(int index) {
+		return values[index];
+	}
+
+}
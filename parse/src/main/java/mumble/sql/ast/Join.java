@@ -0,0 +1,69 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_JOIN_KEY;
+import static mumble.sql.MumbleConstants.PSS_JOIN_ON_KEY;
+
+/**
+ * Join operator between two tables of a from list: {join=..., on=...}, where the
+ * join is its kind, such as "left", and a cross or natural join
+ * has no condition
+ */
+public final class Join extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_JOIN_KEY, PSS_JOIN_ON_KEY };
+	private static final int[] ORDER = order(SLOTS, PSS_JOIN_KEY, PSS_JOIN_ON_KEY);
+
+	private final String type;
+	private final AstNode on;
+
+	public Join(String type) {
+		super(1);
+		this.type = type;
+		this.on = null;
+	}
+
+	public Join(String type, AstNode on) {
+		super(3);
+		this.type = type;
+		this.on = on;
+	}
+
+	static Join of(String[] keys, Object[] values) {
+		int present = presence(SLOTS, keys);
+		if (present != 1 && present != 3)
+			return null;
+		Object type = slotValue(SLOTS, 0, keys, values);
+		Object on = slotValue(SLOTS, 1, keys, values);
+		// a join node of a from list is a list of tables and joins
+		if (!(type instanceof String) || !isNode(on))
+			return null;
+		return present == 1 ? new Join((String) type) : new Join((String) type, (AstNode) on);
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return the join condition, or null
+	 */
+	public AstNode getOn() {
+		return on;
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		return slot == 0 ? type : on;
+	}
+
+}
@@ -0,0 +1,70 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_ALIAS_KEY;
+import static mumble.sql.MumbleConstants.PSS_LITERAL_KEY;
+
+/**
+ * Literal value: {literal=...}, with an alias when it is a select list item
+ */
+public final class Literal extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_LITERAL_KEY, PSS_ALIAS_KEY };
+	private static final int[] ORDER = order(SLOTS, PSS_ALIAS_KEY, PSS_LITERAL_KEY);
+
+	private final String value;
+	private final String alias;
+
+	public Literal(String value) {
+		super(1);
+		this.value = value;
+		this.alias = null;
+	}
+
+	public Literal(String value, String alias) {
+		super(3);
+		this.value = value;
+		this.alias = alias;
+	}
+
+	static Literal of(String[] keys, Object[] values) {
+		int present = presence(SLOTS, keys);
+		if (present != 1 && present != 3)
+			return null;
+		Object value = slotValue(SLOTS, 0, keys, values);
+		Object alias = slotValue(SLOTS, 1, keys, values);
+		if (!isText(value) || !isText(alias))
+			return null;
+		return present == 1 ? new Literal((String) value) : new Literal((String) value, (String) alias);
+	}
+
+	/**
+	 * @return the text of the literal as written in the query
+	 */
+	public String getValue() {
+		return value;
+	}
+
+	public String getAlias() {
+		return alias;
+	}
+
+	public boolean hasAlias() {
+		return has(1);
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		return slot == 0 ? value : alias;
+	}
+
+}
@@ -0,0 +1,127 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_FROM_KEY;
+import static mumble.sql.MumbleConstants.PSS_GROUPBY_KEY;
+import static mumble.sql.MumbleConstants.PSS_HAVING_KEY;
+import static mumble.sql.MumbleConstants.PSS_LIMIT_KEY;
+import static mumble.sql.MumbleConstants.PSS_ORDERBY_KEY;
+import static mumble.sql.MumbleConstants.PSS_QUALIFIER_KEY;
+import static mumble.sql.MumbleConstants.PSS_SELECT_KEY;
+import static mumble.sql.MumbleConstants.PSS_WHERE_KEY;
+
+/**
+ * Query specification: {select=..., from=..., where=..., ...}; only the select list
+ * is always present
+ */
+public final class Query extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_SELECT_KEY, PSS_QUALIFIER_KEY, PSS_FROM_KEY, PSS_WHERE_KEY,
+			PSS_GROUPBY_KEY, PSS_HAVING_KEY, PSS_ORDERBY_KEY, PSS_LIMIT_KEY };
+	private static final int[] ORDER = order(SLOTS, PSS_SELECT_KEY, PSS_HAVING_KEY, PSS_QUALIFIER_KEY,
+			PSS_LIMIT_KEY, PSS_ORDERBY_KEY, PSS_FROM_KEY, PSS_WHERE_KEY, PSS_GROUPBY_KEY);
+
+	private final AstNode select;
+	private final String qualifier;
+	private final AstNode from;
+	private final AstNode where;
+	private final AstNode groupBy;
+	private final AstNode having;
+	private final AstNode orderBy;
+	private final AstNode limit;
+
+	private Query(int present, Object[] slots) {
+		super(present);
+		this.select = (AstNode) slots[0];
+		this.qualifier = (String) slots[1];
+		this.from = (AstNode) slots[2];
+		this.where = (AstNode) slots[3];
+		this.groupBy = (AstNode) slots[4];
+		this.having = (AstNode) slots[5];
+		this.orderBy = (AstNode) slots[6];
+		this.limit = (AstNode) slots[7];
+	}
+
+	static Query of(String[] keys, Object[] values) {
+		int present = presence(SLOTS, keys);
+		if (present < 0 || (present & 1) == 0)
+			return null;
+		Object[] slots = new Object[SLOTS.length];
+		for (int slot = 0; slot < SLOTS.length; slot++) {
+			slots[slot] = slotValue(SLOTS, slot, keys, values);
+			if (slot == 1 ? !isText(slots[slot]) : !isNode(slots[slot]))
+				return null;
+		}
+		return new Query(present, slots);
+	}
+
+	/**
+	 * @return the list of select items
+	 */
+	public AstNode getSelect() {
+		return select;
+	}
+
+	/**
+	 * @return distinct or all, or null
+	 */
+	public String getQualifier() {
+		return qualifier;
+	}
+
+	public AstNode getFrom() {
+		return from;
+	}
+
+	public AstNode getWhere() {
+		return where;
+	}
+
+	public AstNode getGroupBy() {
+		return groupBy;
+	}
+
+	public AstNode getHaving() {
+		return having;
+	}
+
+	public AstNode getOrderBy() {
+		return orderBy;
+	}
+
+	public AstNode getLimit() {
+		return limit;
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		switch (slot) {
+		case 0:
+			return select;
+		case 1:
+			return qualifier;
+		case 2:
+			return from;
+		case 3:
+			return where;
+		case 4:
+			return groupBy;
+		case 5:
+			return having;
+		case 6:
+			return orderBy;
+		default:
+			return limit;
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package mumble.sql.ast;
+
+import static mumble.sql.MumbleConstants.PSS_ALIAS_KEY;
+import static mumble.sql.MumbleConstants.PSS_DATABASE_NAME_KEY;
+import static mumble.sql.MumbleConstants.PSS_SCHEMA_KEY;
+import static mumble.sql.MumbleConstants.PSS_TABLE_KEY;
+
+import java.util.Map;
+
+/**
+ * Named table of a from list: {alias=..., table=...}, with the schema and database
+ * when the name is qualified
+ */
+public final class TableRef extends TypedNode {
+
+	private static final String[] SLOTS = { PSS_TABLE_KEY, PSS_ALIAS_KEY, PSS_SCHEMA_KEY, PSS_DATABASE_NAME_KEY };
+	private static final int[] ORDER = order(SLOTS, PSS_SCHEMA_KEY, PSS_DATABASE_NAME_KEY, PSS_ALIAS_KEY,
+			PSS_TABLE_KEY);
+
+	private final String table;
+	private final String alias;
+	private final String schema;
+	private final String database;
+
+	TableRef(int present, String table, String alias, String schema, String database) {
+		super(present);
+		this.table = table;
+		this.alias = alias;
+		this.schema = schema;
+		this.database = database;
+	}
+
+	public TableRef(String table, String alias) {
+		this(3, table, alias, null, null);
+	}
+
+	/**
+	 * @param item
+	 *            a table item of a from list
+	 * @return the item as a TableRef, or null if it does not name a table
+	 */
+	public static TableRef of(Map<String, Object> item) {
+		String[] keys = item.keySet().toArray(new String[item.size()]);
+		Object[] values = new Object[keys.length];
+		for (int index = 0; index < keys.length; index++)
+			values[index] = item.get(keys[index]);
+		return of(keys, values);
+	}
+
+	static TableRef of(String[] keys, Object[] values) {
+		int present = presence(SLOTS, keys);
+		if (present < 0 || (present & 1) == 0)
+			return null;
+		Object table = slotValue(SLOTS, 0, keys, values);
+		Object alias = slotValue(SLOTS, 1, keys, values);
+		Object schema = slotValue(SLOTS, 2, keys, values);
+		Object database = slotValue(SLOTS, 3, keys, values);
+		// a table node of a select item wraps a query instead
+		if (!(table instanceof String) || !isText(alias) || !isText(schema) || !isText(database))
+			return null;
+		return new TableRef(present, (String) table, (String) alias, (String) schema, (String) database);
+	}
+
+	public String getTable() {
+		return table;
+	}
+
+	public String getAlias() {
+		return alias;
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	public String getDatabase() {
+		return database;
+	}
+
+	@Override
+	String[] slotKeys() {
+		return SLOTS;
+	}
+
+	@Override
+	int[] slotOrder() {
+		return ORDER;
+	}
+
+	@Override
+	Object slot(int slot) {
+		switch (slot) {
+		case 0:
+			return table;
+		case 1:
+			return alias;
+		case 2:
+			return schema;
+		default:
+			return database;
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package mumble.sql.ast;
+
+/**
+ * Base of the nodes with named fields. Each kind of node has a fixed set of slots,
+ * some of them optional; a bit mask records which slots the node has, since a
+ * present entry may hold null. Present slots are iterated in an order each kind of
+ * node fixes, the order the walker's maps of that shape mostly print their keys in.
+ */
+abstract class TypedNode extends AstNode {
+
+	private final int present;
+
+	TypedNode(int present) {
+		this.present = present;
+	}
+
+	/**
+	 * @return the keys of the slots, indexed by slot
+	 */
+	abstract String[] slotKeys();
+
+	/**
+	 * @return the slots in iteration order
+	 */
+	abstract int[] slotOrder();
+
+	abstract Object slot(int slot);
+
+	boolean has(int slot) {
+		return (present & (1 << slot)) != 0;
+	}
+
+	@Override
+	public int size() {
+		return Integer.bitCount(present);
+	}
+
+	@Override
+	public String keyAt(int index) {
+		return slotKeys()[slotAt(index)];
+	}
+
+	@Override
+	public Object valueAt(int index) {
+		return slot(slotAt(index));
+	}
+
+	private int slotAt(int index) {
+		int count = 0;
+		for (int slot : slotOrder()) {
+			if (has(slot) && count++ == index)
+				return slot;
+		}
+		throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+	}
+
+	/**
+	 * @param slotKeys
+	 * @param keys
+	 *            all the slot keys, in iteration order
+	 * @return the slots in iteration order
+	 */
+	static int[] order(String[] slotKeys, String... keys) {
+		if (keys.length != slotKeys.length)
+			throw new IllegalArgumentException("Order must name every slot once");
+		int[] order = new int[keys.length];
+		int seen = 0;
+		for (int index = 0; index < keys.length; index++) {
+			order[index] = slotOf(slotKeys, keys[index]);
+			if (order[index] < 0 || (seen & (1 << order[index])) != 0)
+				throw new IllegalArgumentException("Order must name every slot once");
+			seen |= 1 << order[index];
+		}
+		return order;
+	}
+
+	/**
+	 * @param slotKeys
+	 * @param keys
+	 *            the keys of a source node
+	 * @return a mask of the slots the keys fill, or -1 if a key has no slot
+	 */
+	static int presence(String[] slotKeys, String[] keys) {
+		int mask = 0;
+		for (String key : keys) {
+			int slot = slotOf(slotKeys, key);
+			if (slot < 0)
+				return -1;
+			mask |= 1 << slot;
+		}
+		return mask;
+	}
+
+	/**
+	 * @return the value of the slot in a source node, or null if it has none
+	 */
+	static Object slotValue(String[] slotKeys, int slot, String[] keys, Object[] values) {
+		for (int index = 0; index < keys.length; index++)
+			if (keys[index].equals(slotKeys[slot]))
+				return values[index];
+		return null;
+	}
+
+	static boolean isText(Object value) {
+		return value == null || value instanceof String;
+	}
+
+	static boolean isNode(Object value) {
+		return value == null || value instanceof AstNode;
+	}
+
+	private static int slotOf(String[] slotKeys, String key) {
+		for (int slot = 0; slot < slotKeys.length; slot++)
+			if (slotKeys[slot].equals(key))
+				return slot;
+		return -1;
+	}
+
+}
@@ -0,0 +1,59 @@
+/**
+ * Package holds the binary encoding and file store of Snippets, for saving parsed
+ * queries and reading them back without parsing them again, and their JSON output
+ */
+package mumble.sql.io;
+
+/**
+ * Layout of the binary Snippet encoding shared by SnippetEncoder and SnippetDecoder.
+ *
+ * A stream starts with the MAGIC number and the VERSION byte, followed by any number
+ * of Snippets, each a SNIPPET byte and the values of its AST, Table Dictionary,
+ * Symbol Table, Substitutions and Query Interface. A value is a tag byte and its
+ * body:
+ *
+ * <pre>
+ * NULL
+ * STRING        string
+ * MAP           count, count * (string key, value)
+ * NODE          count, count * (string key, value)     AST node, in iteration order
+ * NODE_REF      index                                  node already written in this Snippet
+ * STRING_SET    count, count * string
+ * POSITION      tokenIndex, start, stop, line, column, type, channel (zigzag), value text
+ * INTEGER       value (zigzag)
+ * </pre>
+ *
+ * Counts and indexes are unsigned variable length integers, seven bits to a byte
+ * and the high bit set on all but the last; signed ones are zigzag encoded first so
+ * small negative numbers stay short. A string is 0 and its UTF-8 length and
+ * bytes the first time it is written to a stream, adding it to the stream's string
+ * table, and its index in that table plus 1 after that, so the MumbleConstants keys
+ * and repeated identifiers are written once per stream.
+ */
+final class SnippetCodec {
+
+	static final int MAGIC = 0x50535353; // "PSSS"
+	static final int VERSION = 1;
+
+	static final int SNIPPET = 0x53;
+
+	static final int NULL = 0;
+	static final int STRING = 1;
+	static final int MAP = 2;
+	static final int NODE = 3;
+	static final int NODE_REF = 4;
+	static final int STRING_SET = 5;
+	static final int POSITION = 6;
+	static final int INTEGER = 7;
+
+	private SnippetCodec() {
+	}
+
+	static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,229 @@
+package mumble.sql.io;
+
+import static mumble.sql.io.SnippetCodec.INTEGER;
+import static mumble.sql.io.SnippetCodec.MAGIC;
+import static mumble.sql.io.SnippetCodec.MAP;
+import static mumble.sql.io.SnippetCodec.NODE;
+import static mumble.sql.io.SnippetCodec.NODE_REF;
+import static mumble.sql.io.SnippetCodec.NULL;
+import static mumble.sql.io.SnippetCodec.POSITION;
+import static mumble.sql.io.SnippetCodec.SNIPPET;
+import static mumble.sql.io.SnippetCodec.STRING;
+import static mumble.sql.io.SnippetCodec.STRING_SET;
+import static mumble.sql.io.SnippetCodec.VERSION;
+import static mumble.sql.io.SnippetCodec.unzigzag;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import mumble.sql.Snippet;
+import mumble.sql.TokenPosition;
+import mumble.sql.ast.AstBuilder;
+import mumble.sql.ast.AstNode;
+
+/**
+ * Reads Snippets written by a SnippetEncoder. The AST is rebuilt into the same
+ * typed nodes, nodes the encoder wrote once are shared again, and the other parts
+ * come back as HashMaps and a HashSet, as the SQL Parse Event Walker makes them;
+ * these are linked, so they iterate, and print, in the order of the Snippet that
+ * was written. The Snippets read are not frozen.
+ */
+public class SnippetDecoder implements Closeable {
+
+	private final InputStream in;
+	private final byte[] buffer = new byte[8192];
+	private int position = 0;
+	private int limit = 0;
+
+	private final ArrayList<String> strings = new ArrayList<String>();
+	private final ArrayList<AstNode> nodes = new ArrayList<AstNode>();
+
+	/**
+	 * @param in
+	 * @throws IOException
+	 *             if the stream does not start with the header of a supported
+	 *             version
+	 */
+	public SnippetDecoder(InputStream in) throws IOException {
+		this.in = in;
+		int magic = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		if (magic != MAGIC)
+			throw new StreamCorruptedException("Not a Snippet stream");
+		int version = readByte();
+		if (version != VERSION)
+			throw new StreamCorruptedException("Unsupported Snippet stream version " + version);
+	}
+
+	/**
+	 * @param bytes
+	 *            a stream of one Snippet, as from SnippetEncoder.encode
+	 * @return the Snippet
+	 * @throws IOException
+	 *             if the bytes are not a Snippet stream
+	 */
+	public static Snippet decode(byte[] bytes) throws IOException {
+		return decode(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * @param in
+	 *            a stream of one Snippet
+	 * @return the Snippet
+	 * @throws IOException
+	 *             if the stream does not hold a Snippet
+	 */
+	public static Snippet decode(InputStream in) throws IOException {
+		Snippet snippet = new SnippetDecoder(in).read();
+		if (snippet == null)
+			throw new EOFException("No Snippet in the stream");
+		return snippet;
+	}
+
+	/**
+	 * @return the next Snippet, or null at the end of the stream
+	 * @throws IOException
+	 *             if the stream ends part way through a Snippet or is not a Snippet
+	 *             stream
+	 */
+	@SuppressWarnings("unchecked")
+	public Snippet read() throws IOException {
+		if (position == limit && !fill())
+			return null;
+		int marker = readByte();
+		if (marker != SNIPPET)
+			throw new StreamCorruptedException("Expected a Snippet, found " + marker);
+		nodes.clear();
+		Object tree = readValue();
+		Object tableDictionary = readValue();
+		Object symbolTable = readValue();
+		Object substitutions = readValue();
+		Object queryInterface = readValue();
+		nodes.clear();
+		return new Snippet((AstNode) tree, (HashMap<String, Object>) tableDictionary,
+				(HashMap<String, Object>) symbolTable, (HashMap<String, Object>) substitutions,
+				(HashSet<String>) queryInterface);
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private Object readValue() throws IOException {
+		int tag = readByte();
+		switch (tag) {
+		case NULL:
+			return null;
+		case STRING:
+			return readString();
+		case MAP: {
+			int size = readVarint();
+			// Linked, so the entries keep the iteration order they were written in
+			HashMap<String, Object> map = new LinkedHashMap<String, Object>();
+			for (int entry = 0; entry < size; entry++) {
+				String key = readString();
+				map.put(key, readValue());
+			}
+			return map;
+		}
+		case NODE: {
+			int size = readVarint();
+			LinkedHashMap<String, Object> map = new LinkedHashMap<String, Object>(size * 4 / 3 + 1);
+			for (int entry = 0; entry < size; entry++) {
+				String key = readString();
+				map.put(key, readValue());
+			}
+			AstNode node = new AstBuilder().build(map);
+			nodes.add(node);
+			return node;
+		}
+		case NODE_REF: {
+			int index = readVarint();
+			if (index >= nodes.size())
+				throw new StreamCorruptedException("Unknown node " + index);
+			return nodes.get(index);
+		}
+		case STRING_SET: {
+			int size = readVarint();
+			HashSet<String> set = new LinkedHashSet<String>();
+			for (int item = 0; item < size; item++)
+				set.add(readString());
+			return set;
+		}
+		case POSITION: {
+			int tokenIndex = unzigzag(readVarint());
+			int start = unzigzag(readVarint());
+			int stop = unzigzag(readVarint());
+			int line = unzigzag(readVarint());
+			int column = unzigzag(readVarint());
+			int type = unzigzag(readVarint());
+			int channel = unzigzag(readVarint());
+			String text = (String) readValue();
+			return new TokenPosition(tokenIndex, start, stop, line, column, type, channel, text);
+		}
+		case INTEGER:
+			return unzigzag(readVarint());
+		default:
+			throw new StreamCorruptedException("Unknown value tag " + tag);
+		}
+	}
+
+	private String readString() throws IOException {
+		int index = readVarint();
+		if (index > 0) {
+			if (index > strings.size())
+				throw new StreamCorruptedException("Unknown string " + index);
+			return strings.get(index - 1);
+		}
+		int length = readVarint();
+		byte[] bytes = new byte[length];
+		int read = 0;
+		while (read < length) {
+			if (position == limit && !fill())
+				throw new EOFException();
+			int count = Math.min(length - read, limit - position);
+			System.arraycopy(buffer, position, bytes, read, count);
+			position += count;
+			read += count;
+		}
+		String value = new String(bytes, StandardCharsets.UTF_8);
+		strings.add(value);
+		return value;
+	}
+
+	private int readVarint() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new StreamCorruptedException("Malformed integer");
+	}
+
+	private int readByte() throws IOException {
+		if (position == limit && !fill())
+			throw new EOFException();
+		return buffer[position++] & 0xFF;
+	}
+
+	private boolean fill() throws IOException {
+		int count = in.read(buffer, 0, buffer.length);
+		if (count <= 0)
+			return false;
+		position = 0;
+		limit = count;
+		return true;
+	}
+}
@@ -0,0 +1,216 @@
+package mumble.sql.io;
+
+import static mumble.sql.io.SnippetCodec.INTEGER;
+import static mumble.sql.io.SnippetCodec.MAGIC;
+import static mumble.sql.io.SnippetCodec.MAP;
+import static mumble.sql.io.SnippetCodec.NODE;
+import static mumble.sql.io.SnippetCodec.NODE_REF;
+import static mumble.sql.io.SnippetCodec.NULL;
+import static mumble.sql.io.SnippetCodec.POSITION;
+import static mumble.sql.io.SnippetCodec.SNIPPET;
+import static mumble.sql.io.SnippetCodec.STRING;
+import static mumble.sql.io.SnippetCodec.STRING_SET;
+import static mumble.sql.io.SnippetCodec.VERSION;
+import static mumble.sql.io.SnippetCodec.zigzag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import mumble.sql.Snippet;
+import mumble.sql.TokenPosition;
+import mumble.sql.ast.AstNode;
+
+/**
+ * Writes Snippets to a stream in the binary encoding described by SnippetCodec. The
+ * strings written are kept in a table for the life of the encoder, so a stream of
+ * many Snippets writes each key and identifier once; AST nodes reached twice in one
+ * Snippet, such as those the Symbol Table shares with the AST, are written once.
+ *
+ * The encoder buffers its output; call flush or close to write it all.
+ */
+public class SnippetEncoder implements Closeable, Flushable {
+
+	private final OutputStream out;
+	private final byte[] buffer = new byte[8192];
+	private int position = 0;
+
+	private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+	private final IdentityHashMap<AstNode, Integer> nodes = new IdentityHashMap<AstNode, Integer>();
+
+	/**
+	 * @param out
+	 * @throws IOException
+	 *             if the stream header cannot be written
+	 */
+	public SnippetEncoder(OutputStream out) throws IOException {
+		this.out = out;
+		writeInt(MAGIC);
+		writeByte(VERSION);
+	}
+
+	/**
+	 * @param snippet
+	 * @return a stream of the one Snippet, with its own string table
+	 */
+	public static byte[] encode(Snippet snippet) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			SnippetEncoder encoder = new SnippetEncoder(bytes);
+			encoder.write(snippet);
+			encoder.flush();
+		} catch (IOException e) {
+			// Not thrown by a ByteArrayOutputStream
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Write all five parts of the Snippet
+	 *
+	 * @param snippet
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if a part holds a value of a type the encoding does not know
+	 */
+	public void write(Snippet snippet) throws IOException {
+		writeByte(SNIPPET);
+		nodes.clear();
+		writeValue(snippet.getAbstractTree());
+		writeValue(snippet.getTableDictionary());
+		writeValue(snippet.getSymbolTable());
+		writeValue(snippet.getSubstitutionsMap());
+		writeValue(snippet.getQueryInterface());
+		nodes.clear();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.write(buffer, 0, position);
+		position = 0;
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		out.close();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			writeByte(NULL);
+		} else if (value instanceof String) {
+			writeByte(STRING);
+			writeString((String) value);
+		} else if (value instanceof AstNode) {
+			writeNode((AstNode) value);
+		} else if (value instanceof Map) {
+			Map<String, Object> map = (Map<String, Object>) value;
+			writeByte(MAP);
+			writeVarint(map.size());
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
+				writeString(entry.getKey());
+				writeValue(entry.getValue());
+			}
+		} else if (value instanceof TokenPosition) {
+			TokenPosition token = (TokenPosition) value;
+			writeByte(POSITION);
+			writeVarint(zigzag(token.getTokenIndex()));
+			writeVarint(zigzag(token.getStartIndex()));
+			writeVarint(zigzag(token.getStopIndex()));
+			writeVarint(zigzag(token.getLine()));
+			writeVarint(zigzag(token.getCharPositionInLine()));
+			writeVarint(zigzag(token.getType()));
+			writeVarint(zigzag(token.getChannel()));
+			writeValue(token.getText());
+		} else if (value instanceof Integer) {
+			writeByte(INTEGER);
+			writeVarint(zigzag((Integer) value));
+		} else if (value instanceof Set) {
+			Set<String> set = (Set<String>) value;
+			writeByte(STRING_SET);
+			writeVarint(set.size());
+			for (String item : set)
+				writeString(item);
+		} else {
+			throw new IllegalArgumentException("Cannot encode a " + value.getClass().getName() + " in a Snippet");
+		}
+	}
+
+	private void writeNode(AstNode node) throws IOException {
+		Integer index = nodes.get(node);
+		if (index != null) {
+			writeByte(NODE_REF);
+			writeVarint(index);
+			return;
+		}
+		int size = node.size();
+		writeByte(NODE);
+		writeVarint(size);
+		for (int entry = 0; entry < size; entry++) {
+			writeString(node.keyAt(entry));
+			writeValue(node.valueAt(entry));
+		}
+		// Numbered once complete, the order in which the decoder finishes them
+		nodes.put(node, nodes.size());
+	}
+
+	private void writeString(String value) throws IOException {
+		Integer index = strings.get(value);
+		if (index != null) {
+			writeVarint(index + 1);
+			return;
+		}
+		strings.put(value, strings.size());
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(0);
+		writeVarint(bytes.length);
+		writeBytes(bytes);
+	}
+
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	private void writeInt(int value) throws IOException {
+		writeByte(value >>> 24);
+		writeByte(value >>> 16);
+		writeByte(value >>> 8);
+		writeByte(value);
+	}
+
+	private void writeByte(int value) throws IOException {
+		if (position == buffer.length) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		if (bytes.length > buffer.length - position) {
+			out.write(buffer, 0, position);
+			position = 0;
+			if (bytes.length > buffer.length) {
+				out.write(bytes);
+				return;
+			}
+		}
+		System.arraycopy(bytes, 0, buffer, position, bytes.length);
+		position += bytes.length;
+	}
+}
@@ -0,0 +1,293 @@
+package mumble.sql.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+
+import mumble.sql.Snippet;
+import mumble.sql.TokenPosition;
+
+/**
+ * Writes Snippets as JSON straight to a stream or channel, through one reusable
+ * buffer, without building the document or its strings in memory. Each Snippet is
+ * one JSON object on its own line, so a stream of Snippets is JSON Lines:
+ *
+ * <pre>
+ * {"sqlAbstractTree":{...},"tableDictionary":{...},"symbolTable":{...},"substitutionsMap":{...},"queryInterface":[...]}
+ * </pre>
+ *
+ * Output is deterministic: the keys of each object are written with the positions
+ * of list items first, in numeric order, then the other keys in sorted order, and
+ * the Query Interface is sorted.
+ * Token positions are objects of their fields.
+ */
+public class SnippetJsonWriter implements Closeable, Flushable {
+
+	private static final byte[] HEX = "0123456789abcdef".getBytes();
+	private static final byte[] NULL = "null".getBytes();
+
+	/**
+	 * The positions of list items, "1", "2", ..., "10", in numeric order, then the
+	 * other keys, such as aliases starting with a digit, in sorted order
+	 */
+	private static final Comparator<String> KEY_ORDER = new Comparator<String>() {
+		@Override
+		public int compare(String left, String right) {
+			boolean leftDigits = isDigits(left);
+			boolean rightDigits = isDigits(right);
+			if (leftDigits != rightDigits)
+				return leftDigits ? -1 : 1;
+			if (leftDigits && left.length() != right.length())
+				return left.length() - right.length();
+			return left.compareTo(right);
+		}
+	};
+
+	private final OutputStream out;
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+
+	/**
+	 * @param out
+	 */
+	public SnippetJsonWriter(OutputStream out) {
+		this.out = out;
+		this.channel = null;
+		this.buffer = ByteBuffer.allocate(8192);
+	}
+
+	/**
+	 * @param channel
+	 */
+	public SnippetJsonWriter(WritableByteChannel channel) {
+		this.out = null;
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(8192);
+	}
+
+	/**
+	 * Write the Snippet as one line of JSON
+	 *
+	 * @param snippet
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if a part holds a value of a type with no JSON form
+	 */
+	public void write(Snippet snippet) throws IOException {
+		writeByte('{');
+		writeField("sqlAbstractTree", false);
+		writeValue(snippet.getAbstractTree());
+		writeField("tableDictionary", true);
+		writeValue(snippet.getTableDictionary());
+		writeField("symbolTable", true);
+		writeValue(snippet.getSymbolTable());
+		writeField("substitutionsMap", true);
+		writeValue(snippet.getSubstitutionsMap());
+		writeField("queryInterface", true);
+		writeValue(snippet.getQueryInterface());
+		writeByte('}');
+		writeByte('\n');
+	}
+
+	@Override
+	public void flush() throws IOException {
+		drain();
+		if (out != null)
+			out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		drain();
+		if (out != null)
+			out.close();
+		else
+			channel.close();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			writeBytes(NULL);
+		} else if (value instanceof String) {
+			writeString((String) value);
+		} else if (value instanceof Map) {
+			Map<String, Object> map = (Map<String, Object>) value;
+			String[] keys = map.keySet().toArray(new String[map.size()]);
+			Arrays.sort(keys, KEY_ORDER);
+			writeByte('{');
+			for (int index = 0; index < keys.length; index++) {
+				writeField(keys[index], index > 0);
+				writeValue(map.get(keys[index]));
+			}
+			writeByte('}');
+		} else if (value instanceof Set) {
+			Set<String> set = (Set<String>) value;
+			String[] items = set.toArray(new String[set.size()]);
+			Arrays.sort(items);
+			writeByte('[');
+			for (int index = 0; index < items.length; index++) {
+				if (index > 0)
+					writeByte(',');
+				writeString(items[index]);
+			}
+			writeByte(']');
+		} else if (value instanceof TokenPosition) {
+			TokenPosition token = (TokenPosition) value;
+			writeByte('{');
+			writeField("channel", false);
+			writeInt(token.getChannel());
+			writeField("charPositionInLine", true);
+			writeInt(token.getCharPositionInLine());
+			writeField("line", true);
+			writeInt(token.getLine());
+			writeField("startIndex", true);
+			writeInt(token.getStartIndex());
+			writeField("stopIndex", true);
+			writeInt(token.getStopIndex());
+			writeField("text", true);
+			writeValue(token.getText());
+			writeField("tokenIndex", true);
+			writeInt(token.getTokenIndex());
+			writeField("type", true);
+			writeInt(token.getType());
+			writeByte('}');
+		} else if (value instanceof Integer) {
+			writeInt((Integer) value);
+		} else {
+			throw new IllegalArgumentException("Cannot write a " + value.getClass().getName() + " as JSON");
+		}
+	}
+
+	private static boolean isDigits(String key) {
+		if (key.isEmpty())
+			return false;
+		for (int index = 0; index < key.length(); index++)
+			if (key.charAt(index) < '0' || key.charAt(index) > '9')
+				return false;
+		return true;
+	}
+
+	private void writeField(String name, boolean comma) throws IOException {
+		if (comma)
+			writeByte(',');
+		writeString(name);
+		writeByte(':');
+	}
+
+	/**
+	 * Write the string quoted and escaped, encoding it to UTF-8 as it goes
+	 */
+	private void writeString(String text) throws IOException {
+		writeByte('"');
+		int length = text.length();
+		for (int index = 0; index < length; index++) {
+			char c = text.charAt(index);
+			if (c == '"' || c == '\\') {
+				writeByte('\\');
+				writeByte(c);
+			} else if (c < 0x20) {
+				writeEscape(c);
+			} else if (c < 0x80) {
+				writeByte(c);
+			} else if (c < 0x800) {
+				writeByte(0xC0 | (c >> 6));
+				writeByte(0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && index + 1 < length
+					&& Character.isLowSurrogate(text.charAt(index + 1))) {
+				int codePoint = Character.toCodePoint(c, text.charAt(++index));
+				writeByte(0xF0 | (codePoint >> 18));
+				writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+				writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+				writeByte(0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				// Unpaired, so not encodable as UTF-8; keep it as an escape
+				writeEscape(c);
+			} else {
+				writeByte(0xE0 | (c >> 12));
+				writeByte(0x80 | ((c >> 6) & 0x3F));
+				writeByte(0x80 | (c & 0x3F));
+			}
+		}
+		writeByte('"');
+	}
+
+	private void writeEscape(char c) throws IOException {
+		writeByte('\\');
+		switch (c) {
+		case '\n':
+			writeByte('n');
+			break;
+		case '\r':
+			writeByte('r');
+			break;
+		case '\t':
+			writeByte('t');
+			break;
+		case '\b':
+			writeByte('b');
+			break;
+		case '\f':
+			writeByte('f');
+			break;
+		default:
+			writeByte('u');
+			writeByte(HEX[(c >> 12) & 0xF]);
+			writeByte(HEX[(c >> 8) & 0xF]);
+			writeByte(HEX[(c >> 4) & 0xF]);
+			writeByte(HEX[c & 0xF]);
+		}
+	}
+
+	/**
+	 * Write the digits without making a string of them
+	 */
+	private void writeInt(int value) throws IOException {
+		if (value == Integer.MIN_VALUE) {
+			writeBytes(Integer.toString(value).getBytes());
+			return;
+		}
+		if (value < 0) {
+			writeByte('-');
+			value = -value;
+		}
+		int divisor = 1;
+		while (value / divisor >= 10)
+			divisor *= 10;
+		for (; divisor > 0; divisor /= 10)
+			writeByte('0' + (value / divisor) % 10);
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		for (byte b : bytes)
+			writeByte(b);
+	}
+
+	private void writeByte(int value) throws IOException {
+		if (!buffer.hasRemaining())
+			drain();
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Hand the buffered bytes to the stream or channel and reuse the buffer
+	 */
+	private void drain() throws IOException {
+		buffer.flip();
+		if (out != null) {
+			out.write(buffer.array(), buffer.arrayOffset(), buffer.limit());
+		} else {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
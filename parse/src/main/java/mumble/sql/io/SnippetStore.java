@@ -0,0 +1,308 @@
+package mumble.sql.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import mumble.sql.Snippet;
+
+/**
+ * Append only file of encoded Snippets, each stored under an id such as
+ * id(task_name, data_space_id) and read back on its own by that id.
+ *
+ * The file is a header followed by records, each the length of the rest of the
+ * record, the length and UTF-8 bytes of the id and the Snippet as encoded by
+ * SnippetEncoder.encode. Only the offset of each id's latest record is held on the
+ * heap, rebuilt from the record headers when the store is opened; the records are
+ * read through read only mappings of the file, a region at a time, so the Snippets
+ * not in use stay off the heap and the operating system pages them in and out.
+ *
+ * Storing an id again appends a new record that replaces the old one in the index;
+ * the old record stays in the file. A record left incomplete by a failed append is
+ * cut off when the store is next opened.
+ */
+public class SnippetStore implements Closeable {
+
+	public static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+	private static final int MAGIC = 0x50535344; // "PSSD"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 5;
+	private static final int RECORD_HEADER_SIZE = 4 + 2;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final boolean readOnly;
+	private final int regionSize;
+
+	/**
+	 * Id to file offset of its latest record
+	 */
+	private final HashMap<String, Long> index = new HashMap<String, Long>();
+
+	/**
+	 * Mapped regions of the file, region i starting at i * regionSize; a region is
+	 * mapped again when a record past its end is read after the file has grown
+	 */
+	private MappedByteBuffer[] regions = new MappedByteBuffer[0];
+	private long size;
+
+	/**
+	 * Open the store for reading and appending, creating it if there is none
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public SnippetStore(File file) throws IOException {
+		this(file, false, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * @param file
+	 * @param readOnly
+	 *            true to open an existing store without appending to it
+	 * @param regionSize
+	 *            bytes mapped at a time
+	 * @throws IOException
+	 *             if the file is not a Snippet store
+	 */
+	public SnippetStore(File file, boolean readOnly, int regionSize) throws IOException {
+		if (regionSize <= 0)
+			throw new IllegalArgumentException("regionSize must be positive");
+		this.file = new RandomAccessFile(file, readOnly ? "r" : "rw");
+		this.channel = this.file.getChannel();
+		this.readOnly = readOnly;
+		this.regionSize = regionSize;
+		try {
+			open();
+		} catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param taskName
+	 * @param dataSpaceId
+	 * @return the id of the query extracted by a task for a data space
+	 */
+	public static String id(String taskName, String dataSpaceId) {
+		return taskName + "/" + dataSpaceId;
+	}
+
+	/**
+	 * Append the Snippet under the id, replacing any Snippet stored under it before
+	 *
+	 * @param id
+	 * @param snippet
+	 * @throws IOException
+	 */
+	public synchronized void put(String id, Snippet snippet) throws IOException {
+		if (readOnly)
+			throw new IllegalStateException("Snippet store is read only");
+		byte[] key = id.getBytes(StandardCharsets.UTF_8);
+		if (key.length > 0xFFFF)
+			throw new IllegalArgumentException("Snippet id is too long: " + id);
+		byte[] encoded = SnippetEncoder.encode(snippet);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + key.length + encoded.length);
+		record.putInt(2 + key.length + encoded.length).putShort((short) key.length).put(key).put(encoded);
+		record.flip();
+		long offset = size;
+		writeFully(record, offset);
+		size = offset + record.limit();
+		index.put(id, offset);
+	}
+
+	/**
+	 * @param id
+	 * @return the Snippet stored under the id, decoded from the file, or null if there
+	 *         is none
+	 * @throws IOException
+	 */
+	public Snippet get(String id) throws IOException {
+		ByteBuffer encoded;
+		synchronized (this) {
+			Long offset = index.get(id);
+			if (offset == null)
+				return null;
+			ByteBuffer header = read(offset, RECORD_HEADER_SIZE);
+			int length = header.getInt();
+			int keyLength = header.getShort() & 0xFFFF;
+			encoded = read(offset + RECORD_HEADER_SIZE + keyLength, length - 2 - keyLength);
+		}
+		return SnippetDecoder.decode(new BufferInputStream(encoded));
+	}
+
+	public synchronized boolean contains(String id) {
+		return index.containsKey(id);
+	}
+
+	/**
+	 * @return the number of ids stored
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+
+	/**
+	 * @return a copy of the ids stored
+	 */
+	public synchronized Set<String> ids() {
+		return Collections.unmodifiableSet(new HashSet<String>(index.keySet()));
+	}
+
+	/**
+	 * Write the appended records through to the storage device
+	 *
+	 * @throws IOException
+	 */
+	public void force() throws IOException {
+		channel.force(false);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		regions = new MappedByteBuffer[0];
+		index.clear();
+		file.close();
+	}
+
+	/**
+	 * Check the header, or write it for a new store, and index the complete records
+	 */
+	private void open() throws IOException {
+		long length = channel.size();
+		if (length == 0 && !readOnly) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).put((byte) VERSION);
+			header.flip();
+			writeFully(header, 0);
+			size = HEADER_SIZE;
+			return;
+		}
+		size = length;
+		if (length < HEADER_SIZE)
+			throw new StreamCorruptedException("Not a Snippet store");
+		ByteBuffer header = read(0, HEADER_SIZE);
+		if (header.getInt() != MAGIC)
+			throw new StreamCorruptedException("Not a Snippet store");
+		int version = header.get();
+		if (version != VERSION)
+			throw new StreamCorruptedException("Unsupported Snippet store version " + version);
+
+		long offset = HEADER_SIZE;
+		while (offset + RECORD_HEADER_SIZE <= length) {
+			ByteBuffer recordHeader = read(offset, RECORD_HEADER_SIZE);
+			int recordLength = recordHeader.getInt();
+			int keyLength = recordHeader.getShort() & 0xFFFF;
+			long end = offset + 4 + recordLength;
+			if (recordLength < 2 + keyLength || end > length)
+				break;
+			ByteBuffer key = read(offset + RECORD_HEADER_SIZE, keyLength);
+			index.put(StandardCharsets.UTF_8.decode(key).toString(), offset);
+			offset = end;
+		}
+		if (offset < length) {
+			// The tail of an append that did not finish
+			regions = new MappedByteBuffer[0];
+			if (!readOnly)
+				channel.truncate(offset);
+			size = offset;
+		}
+	}
+
+	/**
+	 * @return the bytes at the offset, straight from the mapping if they lie in one
+	 *         region and copied out if they cross into the next
+	 */
+	private ByteBuffer read(long offset, int length) throws IOException {
+		if (length < 0 || offset + length > size)
+			throw new EOFException("Record runs past the end of the Snippet store");
+		int first = (int) (offset / regionSize);
+		int start = (int) (offset - (long) first * regionSize);
+		if (start + length <= regionSize) {
+			ByteBuffer bytes = region(first, start + length).duplicate();
+			bytes.position(start).limit(start + length);
+			return bytes.slice();
+		}
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		int region = first;
+		while (bytes.hasRemaining()) {
+			int count = Math.min(bytes.remaining(), regionSize - start);
+			ByteBuffer part = region(region, start + count).duplicate();
+			part.position(start).limit(start + count);
+			bytes.put(part);
+			region++;
+			start = 0;
+		}
+		bytes.flip();
+		return bytes;
+	}
+
+	/**
+	 * @return the region, mapped to at least the given length
+	 */
+	private MappedByteBuffer region(int region, int length) throws IOException {
+		if (region >= regions.length) {
+			MappedByteBuffer[] grown = new MappedByteBuffer[region + 1];
+			System.arraycopy(regions, 0, grown, 0, regions.length);
+			regions = grown;
+		}
+		MappedByteBuffer mapped = regions[region];
+		if (mapped == null || mapped.capacity() < length) {
+			long start = (long) region * regionSize;
+			long mapSize = Math.min(regionSize, size - start);
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, mapSize);
+			regions[region] = mapped;
+		}
+		return mapped;
+	}
+
+	private void writeFully(ByteBuffer bytes, long offset) throws IOException {
+		while (bytes.hasRemaining())
+			offset += channel.write(bytes, offset);
+	}
+
+	/**
+	 * Reads an encoded Snippet from its mapped bytes
+	 */
+	private static class BufferInputStream extends InputStream {
+
+		private final ByteBuffer bytes;
+
+		BufferInputStream(ByteBuffer bytes) {
+			this.bytes = bytes;
+		}
+
+		@Override
+		public int read() {
+			return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if (!bytes.hasRemaining())
+				return -1;
+			int count = Math.min(length, bytes.remaining());
+			bytes.get(buffer, offset, count);
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return bytes.remaining();
+		}
+	}
+}
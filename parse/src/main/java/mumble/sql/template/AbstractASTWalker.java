@@ -2,7 +2,7 @@ package mumble.sql.template;
 
 import static mumble.sql.MumbleConstants.*;
 
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import mumble.sql.Snippet;
@@ -23,12 +23,12 @@ public class AbstractASTWalker {
 		this.snip = snip;
 	}
 
-	public void traverseSqlTree(HashMap<String, Object> tree, Object inprog) {
+	public void traverseSqlTree(Map<String, Object> tree, Object inprog) {
 	
 			Set<String> keys = tree.keySet();
 			for (String key : keys) {
 	
-				HashMap<String, Object> subtree;
+				Map<String, Object> subtree;
 				String value;
 				
 				switch (key) {
@@ -40,32 +40,32 @@ public class AbstractASTWalker {
 					break;
 				case PSS_AND_KEY:
 					System.out.println("and");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_ASSIGNMENTS_KEY:
 					System.out.println("assignments");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_BETWEEN_KEY:
 					System.out.println("between");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_CALCULATION_KEY:
 					System.out.println("calc");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_CASE_KEY:
 					System.out.println("case");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_CLAUSES_KEY:
 					System.out.println("clauses");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_COLUMN_KEY:
@@ -74,23 +74,23 @@ public class AbstractASTWalker {
 						value = (String) tree.get(key);
 						handleValue(value, inprog);
 					} else{
-						subtree = (HashMap<String, Object>) tree.get(key);
+						subtree = (Map<String, Object>) tree.get(key);
 						handleSubTree(subtree, inprog);
 					}
 					break;
 				case PSS_CONCATENATE_KEY:
 					System.out.println("concatenate");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_CONDITION_KEY:
 					System.out.println("condition");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_CONDITION_TREE_KEY:
 					System.out.println("CONDITION");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_DATABASE_NAME_KEY:
@@ -103,12 +103,12 @@ public class AbstractASTWalker {
 					break;
 				case PSS_FROM_KEY:
 					System.out.println("from");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_FUNCTION_KEY:
 					System.out.println("function");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_FUNCTION_NAME_KEY:
@@ -118,17 +118,17 @@ public class AbstractASTWalker {
 					break;
 				case PSS_GROUPBY_KEY:
 					System.out.println("groupby");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_HAVING_KEY:
 					System.out.println("having");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_IN_KEY:
 					System.out.println("in");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_IN_LIST_KEY:
@@ -136,12 +136,12 @@ public class AbstractASTWalker {
 					break;
 				case PSS_INSERT_KEY:
 					System.out.println("insert");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_INTERSECT_KEY:
 					System.out.println("intersect");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_ITEM_KEY:
@@ -156,19 +156,19 @@ public class AbstractASTWalker {
 						value = (String) tree.get(key);
 						handleValue(value, inprog);
 					} else{
-						subtree = (HashMap<String, Object>) tree.get(key);
+						subtree = (Map<String, Object>) tree.get(key);
 						handleListOfSubTree(subtree, inprog);
 	//					handleSubTree(subtree, inprog);
 					}
 					break;
 				case PSS_JOIN_ON_KEY:
 					System.out.println("on");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_LEFT_FACTOR_KEY:
 					System.out.println("left");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_LIMIT_KEY:
@@ -176,7 +176,7 @@ public class AbstractASTWalker {
 					break;
 				case PSS_LIST_KEY:
 					System.out.println("list");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_LITERAL_KEY:
@@ -186,7 +186,7 @@ public class AbstractASTWalker {
 					break;
 				case PSS_LOOKUP_KEY:
 					System.out.println("lookup");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_NAME_KEY:
@@ -196,12 +196,12 @@ public class AbstractASTWalker {
 					break;
 				case PSS_NOT_IN_LIST_KEY:
 					System.out.println("not_in_list");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_NOT_KEY:
 					System.out.println("not");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_NULL_LITERAL_KEY:
@@ -221,42 +221,42 @@ public class AbstractASTWalker {
 					break;
 				case PSS_OR_KEY:
 					System.out.println("or");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_ORDERBY_KEY:
 					System.out.println("orderby");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_OVER_KEY:
 					System.out.println("over");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_PARAMETERS_KEY:
 					System.out.println("parameters");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_PARENTHESES_KEY:
 					System.out.println("parentheses");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_PARTITION_BY_KEY:
 					System.out.println("partition_by");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_PREDICAND_KEY:
 					System.out.println("predicand");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_PREDICAND_TREE_KEY:
 					System.out.println("PREDICAND");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_QUALIFIER_KEY:
@@ -266,7 +266,7 @@ public class AbstractASTWalker {
 					break;
 				case PSS_QUERY_KEY:
 					System.out.println("query");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_RANGE_BEGIN_KEY:
@@ -286,7 +286,7 @@ public class AbstractASTWalker {
 					break;
 				case PSS_RIGHT_FACTOR_KEY:
 					System.out.println("right");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_SCHEMA_KEY:
@@ -296,7 +296,7 @@ public class AbstractASTWalker {
 					break;
 				case PSS_SELECT_KEY:
 					System.out.println("select");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_SET_KEY:
@@ -309,12 +309,12 @@ public class AbstractASTWalker {
 					break;
 				case PSS_SQL_TREE_KEY:
 					System.out.println("SQL");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_SUBSTITUTION_KEY:
 					System.out.println("substitution");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_SYMMETRY_KEY:
@@ -328,7 +328,7 @@ public class AbstractASTWalker {
 						value = (String) tree.get(key);
 						handleValue(value, inprog);
 					} else{
-						subtree = (HashMap<String, Object>) tree.get(key);
+						subtree = (Map<String, Object>) tree.get(key);
 						handleSubTree(subtree, inprog);
 					}
 					break;
@@ -339,7 +339,7 @@ public class AbstractASTWalker {
 					break;
 				case PSS_THEN_KEY:
 					System.out.println("then");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_TO_KEY:
@@ -357,12 +357,12 @@ public class AbstractASTWalker {
 					break;
 				case PSS_UNION_KEY:
 					System.out.println("union");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleListOfSubTree(subtree, inprog);
 					break;
 				case PSS_UPDATE_KEY:
 					System.out.println("update");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_VALUE_KEY:
@@ -372,22 +372,22 @@ public class AbstractASTWalker {
 					break;
 				case PSS_WHEN_KEY:
 					System.out.println("when");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_WHERE_KEY:
 					System.out.println("where");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_WINDOW_FUNCTION_KEY:
 					System.out.println("window_function");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				case PSS_WITH_KEY:
 					System.out.println("with");
-					subtree = (HashMap<String, Object>) tree.get(key);
+					subtree = (Map<String, Object>) tree.get(key);
 					handleSubTree(subtree, inprog);
 					break;
 				default:
@@ -396,7 +396,7 @@ public class AbstractASTWalker {
 						value = (String) tree.get(key);
 						handleValue(value, inprog);
 					} else{
-						subtree = (HashMap<String, Object>) tree.get(key);
+						subtree = (Map<String, Object>) tree.get(key);
 						handleSubTree(subtree, inprog);
 					}
 					break;
@@ -412,12 +412,12 @@ public class AbstractASTWalker {
 		System.out.println(value);
 	}
 
-	private void handleSubTree(HashMap<String, Object> subtree, Object inprog) {
+	private void handleSubTree(Map<String, Object> subtree, Object inprog) {
 		traverseSqlTree(subtree, inprog);
 		
 	}
 
-	private void handleListOfSubTree(HashMap<String, Object> list, Object inprog) {
+	private void handleListOfSubTree(Map<String, Object> list, Object inprog) {
 		Set<String> keys = list.keySet();
 		int count = keys.size();
 		
@@ -427,7 +427,7 @@ public class AbstractASTWalker {
 				String value = (String) list.get(key);
 				handleValue(value, inprog);
 			} else{
-				HashMap<String, Object> subtree = (HashMap<String, Object>) list.get(key);
+				Map<String, Object> subtree = (Map<String, Object>) list.get(key);
 				handleSubTree(subtree, inprog);
 			}
 		}
@@ -0,0 +1,45 @@
+package sql;
+
+/**
+ * Position and message of the first error found by a ParseErrorCollector. It keeps
+ * neither the parser nor the exception, so it does not hold on to the query's
+ * tokens.
+ */
+public class ParseError {
+
+	private final int line;
+	private final int charPositionInLine;
+	private final int tokenIndex;
+	private final String message;
+
+	public ParseError(int line, int charPositionInLine, int tokenIndex, String message) {
+		this.line = line;
+		this.charPositionInLine = charPositionInLine;
+		this.tokenIndex = tokenIndex;
+		this.message = message;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getCharPositionInLine() {
+		return charPositionInLine;
+	}
+
+	/**
+	 * @return index of the offending token, or -1 if there was none
+	 */
+	public int getTokenIndex() {
+		return tokenIndex;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return "Line: " + line + " Character: " + charPositionInLine + " Error: " + message;
+	}
+}
@@ -3,61 +3,102 @@ package sql;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.FailedPredicateException;
+import org.antlr.v4.runtime.InputMismatchException;
+import org.antlr.v4.runtime.NoViableAltException;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
-
-
-public class ParseErrorCollector implements ANTLRErrorStrategy {
+/**
+ * Fail fast error strategy for validating queries: the first error is recorded as a
+ * ParseError, with the same message the default strategy would report, and the
+ * parse is cancelled with a ParseCancellationException. No recovery is attempted
+ * and no error listeners are called.
+ *
+ * @author geoffreyhowe
+ *
+ */
+public class ParseErrorCollector extends DefaultErrorStrategy {
 
 	private List<String> errorList = new ArrayList<String> ();
-	
+	private ParseError firstError;
+
 	public List<String> getErrorList() {
 		return errorList;
 	}
 
+	/**
+	 * @return the error that stopped the parse, or null
+	 */
+	public ParseError getFirstError() {
+		return firstError;
+	}
+
+	public boolean hasError() {
+		return firstError != null;
+	}
+
 	@Override
 	public void reset(Parser recognizer) {
-		// TODO Auto-generated method stub
-		
+		super.reset(recognizer);
+		errorList.clear();
+		firstError = null;
 	}
 
 	@Override
 	public Token recoverInline(Parser recognizer) throws RecognitionException {
-		// TODO Auto-generated method stub
-		return null;
+		InputMismatchException e = new InputMismatchException(recognizer);
+		reportError(recognizer, e);
+		throw new ParseCancellationException(e);
 	}
 
 	@Override
 	public void recover(Parser recognizer, RecognitionException e) throws RecognitionException {
-		// TODO Auto-generated method stub
-		
+		throw new ParseCancellationException(e);
 	}
 
 	@Override
 	public void sync(Parser recognizer) throws RecognitionException {
-		// TODO Auto-generated method stub
-		
+		// Errors are found when the next token is matched or predicted
 	}
 
 	@Override
-	public boolean inErrorRecoveryMode(Parser recognizer) {
-		// TODO Auto-generated method stub
-		return false;
-	}
+	public void reportError(Parser recognizer, RecognitionException e) {
+		if (firstError != null)
+			return;
+		String message;
+		if (e instanceof NoViableAltException)
+			message = noViableAlternativeMessage(recognizer, (NoViableAltException) e);
+		else if (e instanceof InputMismatchException)
+			message = "mismatched input " + getTokenErrorDisplay(e.getOffendingToken()) + " expecting "
+					+ e.getExpectedTokens().toString(recognizer.getVocabulary());
+		else if (e instanceof FailedPredicateException)
+			message = "rule " + recognizer.getRuleNames()[recognizer.getContext().getRuleIndex()] + " "
+					+ e.getMessage();
+		else
+			message = e.getMessage();
 
-	@Override
-	public void reportMatch(Parser recognizer) {
-		// TODO Auto-generated method stub
-		
+		Token token = e.getOffendingToken();
+		if (token == null)
+			token = recognizer.getCurrentToken();
+		firstError = new ParseError(token.getLine(), token.getCharPositionInLine(), token.getTokenIndex(), message);
+		errorList.add(message);
 	}
 
-	@Override
-	public void reportError(Parser recognizer, RecognitionException e) {
-		// TODO Auto-generated method stub
-		errorList.add(e.getMessage());
+	private String noViableAlternativeMessage(Parser recognizer, NoViableAltException e) {
+		TokenStream tokens = recognizer.getInputStream();
+		String input;
+		if (tokens == null)
+			input = "<unknown input>";
+		else if (e.getStartToken().getType() == Token.EOF)
+			input = "<EOF>";
+		else
+			input = tokens.getText(e.getStartToken(), e.getOffendingToken());
+		return "no viable alternative at input " + escapeWSAndQuote(input);
 	}
 
 }
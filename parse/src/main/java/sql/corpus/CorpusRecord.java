@@ -0,0 +1,72 @@
+package sql.corpus;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * One record of a query corpus export, with its fields looked up by position or by
+ * the column names of the export's header
+ */
+public class CorpusRecord {
+
+	private final long recordNumber;
+	private final long byteOffset;
+	private final String[] fields;
+	private final Map<String, Integer> columns;
+
+	/**
+	 * @param recordNumber
+	 *            1 for the first record after the header
+	 * @param byteOffset
+	 *            position of the record in the export
+	 * @param fields
+	 * @param columns
+	 *            column name to field position, shared by all records of an export
+	 */
+	public CorpusRecord(long recordNumber, long byteOffset, String[] fields, Map<String, Integer> columns) {
+		this.recordNumber = recordNumber;
+		this.byteOffset = byteOffset;
+		this.fields = fields;
+		this.columns = columns;
+	}
+
+	public long getRecordNumber() {
+		return recordNumber;
+	}
+
+	public long getByteOffset() {
+		return byteOffset;
+	}
+
+	public int size() {
+		return fields.length;
+	}
+
+	/**
+	 * @param index
+	 * @return the field, or null if the record is shorter
+	 */
+	public String get(int index) {
+		if (index < 0 || index >= fields.length)
+			return null;
+		return fields[index];
+	}
+
+	/**
+	 * @param column
+	 *            a column name from the header
+	 * @return the field, or null if there is no such column
+	 */
+	public String get(String column) {
+		Integer index = columns.get(column);
+		if (index == null)
+			return null;
+		return get(index);
+	}
+
+	@Override
+	public String toString() {
+		return "CorpusRecord [recordNumber=" + recordNumber + ", byteOffset=" + byteOffset + ", fields="
+				+ Arrays.toString(fields) + "]";
+	}
+}
@@ -0,0 +1,385 @@
+package sql.corpus;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import sql.walker.SQLSelectEntryRule;
+import sql.walker.SnippetParseRequest;
+
+/**
+ * Streaming reader for CSV query corpus exports such as testdata/sqlintellect.csv,
+ * where the first record names the columns and fields may be quoted, span lines
+ * and contain doubled quotes.
+ *
+ * The export is memory mapped a window at a time and records are scanned directly
+ * in the mapped bytes: only field boundaries are recorded, and each field is then
+ * decoded straight from its byte range, so no line strings are built and memory use
+ * does not depend on the size of the export. When a record runs past the end of
+ * the window the window is mapped again from the start of that record, and grown
+ * if a single record is larger than the window.
+ */
+public class CsvCorpusReader implements Iterator<CorpusRecord>, Closeable {
+
+	public static final int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+
+	private static final byte QUOTE = '"';
+	private static final byte COMMA = ',';
+	private static final byte CR = '\r';
+	private static final byte LF = '\n';
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final long fileSize;
+	private final int windowSize;
+	private final CharsetDecoder decoder;
+	private final List<String> header;
+	private final Map<String, Integer> columns;
+
+	/**
+	 * Mapped bytes from windowStart; record scanning uses absolute positions in it
+	 */
+	private MappedByteBuffer window;
+	private long windowStart;
+	private int windowLimit;
+
+	/**
+	 * File offset of the next record to scan
+	 */
+	private long offset = 0;
+
+	/**
+	 * Field boundaries of the scanned record, relative to the window
+	 */
+	private int[] fieldStarts = new int[16];
+	private int[] fieldEnds = new int[16];
+	private boolean[] fieldEscaped = new boolean[16];
+	private int fieldCount;
+	private int recordStart;
+	private int recordEnd;
+
+	/**
+	 * Reused decoding buffers
+	 */
+	private byte[] unescaped = new byte[256];
+	private CharBuffer chars = CharBuffer.allocate(256);
+
+	private long recordNumber = 0;
+	private CorpusRecord next;
+
+	/**
+	 * Read a UTF-8 export
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public CsvCorpusReader(File file) throws IOException {
+		this(file, Charset.forName("UTF-8"), DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param file
+	 * @param charset
+	 *            encoding of the export
+	 * @param windowSize
+	 *            bytes mapped at a time
+	 * @throws IOException
+	 */
+	public CsvCorpusReader(File file, Charset charset, int windowSize) throws IOException {
+		if (windowSize <= 0)
+			throw new IllegalArgumentException("windowSize must be positive");
+		this.file = new RandomAccessFile(file, "r");
+		this.channel = this.file.getChannel();
+		this.fileSize = channel.size();
+		this.windowSize = windowSize;
+		this.decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		skipByteOrderMark();
+		List<String> names = new ArrayList<String>();
+		Map<String, Integer> index = new HashMap<String, Integer>();
+		if (scan()) {
+			for (int i = 0; i < fieldCount; i++) {
+				String name = decodeField(i);
+				names.add(name);
+				if (!index.containsKey(name))
+					index.put(name, i);
+			}
+		}
+		this.header = Collections.unmodifiableList(names);
+		this.columns = Collections.unmodifiableMap(index);
+	}
+
+	/**
+	 * @return the column names from the first record
+	 */
+	public List<String> getHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null)
+			next = readRecord();
+		return next != null;
+	}
+
+	@Override
+	public CorpusRecord next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		CorpusRecord record = next;
+		next = null;
+		return record;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Corpus exports are read only");
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		file.close();
+	}
+
+	/**
+	 * Adapt the records to batch parser requests for complete SQL statements. Each
+	 * request carries its record as the attachment.
+	 *
+	 * @param queryColumn
+	 *            the column holding the SQL text, such as qry_text
+	 * @return requests in record order
+	 */
+	public Iterator<SnippetParseRequest> requests(final String queryColumn) {
+		if (!columns.containsKey(queryColumn))
+			throw new IllegalArgumentException("No column " + queryColumn + " in " + header);
+		return new Iterator<SnippetParseRequest>() {
+			@Override
+			public boolean hasNext() {
+				return CsvCorpusReader.this.hasNext();
+			}
+
+			@Override
+			public SnippetParseRequest next() {
+				CorpusRecord record = CsvCorpusReader.this.next();
+				String query = record.get(queryColumn);
+				return new SnippetParseRequest(query == null ? "" : query, SQLSelectEntryRule.SQL, record);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException("Corpus exports are read only");
+			}
+		};
+	}
+
+	private CorpusRecord readRecord() {
+		try {
+			while (scan()) {
+				// Blank lines, such as a final line break, are not records
+				if (fieldCount == 1 && fieldEnds[0] == recordStart)
+					continue;
+				long byteOffset = windowStart + recordStart;
+				String[] fields = new String[fieldCount];
+				for (int i = 0; i < fieldCount; i++)
+					fields[i] = decodeField(i);
+				return new CorpusRecord(++recordNumber, byteOffset, fields, columns);
+			}
+			return null;
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to read corpus at byte " + offset, e);
+		}
+	}
+
+	private void skipByteOrderMark() throws IOException {
+		if (fileSize < 3)
+			return;
+		map(0, Math.max(windowSize, 3));
+		if (window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB && window.get(2) == (byte) 0xBF)
+			offset = 3;
+	}
+
+	/**
+	 * Find the field boundaries of the record at offset and move offset past it
+	 *
+	 * @return false at the end of the export
+	 * @throws IOException
+	 */
+	private boolean scan() throws IOException {
+		if (offset >= fileSize)
+			return false;
+		if (window == null || offset < windowStart || offset >= windowStart + windowLimit)
+			map(offset, windowSize);
+		while (!scanRecord((int) (offset - windowStart))) {
+			// The record runs past the window: map again from its start, larger if it already started there
+			int size = windowSize;
+			if (windowStart == offset) {
+				if (windowLimit > Integer.MAX_VALUE / 2)
+					throw new IOException("Record at byte " + offset + " is too large to map");
+				size = windowLimit * 2;
+			}
+			map(offset, size);
+		}
+		offset = windowStart + recordEnd;
+		return true;
+	}
+
+	private void map(long start, int size) throws IOException {
+		long length = Math.min(size, fileSize - start);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		windowStart = start;
+		windowLimit = (int) length;
+	}
+
+	/**
+	 * @param start
+	 *            position of the record in the window
+	 * @return false if the record is not complete within the window
+	 */
+	private boolean scanRecord(int start) {
+		boolean atEnd = windowStart + windowLimit == fileSize;
+		int i = start;
+		recordStart = start;
+		fieldCount = 0;
+		while (true) {
+			int fieldStart;
+			int fieldEnd;
+			boolean escaped = false;
+			if (i < windowLimit && window.get(i) == QUOTE) {
+				fieldStart = ++i;
+				while (true) {
+					if (i >= windowLimit) {
+						if (!atEnd)
+							return false;
+						// Unterminated quote, keep the rest of the export
+						fieldEnd = i;
+						break;
+					}
+					if (window.get(i) == QUOTE) {
+						if (i + 1 >= windowLimit && !atEnd)
+							return false;
+						if (i + 1 < windowLimit && window.get(i + 1) == QUOTE) {
+							escaped = true;
+							i += 2;
+							continue;
+						}
+						fieldEnd = i++;
+						break;
+					}
+					i++;
+				}
+				// Anything between the closing quote and the delimiter is dropped
+				while (i < windowLimit && !isDelimiter(window.get(i)))
+					i++;
+			} else {
+				fieldStart = i;
+				while (i < windowLimit && !isDelimiter(window.get(i)))
+					i++;
+				fieldEnd = i;
+			}
+			if (i >= windowLimit && !atEnd)
+				return false;
+			addField(fieldStart, fieldEnd, escaped);
+
+			if (i >= windowLimit) {
+				recordEnd = i;
+				return true;
+			}
+			byte delimiter = window.get(i++);
+			if (delimiter == COMMA)
+				continue;
+			if (delimiter == CR) {
+				if (i >= windowLimit && !atEnd)
+					return false;
+				if (i < windowLimit && window.get(i) == LF)
+					i++;
+			}
+			recordEnd = i;
+			return true;
+		}
+	}
+
+	private static boolean isDelimiter(byte b) {
+		return b == COMMA || b == CR || b == LF;
+	}
+
+	private void addField(int start, int end, boolean escaped) {
+		if (fieldCount == fieldStarts.length) {
+			int length = fieldCount * 2;
+			int[] starts = new int[length];
+			int[] ends = new int[length];
+			boolean[] escapes = new boolean[length];
+			System.arraycopy(fieldStarts, 0, starts, 0, fieldCount);
+			System.arraycopy(fieldEnds, 0, ends, 0, fieldCount);
+			System.arraycopy(fieldEscaped, 0, escapes, 0, fieldCount);
+			fieldStarts = starts;
+			fieldEnds = ends;
+			fieldEscaped = escapes;
+		}
+		fieldStarts[fieldCount] = start;
+		fieldEnds[fieldCount] = end;
+		fieldEscaped[fieldCount] = escaped;
+		fieldCount++;
+	}
+
+	/**
+	 * Decode a field of the scanned record from its bytes in the window
+	 *
+	 * @param field
+	 * @return the field text with doubled quotes undone
+	 */
+	private String decodeField(int field) {
+		int start = fieldStarts[field];
+		int end = fieldEnds[field];
+		ByteBuffer bytes;
+		if (fieldEscaped[field]) {
+			if (unescaped.length < end - start)
+				unescaped = new byte[Math.max(end - start, unescaped.length * 2)];
+			int length = 0;
+			for (int i = start; i < end; i++) {
+				byte b = window.get(i);
+				unescaped[length++] = b;
+				if (b == QUOTE)
+					i++;
+			}
+			bytes = ByteBuffer.wrap(unescaped, 0, length);
+		} else {
+			window.clear();
+			window.position(start);
+			window.limit(end);
+			bytes = window;
+		}
+
+		int capacity = (int) ((end - start) * (double) decoder.maxCharsPerByte()) + 1;
+		if (chars.capacity() < capacity)
+			chars = CharBuffer.allocate(Math.max(capacity, chars.capacity() * 2));
+		chars.clear();
+		decoder.reset();
+		CoderResult result = decoder.decode(bytes, chars, true);
+		if (!result.isUnderflow())
+			throw new IllegalStateException("Failed to decode field at byte " + (windowStart + start) + ": " + result);
+		decoder.flush(chars);
+		// Scanning reads the window by absolute position up to its capacity
+		window.clear();
+		chars.flip();
+		return chars.toString();
+	}
+}
@@ -0,0 +1,185 @@
+package sql.walker;
+
+import java.util.Map;
+
+/**
+ * Immutable entity to table name and attribute to column name mapping for the SQL
+ * Parse Event Walker. Names are matched without regard to case. The mapping is
+ * copied once into open addressed arrays with each key's case folded hash stored
+ * beside it, so a lookup neither allocates nor hashes the stored keys again, and
+ * one instance can be shared by every walker on every thread.
+ *
+ * To change the mapping, build a new one and swap it in with
+ * SQLSelectParserFactory.setNameMapping; parses already under way keep the one they
+ * started with.
+ */
+public final class NameMapping {
+
+	public static final NameMapping EMPTY = new NameMapping(null, null);
+
+	private final NameTable tables;
+	private final NameTable[] columns;
+
+	/**
+	 * @param entityTableNames
+	 *            entity to table name, may be null
+	 * @param attributeColumnNames
+	 *            entity to its attribute to column name map, may be null
+	 * @throws IllegalArgumentException
+	 *             if two entities, or two attributes of an entity, differ only in
+	 *             case and map to different names
+	 */
+	public NameMapping(Map<String, String> entityTableNames,
+			Map<String, ? extends Map<String, String>> attributeColumnNames) {
+		NameTable entities = new NameTable(count(entityTableNames) + count(attributeColumnNames));
+		if (entityTableNames != null)
+			for (Map.Entry<String, String> entry : entityTableNames.entrySet())
+				entities.put(entry.getKey(), entry.getValue());
+		if (attributeColumnNames != null)
+			for (String entity : attributeColumnNames.keySet())
+				entities.put(entity, null);
+
+		columns = new NameTable[entities.size()];
+		if (attributeColumnNames != null) {
+			// Entities that differ only in case share one table of attributes
+			int[] counts = new int[entities.size()];
+			for (Map.Entry<String, ? extends Map<String, String>> entry : attributeColumnNames.entrySet())
+				if (entry.getKey() != null)
+					counts[entities.indexOf(entry.getKey())] += count(entry.getValue());
+			for (Map.Entry<String, ? extends Map<String, String>> entry : attributeColumnNames.entrySet()) {
+				if (entry.getKey() == null || entry.getValue() == null)
+					continue;
+				int index = entities.indexOf(entry.getKey());
+				if (columns[index] == null)
+					columns[index] = new NameTable(counts[index]);
+				for (Map.Entry<String, String> column : entry.getValue().entrySet())
+					columns[index].put(column.getKey(), column.getValue());
+			}
+		}
+		tables = entities;
+	}
+
+	/**
+	 * @param entityName
+	 * @return the table name of the entity, or the entity name if it has none
+	 */
+	public String getTableName(String entityName) {
+		int index = tables.indexOf(entityName);
+		if (index < 0)
+			return entityName;
+		String table = tables.valueAt(index);
+		return (table == null) ? entityName : table;
+	}
+
+	/**
+	 * @param entityName
+	 * @param attributeName
+	 * @return the column name of the entity's attribute, or the attribute name if it
+	 *         has none
+	 */
+	public String getColumnName(String entityName, String attributeName) {
+		int index = tables.indexOf(entityName);
+		if (index < 0 || columns[index] == null)
+			return attributeName;
+		NameTable attributes = columns[index];
+		int column = attributes.indexOf(attributeName);
+		if (column < 0)
+			return attributeName;
+		String name = attributes.valueAt(column);
+		return (name == null) ? attributeName : name;
+	}
+
+	/**
+	 * @return the number of entities with a table name or attributes
+	 */
+	public int size() {
+		return tables.size();
+	}
+
+	private static int count(Map<String, ?> map) {
+		return (map == null) ? 0 : map.size();
+	}
+
+	/**
+	 * Hash of a name as if every character were folded the way equalsIgnoreCase
+	 * folds it
+	 */
+	static int foldedHash(String name) {
+		int hash = 0;
+		for (int i = 0; i < name.length(); i++)
+			hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Open addressed table of case folded names, filled in insertion order; slots
+	 * hold the index of the entry, so entries keep their own dense arrays
+	 */
+	private static final class NameTable {
+		private final int[] slots;
+		private final int[] hashes;
+		private final String[] keys;
+		private final String[] values;
+		private int size = 0;
+
+		NameTable(int capacity) {
+			int length = 2;
+			while (length < capacity * 2)
+				length <<= 1;
+			slots = new int[length];
+			hashes = new int[capacity];
+			keys = new String[capacity];
+			values = new String[capacity];
+		}
+
+		int size() {
+			return size;
+		}
+
+		String valueAt(int index) {
+			return values[index];
+		}
+
+		void put(String key, String value) {
+			if (key == null)
+				return;
+			int hash = foldedHash(key);
+			int index = find(key, hash);
+			if (index >= 0) {
+				if (value == null)
+					return;
+				if (values[index] != null && !values[index].equals(value))
+					throw new IllegalArgumentException(
+							"Names " + keys[index] + " and " + key + " differ only in case but map to different names");
+				values[index] = value;
+				return;
+			}
+			int slot = hash & (slots.length - 1);
+			while (slots[slot] != 0)
+				slot = (slot + 1) & (slots.length - 1);
+			slots[slot] = size + 1;
+			hashes[size] = hash;
+			keys[size] = key;
+			values[size] = value;
+			size++;
+		}
+
+		int indexOf(String key) {
+			if (key == null || size == 0)
+				return -1;
+			return find(key, foldedHash(key));
+		}
+
+		private int find(String key, int hash) {
+			int slot = hash & (slots.length - 1);
+			int entry;
+			while ((entry = slots[slot]) != 0) {
+				int index = entry - 1;
+				if (hashes[index] == hash && keys[index].equalsIgnoreCase(key))
+					return index;
+				slot = (slot + 1) & (slots.length - 1);
+			}
+			return -1;
+		}
+	}
+}
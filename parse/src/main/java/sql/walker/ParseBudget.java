@@ -0,0 +1,51 @@
+package sql.walker;
+
+/**
+ * Limits on the work of a single parse: tokens read, wall clock time and adaptive
+ * prediction steps. A limit of zero or less is not enforced. The budget covers both
+ * stages of a two stage parse.
+ */
+public class ParseBudget {
+
+	public static final ParseBudget UNLIMITED = new ParseBudget(0, 0, 0);
+
+	private final long maxTokens;
+	private final long maxMillis;
+	private final long maxPredictionSteps;
+
+	/**
+	 * @param maxTokens
+	 *            highest token index the parser may reach, including lookahead
+	 * @param maxMillis
+	 *            wall clock time from the start of the parse
+	 * @param maxPredictionSteps
+	 *            adaptive prediction steps, each one token of SLL or LL lookahead
+	 */
+	public ParseBudget(long maxTokens, long maxMillis, long maxPredictionSteps) {
+		this.maxTokens = maxTokens;
+		this.maxMillis = maxMillis;
+		this.maxPredictionSteps = maxPredictionSteps;
+	}
+
+	public long getMaxTokens() {
+		return maxTokens;
+	}
+
+	public long getMaxMillis() {
+		return maxMillis;
+	}
+
+	public long getMaxPredictionSteps() {
+		return maxPredictionSteps;
+	}
+
+	public boolean isLimited() {
+		return maxTokens > 0 || maxMillis > 0 || maxPredictionSteps > 0;
+	}
+
+	@Override
+	public String toString() {
+		return "ParseBudget [maxTokens=" + maxTokens + ", maxMillis=" + maxMillis + ", maxPredictionSteps="
+				+ maxPredictionSteps + "]";
+	}
+}
@@ -0,0 +1,20 @@
+package sql.walker;
+
+import org.antlr.v4.runtime.Recognizer;
+
+/**
+ * Syntax error entry for a parse that was aborted because it ran out of its
+ * ParseBudget; the query may well be valid
+ */
+public class ParseBudgetError extends SyntaxError {
+
+	public ParseBudgetError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+			String msg, ParseBudgetExceededException e) {
+		super(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+	}
+
+	@Override
+	public String toString() {
+		return "Line: " + getLine() + " Character: " + getCharPositionInLine() + " Aborted: " + getMessage();
+	}
+}
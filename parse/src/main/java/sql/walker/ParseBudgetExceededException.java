@@ -0,0 +1,19 @@
+package sql.walker;
+
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+
+/**
+ * Reported for the token at which a parse ran out of its ParseBudget. It reaches the
+ * parser as the cause of a ParseCancellationException, so the generated rules do not
+ * try to recover from it.
+ */
+public class ParseBudgetExceededException extends RecognitionException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ParseBudgetExceededException(String message, Parser recognizer) {
+		super(message, recognizer, recognizer.getInputStream(), recognizer.getContext());
+		setOffendingToken(recognizer.getCurrentToken());
+	}
+}
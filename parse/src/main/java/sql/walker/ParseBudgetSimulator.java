@@ -0,0 +1,88 @@
+package sql.walker;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import sql.SQLSelectParserParser;
+
+/**
+ * Prediction simulator that charges every adaptive prediction and every lookahead
+ * step against a ParseBudget, and cancels the parse when it runs out. It shares the
+ * DFA cache of the simulator it replaces.
+ */
+class ParseBudgetSimulator extends ParserATNSimulator {
+
+	private final SQLSelectParserParser parser;
+	private ParseBudget budget = ParseBudget.UNLIMITED;
+	private long startNanos;
+	private long predictionSteps;
+
+	ParseBudgetSimulator(SQLSelectParserParser parser, ParserATNSimulator shared) {
+		super(parser, parser.getATN(), shared.decisionToDFA, shared.getSharedContextCache());
+		this.parser = parser;
+		setPredictionMode(shared.getPredictionMode());
+	}
+
+	/**
+	 * Start charging a new parse against the budget
+	 *
+	 * @param budget
+	 */
+	void start(ParseBudget budget) {
+		this.budget = budget;
+		startNanos = System.nanoTime();
+		predictionSteps = 0;
+	}
+
+	long getPredictionSteps() {
+		return predictionSteps;
+	}
+
+	@Override
+	public int adaptivePredict(TokenStream input, int decision, ParserRuleContext outerContext) {
+		if (budget.isLimited())
+			check(input.index());
+		return super.adaptivePredict(input, decision, outerContext);
+	}
+
+	/**
+	 * An SLL lookahead step, whether the DFA cache has it or not
+	 */
+	@Override
+	protected DFAState getExistingTargetState(DFAState previousD, int t) {
+		if (budget.isLimited()) {
+			predictionSteps++;
+			check(_input.index());
+		}
+		return super.getExistingTargetState(previousD, t);
+	}
+
+	/**
+	 * Full context lookahead steps are computed here without the DFA; SLL cache misses
+	 * also come here and were charged already
+	 */
+	@Override
+	protected ATNConfigSet computeReachSet(ATNConfigSet closure, int t, boolean fullCtx) {
+		if (fullCtx && budget.isLimited()) {
+			predictionSteps++;
+			check(_input.index());
+		}
+		return super.computeReachSet(closure, t, fullCtx);
+	}
+
+	private void check(int tokenIndex) {
+		String reason = null;
+		if (budget.getMaxTokens() > 0 && tokenIndex >= budget.getMaxTokens())
+			reason = "Parse budget of " + budget.getMaxTokens() + " tokens exceeded";
+		else if (budget.getMaxPredictionSteps() > 0 && predictionSteps > budget.getMaxPredictionSteps())
+			reason = "Parse budget of " + budget.getMaxPredictionSteps() + " prediction steps exceeded";
+		else if (budget.getMaxMillis() > 0 && System.nanoTime() - startNanos > budget.getMaxMillis() * 1000000L)
+			reason = "Parse budget of " + budget.getMaxMillis() + " ms exceeded";
+		if (reason != null)
+			throw new ParseCancellationException(new ParseBudgetExceededException(reason, parser));
+	}
+}
@@ -0,0 +1,197 @@
+package sql.walker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+
+import sql.SQLSelectParserParser;
+
+/**
+ * Runs queries through parsers with ANTLR's profiling ATN simulator and sums the
+ * prediction statistics of every grammar decision, so the decisions and rules of
+ * SQLSelectParser.g4 that cost the most prediction time can be ranked.
+ *
+ * Queries are parsed in full LL prediction mode by calling the entry rule directly,
+ * so the LL fallback counts show the decisions where SLL prediction hit a conflict.
+ * The profiler may be shared by threads.
+ */
+public class SQLDecisionProfiler {
+
+	public static final Comparator<SQLDecisionStats> BY_TIME = new Comparator<SQLDecisionStats>() {
+		@Override
+		public int compare(SQLDecisionStats o1, SQLDecisionStats o2) {
+			return compareDescending(o1.getTimeInPrediction(), o2.getTimeInPrediction());
+		}
+	};
+
+	public static final Comparator<SQLDecisionStats> BY_INVOCATIONS = new Comparator<SQLDecisionStats>() {
+		@Override
+		public int compare(SQLDecisionStats o1, SQLDecisionStats o2) {
+			return compareDescending(o1.getInvocations(), o2.getInvocations());
+		}
+	};
+
+	public static final Comparator<SQLDecisionStats> BY_LL_FALLBACKS = new Comparator<SQLDecisionStats>() {
+		@Override
+		public int compare(SQLDecisionStats o1, SQLDecisionStats o2) {
+			return compareDescending(o1.getLlFallbacks(), o2.getLlFallbacks());
+		}
+	};
+
+	public static final Comparator<SQLDecisionStats> BY_MAX_LOOK = new Comparator<SQLDecisionStats>() {
+		@Override
+		public int compare(SQLDecisionStats o1, SQLDecisionStats o2) {
+			return compareDescending(Math.max(o1.getSllMaxLook(), o1.getLlMaxLook()),
+					Math.max(o2.getSllMaxLook(), o2.getLlMaxLook()));
+		}
+	};
+
+	private final SQLSelectParserFactory factory;
+
+	/**
+	 * Indexed by decision number
+	 */
+	private final SQLDecisionStats[] decisions;
+
+	private long queries = 0;
+	private long failedQueries = 0;
+
+	public SQLDecisionProfiler(SQLSelectParserFactory factory) {
+		this.factory = factory;
+		ATN atn = SQLSelectParserParser._ATN;
+		decisions = new SQLDecisionStats[atn.getNumberOfDecisions()];
+		for (int d = 0; d < decisions.length; d++)
+			decisions[d] = new SQLDecisionStats(d, SQLSelectParserParser.ruleNames[atn.getDecisionState(d).ruleIndex]);
+	}
+
+	/**
+	 * Profile the parse of one query
+	 *
+	 * @param query
+	 * @param rule
+	 *            the start symbol to parse
+	 * @return the number of syntax errors
+	 */
+	public int profile(String query, SQLSelectEntryRule rule) {
+		SQLSelectParserParser parser = factory.buildParser(query);
+		parser.removeErrorListeners();
+		parser.setProfile(true);
+		rule.invoke(parser);
+
+		DecisionInfo[] infos = parser.getParseInfo().getDecisionInfo();
+		int syntaxErrors = parser.getNumberOfSyntaxErrors();
+		synchronized (decisions) {
+			queries++;
+			if (syntaxErrors > 0)
+				failedQueries++;
+			for (DecisionInfo info : infos) {
+				if (info.invocations > 0)
+					decisions[info.decision].add(info);
+			}
+		}
+		return syntaxErrors;
+	}
+
+	/**
+	 * Profile every request of a corpus
+	 *
+	 * @param requests
+	 */
+	public void profileAll(Iterator<SnippetParseRequest> requests) {
+		while (requests.hasNext()) {
+			SnippetParseRequest request = requests.next();
+			profile(request.getQuery(), request.getEntryRule());
+		}
+	}
+
+	public long getQueries() {
+		synchronized (decisions) {
+			return queries;
+		}
+	}
+
+	/**
+	 * @return queries with syntax errors; their decisions are still counted
+	 */
+	public long getFailedQueries() {
+		synchronized (decisions) {
+			return failedQueries;
+		}
+	}
+
+	/**
+	 * @param order
+	 *            such as BY_TIME
+	 * @return copies of the statistics of the decisions that were predicted at least
+	 *         once, ranked
+	 */
+	public List<SQLDecisionStats> getDecisions(Comparator<SQLDecisionStats> order) {
+		List<SQLDecisionStats> ranked = new ArrayList<SQLDecisionStats>();
+		synchronized (decisions) {
+			for (SQLDecisionStats stats : decisions) {
+				if (stats.getInvocations() == 0)
+					continue;
+				SQLDecisionStats copy = new SQLDecisionStats(stats.getDecision(), stats.getRuleName());
+				copy.add(stats);
+				ranked.add(copy);
+			}
+		}
+		Collections.sort(ranked, order);
+		return ranked;
+	}
+
+	/**
+	 * @param order
+	 * @return the statistics summed over the decisions of each rule, ranked; the
+	 *         decision number of a rule total is -1
+	 */
+	public List<SQLDecisionStats> getRules(Comparator<SQLDecisionStats> order) {
+		Map<String, SQLDecisionStats> rules = new LinkedHashMap<String, SQLDecisionStats>();
+		for (SQLDecisionStats stats : getDecisions(BY_TIME)) {
+			SQLDecisionStats total = rules.get(stats.getRuleName());
+			if (total == null) {
+				total = new SQLDecisionStats(-1, stats.getRuleName());
+				rules.put(stats.getRuleName(), total);
+			}
+			total.add(stats);
+		}
+		List<SQLDecisionStats> ranked = new ArrayList<SQLDecisionStats>(rules.values());
+		Collections.sort(ranked, order);
+		return ranked;
+	}
+
+	/**
+	 * Format the costliest decisions as a table
+	 *
+	 * @param limit
+	 *            most decisions to list
+	 * @return the report
+	 */
+	public String report(int limit) {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("Profiled %d queries, %d with syntax errors%n", getQueries(), getFailedQueries()));
+		report.append(String.format("%-8s %-32s %10s %12s %8s %8s %10s %8s %8s%n", "decision", "rule", "invocations",
+				"time(us)", "avgLook", "maxLook", "llFallback", "ambig", "errors"));
+		int count = 0;
+		for (SQLDecisionStats stats : getDecisions(BY_TIME)) {
+			if (count++ >= limit)
+				break;
+			report.append(String.format("%-8d %-32s %10d %12d %8.2f %8d %10d %8d %8d%n", stats.getDecision(),
+					stats.getRuleName(), stats.getInvocations(), stats.getTimeInPrediction() / 1000,
+					stats.getAverageLook(), Math.max(stats.getSllMaxLook(), stats.getLlMaxLook()),
+					stats.getLlFallbacks(), stats.getAmbiguities(), stats.getErrors()));
+		}
+		return report.toString();
+	}
+
+	private static int compareDescending(long first, long second) {
+		return first > second ? -1 : (first == second ? 0 : 1);
+	}
+}
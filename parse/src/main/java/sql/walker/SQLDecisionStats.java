@@ -0,0 +1,157 @@
+package sql.walker;
+
+import org.antlr.v4.runtime.atn.DecisionInfo;
+
+/**
+ * Prediction statistics of one grammar decision, summed over every query given to
+ * a SQLDecisionProfiler
+ */
+public class SQLDecisionStats {
+
+	private final int decision;
+	private final String ruleName;
+
+	private long invocations = 0;
+	private long timeInPrediction = 0;
+	private long sllTotalLook = 0;
+	private long sllMaxLook = 0;
+	private long llFallbacks = 0;
+	private long llTotalLook = 0;
+	private long llMaxLook = 0;
+	private long ambiguities = 0;
+	private long contextSensitivities = 0;
+	private long errors = 0;
+	private long atnTransitions = 0;
+	private long dfaTransitions = 0;
+
+	public SQLDecisionStats(int decision, String ruleName) {
+		this.decision = decision;
+		this.ruleName = ruleName;
+	}
+
+	/**
+	 * Add the statistics of one profiled parse
+	 *
+	 * @param info
+	 *            the decision's entry from the parser's ParseInfo
+	 */
+	void add(DecisionInfo info) {
+		invocations += info.invocations;
+		timeInPrediction += info.timeInPrediction;
+		sllTotalLook += info.SLL_TotalLook;
+		sllMaxLook = Math.max(sllMaxLook, info.SLL_MaxLook);
+		llFallbacks += info.LL_Fallback;
+		llTotalLook += info.LL_TotalLook;
+		llMaxLook = Math.max(llMaxLook, info.LL_MaxLook);
+		ambiguities += info.ambiguities.size();
+		contextSensitivities += info.contextSensitivities.size();
+		errors += info.errors.size();
+		atnTransitions += info.SLL_ATNTransitions + info.LL_ATNTransitions;
+		dfaTransitions += info.SLL_DFATransitions + info.LL_DFATransitions;
+	}
+
+	/**
+	 * Add the totals of another decision, to sum the decisions of a rule
+	 *
+	 * @param other
+	 */
+	void add(SQLDecisionStats other) {
+		invocations += other.invocations;
+		timeInPrediction += other.timeInPrediction;
+		sllTotalLook += other.sllTotalLook;
+		sllMaxLook = Math.max(sllMaxLook, other.sllMaxLook);
+		llFallbacks += other.llFallbacks;
+		llTotalLook += other.llTotalLook;
+		llMaxLook = Math.max(llMaxLook, other.llMaxLook);
+		ambiguities += other.ambiguities;
+		contextSensitivities += other.contextSensitivities;
+		errors += other.errors;
+		atnTransitions += other.atnTransitions;
+		dfaTransitions += other.dfaTransitions;
+	}
+
+	public int getDecision() {
+		return decision;
+	}
+
+	public String getRuleName() {
+		return ruleName;
+	}
+
+	public long getInvocations() {
+		return invocations;
+	}
+
+	/**
+	 * @return nanoseconds spent predicting this decision
+	 */
+	public long getTimeInPrediction() {
+		return timeInPrediction;
+	}
+
+	/**
+	 * @return tokens of lookahead used in SLL prediction
+	 */
+	public long getSllTotalLook() {
+		return sllTotalLook;
+	}
+
+	public long getSllMaxLook() {
+		return sllMaxLook;
+	}
+
+	/**
+	 * @return predictions where SLL found a conflict and full context LL was needed
+	 */
+	public long getLlFallbacks() {
+		return llFallbacks;
+	}
+
+	public long getLlTotalLook() {
+		return llTotalLook;
+	}
+
+	public long getLlMaxLook() {
+		return llMaxLook;
+	}
+
+	public long getAmbiguities() {
+		return ambiguities;
+	}
+
+	public long getContextSensitivities() {
+		return contextSensitivities;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return transitions computed from the ATN, that is DFA cache misses
+	 */
+	public long getAtnTransitions() {
+		return atnTransitions;
+	}
+
+	public long getDfaTransitions() {
+		return dfaTransitions;
+	}
+
+	/**
+	 * @return mean tokens of lookahead per invocation, SLL and LL combined
+	 */
+	public double getAverageLook() {
+		if (invocations == 0)
+			return 0;
+		return (double) (sllTotalLook + llTotalLook) / invocations;
+	}
+
+	@Override
+	public String toString() {
+		return "SQLDecisionStats [decision=" + decision + ", rule=" + ruleName + ", invocations=" + invocations
+				+ ", timeInPrediction=" + timeInPrediction + ", sllMaxLook=" + sllMaxLook + ", llFallbacks="
+				+ llFallbacks + ", llMaxLook=" + llMaxLook + ", ambiguities=" + ambiguities + ", errors=" + errors
+				+ "]";
+	}
+}
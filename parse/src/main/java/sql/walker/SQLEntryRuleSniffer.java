@@ -0,0 +1,222 @@
+package sql.walker;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+
+import sql.SQLSelectParserLexer;
+
+/**
+ * Chooses the start symbol for a query or template fragment from its tokens, so a
+ * fragment of unknown kind can be parsed once with the right entry rule instead of
+ * trying several in turn. Only the lexer is run.
+ *
+ * Statements are recognized by their first tokens: WITH, CREATE, SELECT, INSERT,
+ * UPDATE or a parenthesized SELECT that is the whole fragment or is followed by
+ * UNION, INTERSECT or EXCEPT is SQL, VALUES is a values statement and a comma or
+ * join keyword starts a join extension. Other fragments are expressions and
+ * are classified by their top level tokens, outside parentheses and CASE ... END:
+ * a comparison, logical, arithmetic or other operator, a leading sign included,
+ * makes a condition, a parenthesized list an in list, a possibly qualified name or
+ * substitution variable a column and anything else a predicand. TUPLE is never
+ * chosen, as a tuple cannot be told from a column or a query by its tokens.
+ */
+public class SQLEntryRuleSniffer {
+
+	private SQLEntryRuleSniffer() {
+	}
+
+	/**
+	 * @param query
+	 * @return the start symbol to parse the query with
+	 */
+	public static SQLSelectEntryRule sniff(String query) {
+		SQLSelectParserLexer lexer = new SQLSelectParserLexer(new ANTLRInputStream(query));
+		lexer.removeErrorListeners();
+		Vocabulary vocabulary = lexer.getVocabulary();
+
+		Token first = lexer.nextToken();
+		switch (first.getType()) {
+		case SQLSelectParserLexer.WITH:
+		case SQLSelectParserLexer.CREATE:
+		case SQLSelectParserLexer.SELECT:
+		case SQLSelectParserLexer.INSERT:
+		case SQLSelectParserLexer.UPDATE:
+			return SQLSelectEntryRule.SQL;
+		case SQLSelectParserLexer.VALUES:
+			return SQLSelectEntryRule.VALUES_STATEMENT_END;
+		case SQLSelectParserLexer.COMMA:
+		case SQLSelectParserLexer.JOIN:
+		case SQLSelectParserLexer.INNER:
+		case SQLSelectParserLexer.CROSS:
+		case SQLSelectParserLexer.NATURAL:
+		case SQLSelectParserLexer.FULL:
+			return SQLSelectEntryRule.JOIN_EXTENSION;
+		default:
+			break;
+		}
+
+		Token second = lexer.nextToken();
+		switch (first.getType()) {
+		case SQLSelectParserLexer.LEFT:
+		case SQLSelectParserLexer.RIGHT:
+		case SQLSelectParserLexer.UNION:
+			// LEFT and RIGHT are also function names
+			if (second.getType() == SQLSelectParserLexer.JOIN || second.getType() == SQLSelectParserLexer.OUTER)
+				return SQLSelectEntryRule.JOIN_EXTENSION;
+			break;
+		case SQLSelectParserLexer.LEFT_PAREN:
+			if (second.getType() == SQLSelectParserLexer.SELECT || second.getType() == SQLSelectParserLexer.WITH) {
+				if (isWholeQuery(lexer))
+					return SQLSelectEntryRule.SQL;
+				// A subquery used as a value, such as (select max(x) from t) > 5
+				lexer.reset();
+				first = lexer.nextToken();
+				second = lexer.nextToken();
+			}
+			break;
+		case SQLSelectParserLexer.NOT:
+		case SQLSelectParserLexer.EXISTS:
+			return SQLSelectEntryRule.CONDITION;
+		default:
+			break;
+		}
+
+		return sniffExpression(lexer, vocabulary, first, second);
+	}
+
+	/**
+	 * Read past the parenthesized query the fragment starts with
+	 *
+	 * @return true if the query is the whole fragment or is followed by a set
+	 *         operator, so the fragment is a statement
+	 */
+	private static boolean isWholeQuery(SQLSelectParserLexer lexer) {
+		int depth = 1;
+		Token token = lexer.nextToken();
+		while (depth > 0 && token.getType() != Token.EOF) {
+			if (token.getType() == SQLSelectParserLexer.LEFT_PAREN)
+				depth++;
+			else if (token.getType() == SQLSelectParserLexer.RIGHT_PAREN)
+				depth--;
+			token = lexer.nextToken();
+		}
+		switch (token.getType()) {
+		case Token.EOF:
+		case SQLSelectParserLexer.SEMI_COLON:
+		case SQLSelectParserLexer.UNION:
+		case SQLSelectParserLexer.INTERSECT:
+		case SQLSelectParserLexer.EXCEPT:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Classify an expression fragment from its top level tokens
+	 */
+	private static SQLSelectEntryRule sniffExpression(SQLSelectParserLexer lexer, Vocabulary vocabulary, Token first,
+			Token second) {
+		int depth = 0;
+		int count = 0;
+		int firstClose = 0;
+		boolean listAtDepthOne = false;
+		boolean columnShape = true;
+		Token previous = null;
+		Token token = first;
+		Token next = second;
+		while (token.getType() != Token.EOF) {
+			int type = token.getType();
+			count++;
+			if (type == SQLSelectParserLexer.LEFT_PAREN || type == SQLSelectParserLexer.CASE) {
+				depth++;
+			} else if (type == SQLSelectParserLexer.RIGHT_PAREN || type == SQLSelectParserLexer.END) {
+				depth--;
+				if (depth == 0 && firstClose == 0)
+					firstClose = count;
+			} else if (depth == 1 && type == SQLSelectParserLexer.COMMA) {
+				listAtDepthOne = true;
+			} else if (depth == 0 && isOperator(type)) {
+				return SQLSelectEntryRule.CONDITION;
+			}
+			columnShape = columnShape && isColumnPart(token, count, vocabulary);
+
+			previous = token;
+			token = next == null ? lexer.nextToken() : next;
+			next = null;
+		}
+
+		if (count == 0)
+			return SQLSelectEntryRule.SQL;
+		if (first.getType() == SQLSelectParserLexer.LEFT_PAREN && listAtDepthOne && firstClose == count)
+			return SQLSelectEntryRule.IN_LIST;
+		if (columnShape && count <= 3 && previous.getType() != SQLSelectParserLexer.DOT)
+			return SQLSelectEntryRule.COLUMN;
+		return SQLSelectEntryRule.PREDICAND;
+	}
+
+	/**
+	 * A name or substitution variable, optionally qualified by one name
+	 */
+	private static boolean isColumnPart(Token token, int count, Vocabulary vocabulary) {
+		if (count == 2)
+			return token.getType() == SQLSelectParserLexer.DOT;
+		return isName(token, vocabulary) || isVariable(token.getType());
+	}
+
+	private static boolean isName(Token token, Vocabulary vocabulary) {
+		switch (token.getType()) {
+		case SQLSelectParserLexer.Identifier:
+		case SQLSelectParserLexer.Bracket_Identifier:
+		case SQLSelectParserLexer.Dollar_Sign_Identifier:
+			return true;
+		default:
+			// Non reserved key words may name columns
+			return token.getText().equalsIgnoreCase(vocabulary.getSymbolicName(token.getType()));
+		}
+	}
+
+	private static boolean isVariable(int type) {
+		return type == SQLSelectParserLexer.Variable_Identifier
+				|| type == SQLSelectParserLexer.Extended_Variable_Identifier
+				|| type == SQLSelectParserLexer.Mixed_Variable_Identifier;
+	}
+
+	private static boolean isOperator(int type) {
+		switch (type) {
+		case SQLSelectParserLexer.EQUAL:
+		case SQLSelectParserLexer.NOT_EQUAL:
+		case SQLSelectParserLexer.LTH:
+		case SQLSelectParserLexer.LEQ:
+		case SQLSelectParserLexer.GTH:
+		case SQLSelectParserLexer.GEQ:
+		case SQLSelectParserLexer.AND:
+		case SQLSelectParserLexer.OR:
+		case SQLSelectParserLexer.NOT:
+		case SQLSelectParserLexer.IS:
+		case SQLSelectParserLexer.IN:
+		case SQLSelectParserLexer.LIKE:
+		case SQLSelectParserLexer.ILIKE:
+		case SQLSelectParserLexer.RLIKE:
+		case SQLSelectParserLexer.REGEXP:
+		case SQLSelectParserLexer.SIMILAR:
+		case SQLSelectParserLexer.BETWEEN:
+		case SQLSelectParserLexer.EXISTS:
+		case SQLSelectParserLexer.Similar_To:
+		case SQLSelectParserLexer.Not_Similar_To:
+		case SQLSelectParserLexer.Similar_To_Case_Insensitive:
+		case SQLSelectParserLexer.Not_Similar_To_Case_Insensitive:
+		case SQLSelectParserLexer.PLUS:
+		case SQLSelectParserLexer.MINUS:
+		case SQLSelectParserLexer.MULTIPLY:
+		case SQLSelectParserLexer.DIVIDE:
+		case SQLSelectParserLexer.MODULAR:
+		case SQLSelectParserLexer.CONCATENATION_OPERATOR:
+		case SQLSelectParserLexer.VERTICAL_BAR:
+			return true;
+		default:
+			return false;
+		}
+	}
+}
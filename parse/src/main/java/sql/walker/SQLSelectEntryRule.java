@@ -0,0 +1,99 @@
+package sql.walker;
+
+import static mumble.sql.MumbleConstants.PSS_COLUMN_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_CONDITION_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_IN_LIST_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_JOIN_EXTENSION_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_PREDICAND_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_QUERY_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_SQL_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_TUPLE_TREE_KEY;
+import static mumble.sql.MumbleConstants.PSS_VALUES_TREE_KEY;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import sql.SQLSelectParserParser;
+
+/**
+ * The independently callable start symbols of the SQL Select grammar. Each entry knows
+ * which parser rule to invoke and the key the SQL Parse Event Walker files the resulting
+ * AST under.
+ */
+public enum SQLSelectEntryRule {
+
+	SQL(PSS_SQL_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.sql();
+		}
+	},
+	QUERY(PSS_QUERY_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.query_value();
+		}
+	},
+	CONDITION(PSS_CONDITION_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.condition_value();
+		}
+	},
+	PREDICAND(PSS_PREDICAND_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.predicand_value();
+		}
+	},
+	COLUMN(PSS_COLUMN_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.column_value();
+		}
+	},
+	IN_LIST(PSS_IN_LIST_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.in_list_predicate_value();
+		}
+	},
+	TUPLE(PSS_TUPLE_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.tuple_value();
+		}
+	},
+	JOIN_EXTENSION(PSS_JOIN_EXTENSION_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.join_extension_value();
+		}
+	},
+	VALUES_STATEMENT_END(PSS_VALUES_TREE_KEY) {
+		@Override
+		public ParserRuleContext invoke(SQLSelectParserParser parser) {
+			return parser.values_statement_end();
+		}
+	};
+
+	/**
+	 * Key of the AST produced by the walker for this start symbol
+	 */
+	private final String treeKey;
+
+	private SQLSelectEntryRule(String treeKey) {
+		this.treeKey = treeKey;
+	}
+
+	public String getTreeKey() {
+		return treeKey;
+	}
+
+	/**
+	 * Run the start rule on the parser
+	 *
+	 * @param parser
+	 * @return the parse tree of the start rule
+	 */
+	public abstract ParserRuleContext invoke(SQLSelectParserParser parser);
+}
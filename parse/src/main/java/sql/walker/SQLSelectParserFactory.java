@@ -0,0 +1,547 @@
+package sql.walker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import mumble.sql.ast.AstInterner;
+import sql.ParseError;
+import sql.ParseErrorCollector;
+import sql.SQLSelectParserLexer;
+import sql.SQLSelectParserParser;
+
+public class SQLSelectParserFactory {
+
+	/**
+	 * Largest input buffer a pooled parser keeps between queries
+	 */
+	private static final int MAX_RETAINED_INPUT = 64 * 1024;
+
+	/**
+	 * One reusable lexer and parser pair per thread, handed out by acquireParser
+	 */
+	private final ThreadLocal<PooledParser> parserPool = new ThreadLocal<PooledParser>() {
+		@Override
+		protected PooledParser initialValue() {
+			return new PooledParser();
+		}
+	};
+
+	/**
+	 * One reusable walker per thread for parseSnippet, reset before each walk
+	 */
+	private final ThreadLocal<SqlParseEventWalker> walkerPool = new ThreadLocal<SqlParseEventWalker>() {
+		@Override
+		protected SqlParseEventWalker initialValue() {
+			return newWalker();
+		}
+	};
+
+	/**
+	 * Name mapping for walks given no entity or attribute map, swapped as a whole
+	 */
+	private final AtomicReference<NameMapping> nameMapping = new AtomicReference<NameMapping>();
+
+	/**
+	 * Limits charged to every parse of this factory's parsers
+	 */
+	private volatile ParseBudget parseBudget = ParseBudget.UNLIMITED;
+
+	/**
+	 * Most syntax errors kept for each parse of this factory's parsers
+	 */
+	private volatile int maxSyntaxErrors = SQLWalkerErrorListener.DEFAULT_MAX_ERRORS;
+
+	/**
+	 * Table the Snippets of this factory's walks share equal subtrees through, or null
+	 */
+	private volatile AstInterner interner;
+
+	public SQLSelectParserFactory () {
+
+	}
+
+	public ParseBudget getParseBudget() {
+		return parseBudget;
+	}
+
+	/**
+	 * Limit the tokens, time or prediction steps of each parse. A parse that runs out
+	 * is aborted and reports a ParseBudgetError instead of its syntax errors.
+	 * 
+	 * @param parseBudget
+	 */
+	public void setParseBudget(ParseBudget parseBudget) {
+		this.parseBudget = parseBudget == null ? ParseBudget.UNLIMITED : parseBudget;
+	}
+
+	public int getMaxSyntaxErrors() {
+		return maxSyntaxErrors;
+	}
+
+	/**
+	 * Limit the syntax errors kept for each parse, so a query that fails badly costs
+	 * no more than one that fails once; the errors beyond it are only counted
+	 * 
+	 * @param maxSyntaxErrors
+	 */
+	public void setMaxSyntaxErrors(int maxSyntaxErrors) {
+		if (maxSyntaxErrors < 0)
+			throw new IllegalArgumentException("Error limit must not be negative: " + maxSyntaxErrors);
+		this.maxSyntaxErrors = maxSyntaxErrors;
+	}
+
+	public AstInterner getInterner() {
+		return interner;
+	}
+
+	/**
+	 * Share the equal subtrees of the Snippet ASTs this factory builds, so that many
+	 * Snippets repeating the same fragments hold one copy of each
+	 * 
+	 * @param interner
+	 *            such as AstInterner.GLOBAL, or null to share none
+	 */
+	public void setInterner(AstInterner interner) {
+		this.interner = interner;
+	}
+
+	public  SQLSelectParserParser buildParser(final String query) {
+		CharStream input = new ANTLRInputStream(query);
+		SQLSelectParserLexer lexer = new SQLSelectParserLexer(input);
+		CommonTokenStream tokens = new CommonTokenStream(lexer);
+		SQLSelectParserParser parser = new SQLSelectParserParser(tokens);
+		ParseBudgetSimulator simulator = new ParseBudgetSimulator(parser, parser.getInterpreter());
+		parser.setInterpreter(simulator);
+		simulator.start(parseBudget);
+
+		SQLWalkerErrorListener errorListener = new SQLWalkerErrorListener(maxSyntaxErrors);
+        parser.addErrorListener(errorListener);
+
+		return parser;
+	}
+
+	/**
+	 * Hand out this thread's pooled parser, reset to parse the query: the lexer and
+	 * token stream are pointed at the new input, which reuses the previous query's
+	 * buffer, and the error state, error listeners, parse listeners and prediction
+	 * mode are restored to what buildParser produces.
+	 * 
+	 * The parser must be given back with releaseParser once its parse tree has been
+	 * walked; tokens read their text from the pooled input, so a tree must not be
+	 * used after its parser has been released. If this thread's parser is already
+	 * out, a new unpooled parser is returned.
+	 * 
+	 * @param query
+	 * @return a parser ready for any entry rule
+	 */
+	public SQLSelectParserParser acquireParser(final String query) {
+		PooledParser pooled = parserPool.get();
+		if (pooled.inUse)
+			return buildParser(query);
+		pooled.inUse = true;
+		pooled.reset(query);
+		pooled.errorListener.setMaxErrors(maxSyntaxErrors);
+		pooled.simulator.start(parseBudget);
+		return pooled.parser;
+	}
+
+	/**
+	 * Give a parser from acquireParser back to this thread's pool. Parsers that are not
+	 * pooled on this thread are ignored.
+	 * 
+	 * @param parser
+	 */
+	public void releaseParser(final SQLSelectParserParser parser) {
+		PooledParser pooled = parserPool.get();
+		if (!pooled.inUse || pooled.parser != parser)
+			return;
+		pooled.clear();
+		pooled.inUse = false;
+	}
+
+	/**
+	 * Parse with the two stage prediction strategy: the entry rule is first run in SLL
+	 * prediction mode with a bail out error strategy, which is sufficient for most
+	 * queries. Only if that fails is the input rewound and parsed again in full LL mode
+	 * with the parser's own error strategy and listeners, so the resulting tree and the
+	 * reported syntax errors are the same as calling the entry rule directly.
+	 * 
+	 * The factory's ParseBudget is charged from the start of the first stage. If it
+	 * runs out the parse is not retried: a ParseBudgetError is reported to the error
+	 * listeners and there is no tree.
+	 *
+	 * @param parser
+	 *            a parser from buildParser that has not been used yet
+	 * @param rule
+	 *            the start symbol to parse
+	 * @return the parse tree of the start symbol, or null if the budget ran out
+	 */
+	public ParserRuleContext parse(final SQLSelectParserParser parser, final SQLSelectEntryRule rule) {
+		ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+		List<ANTLRErrorListener> listeners = new ArrayList<ANTLRErrorListener>(parser.getErrorListeners());
+		if (parser.getInterpreter() instanceof ParseBudgetSimulator)
+			((ParseBudgetSimulator) parser.getInterpreter()).start(parseBudget);
+
+		// Stage 1: SLL, fail on the first error without reporting it
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.removeErrorListeners();
+		parser.setErrorHandler(new BailErrorStrategy());
+		try {
+			try {
+				return rule.invoke(parser);
+			} catch (ParseCancellationException e) {
+				if (e.getCause() instanceof ParseBudgetExceededException)
+					throw e;
+				// Stage 2: rewind and parse again with full context prediction
+				parser.reset();
+				parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+				restoreErrorReporting(parser, errorHandler, listeners);
+				return rule.invoke(parser);
+			}
+		} catch (ParseCancellationException e) {
+			if (!(e.getCause() instanceof ParseBudgetExceededException))
+				throw e;
+			restoreErrorReporting(parser, errorHandler, listeners);
+			ParseBudgetExceededException exceeded = (ParseBudgetExceededException) e.getCause();
+			parser.notifyErrorListeners(exceeded.getOffendingToken(), exceeded.getMessage(), exceeded);
+			return null;
+		} finally {
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			restoreErrorReporting(parser, errorHandler, listeners);
+		}
+	}
+
+	/**
+	 * Two stage parse of a query with a new parser
+	 *
+	 * @param query
+	 * @param rule
+	 * @return the parse tree of the start symbol, or null if the budget ran out
+	 */
+	public ParserRuleContext parse(final String query, final SQLSelectEntryRule rule) {
+		return parse(buildParser(query), rule);
+	}
+
+	/**
+	 * Check that a query is valid for the grammar without building a parse tree or
+	 * walking it. The pooled parser is run with a ParseErrorCollector, in SLL
+	 * prediction mode first and in full LL mode only if that finds an error, and
+	 * stops at the first error.
+	 * 
+	 * @param query
+	 * @param rule
+	 *            the start symbol to parse
+	 * @return null if the query is valid, otherwise the first error
+	 */
+	public ParseError validate(final String query, final SQLSelectEntryRule rule) {
+		SQLSelectParserParser parser = acquireParser(query);
+		ParseErrorCollector collector = new ParseErrorCollector();
+		try {
+			parser.setBuildParseTree(false);
+			parser.removeErrorListeners();
+			parser.setErrorHandler(collector);
+			parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+			try {
+				rule.invoke(parser);
+				return null;
+			} catch (ParseCancellationException e) {
+				if (e.getCause() instanceof ParseBudgetExceededException)
+					return budgetError((ParseBudgetExceededException) e.getCause());
+			}
+
+			parser.reset();
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			try {
+				rule.invoke(parser);
+				return null;
+			} catch (ParseCancellationException e) {
+				if (e.getCause() instanceof ParseBudgetExceededException)
+					return budgetError((ParseBudgetExceededException) e.getCause());
+				return collector.getFirstError();
+			}
+		} finally {
+			releaseParser(parser);
+		}
+	}
+
+	private static ParseError budgetError(ParseBudgetExceededException e) {
+		Token token = e.getOffendingToken();
+		return new ParseError(token.getLine(), token.getCharPositionInLine(), token.getTokenIndex(), e.getMessage());
+	}
+
+	/**
+	 * Parse a query with this thread's pooled parser and, if it has no syntax errors,
+	 * walk it into a Snippet with this thread's pooled walker. Without an entity or
+	 * attribute map the factory's current name mapping is used.
+	 * 
+	 * @param query
+	 * @param rule
+	 *            the start symbol to parse
+	 * @param entityMap
+	 *            optional entity to table name map for the walker
+	 * @param attributeMap
+	 *            optional attribute to column map for the walker
+	 * @return the Snippet or the syntax errors
+	 */
+	public SnippetParseResult parseSnippet(final String query, final SQLSelectEntryRule rule,
+			HashMap<String, String> entityMap, HashMap<String, Map<String, String>> attributeMap) {
+		return parseSnippet(query, rule, entityMap, attributeMap, currentMapping(entityMap, attributeMap));
+	}
+
+	/**
+	 * Parse a query with this thread's pooled parser and, if it has no syntax errors,
+	 * walk it into a Snippet with this thread's pooled walker
+	 * 
+	 * @param query
+	 * @param rule
+	 *            the start symbol to parse
+	 * @param mapping
+	 *            optional entity and attribute name mapping for the walker
+	 * @return the Snippet or the syntax errors
+	 */
+	public SnippetParseResult parseSnippet(final String query, final SQLSelectEntryRule rule,
+			final NameMapping mapping) {
+		return parseSnippet(query, rule, null, null, mapping);
+	}
+
+	private SnippetParseResult parseSnippet(final String query, final SQLSelectEntryRule rule,
+			HashMap<String, String> entityMap, HashMap<String, Map<String, String>> attributeMap,
+			NameMapping mapping) {
+		SQLSelectParserParser parser = acquireParser(query);
+		try {
+			ParserRuleContext tree = parse(parser, rule);
+			if (parser.getNumberOfSyntaxErrors() > 0)
+				return new SnippetParseResult(query, rule, null, getSyntaxErrors(parser));
+
+			SqlParseEventWalker extractor = pooledWalker(entityMap, attributeMap, mapping);
+			ParseTreeWalker.DEFAULT.walk(extractor, tree);
+			return new SnippetParseResult(query, rule, extractor.getSnippet(), null);
+		} finally {
+			releaseParser(parser);
+		}
+	}
+
+	/**
+	 * Parse a query with this thread's pooled parser and walk it into a Snippet as it
+	 * is parsed, with this thread's pooled walker attached by a StreamingWalkListener.
+	 * The result is the same as parseSnippet's, but walked subtrees are let go during
+	 * the parse, so very long queries do not hold their whole parse tree.
+	 * 
+	 * @param query
+	 * @param rule
+	 *            the start symbol to parse
+	 * @param entityMap
+	 *            optional entity to table name map for the walker
+	 * @param attributeMap
+	 *            optional attribute to column map for the walker
+	 * @return the Snippet, the syntax errors or the failure that stopped the walker
+	 */
+	public SnippetParseResult streamSnippet(final String query, final SQLSelectEntryRule rule,
+			HashMap<String, String> entityMap, HashMap<String, Map<String, String>> attributeMap) {
+		SQLSelectParserParser parser = acquireParser(query);
+		try {
+			SqlParseEventWalker extractor = pooledWalker(entityMap, attributeMap,
+					currentMapping(entityMap, attributeMap));
+			StreamingWalkListener listener = new StreamingWalkListener(extractor, parser);
+			parser.addParseListener(listener);
+			parse(parser, rule);
+			if (parser.getNumberOfSyntaxErrors() > 0)
+				return new SnippetParseResult(query, rule, null, getSyntaxErrors(parser));
+			if (listener.getFailure() != null)
+				return new SnippetParseResult(query, rule, listener.getFailure());
+
+			return new SnippetParseResult(query, rule, listener.getWalker().getSnippet(), null);
+		} finally {
+			releaseParser(parser);
+		}
+	}
+
+	/**
+	 * @return the name mapping used by walks given no entity or attribute map, or
+	 *         null
+	 */
+	public NameMapping getNameMapping() {
+		return nameMapping.get();
+	}
+
+	/**
+	 * Swap in the name mapping for walks given no entity or attribute map. Walks
+	 * already started keep the mapping they read when they started.
+	 * 
+	 * @param mapping
+	 *            the new mapping, or null for none
+	 * @return the mapping it replaced
+	 */
+	public NameMapping setNameMapping(final NameMapping mapping) {
+		return nameMapping.getAndSet(mapping);
+	}
+
+	private NameMapping currentMapping(HashMap<String, String> entityMap,
+			HashMap<String, Map<String, String>> attributeMap) {
+		return (entityMap == null && attributeMap == null) ? nameMapping.get() : null;
+	}
+
+	/**
+	 * @return a new walker for this thread's pool
+	 */
+	protected SqlParseEventWalker newWalker() {
+		return new SqlParseEventWalker();
+	}
+
+	private SqlParseEventWalker pooledWalker(HashMap<String, String> entityMap,
+			HashMap<String, Map<String, String>> attributeMap, NameMapping mapping) {
+		SqlParseEventWalker extractor = walkerPool.get();
+		extractor.reset();
+		extractor.setEntityTableNameMap(entityMap);
+		extractor.setAttributeColumnMap(attributeMap);
+		extractor.setNameMapping(mapping);
+		extractor.setInterner(interner);
+		return extractor;
+	}
+
+	/**
+	 * Parse a query or template fragment of unknown kind once, with the start symbol
+	 * chosen from its tokens by SQLEntryRuleSniffer
+	 * 
+	 * @param query
+	 * @param entityMap
+	 *            optional entity to table name map for the walker
+	 * @param attributeMap
+	 *            optional attribute to column map for the walker
+	 * @return the Snippet or the syntax errors, with the entry rule that was used
+	 */
+	public SnippetParseResult parseFragment(final String query, HashMap<String, String> entityMap,
+			HashMap<String, Map<String, String>> attributeMap) {
+		return parseSnippet(query, SQLEntryRuleSniffer.sniff(query), entityMap, attributeMap);
+	}
+
+	/**
+	 * Copy the syntax errors collected for a parser built by this factory
+	 * 
+	 * @param parser
+	 * @return the errors in the order they were reported
+	 */
+	public List<SyntaxError> getSyntaxErrors(final SQLSelectParserParser parser) {
+		List<SyntaxError> errors = new ArrayList<SyntaxError>();
+		for (ANTLRErrorListener listener : parser.getErrorListeners()) {
+			if (listener instanceof SQLWalkerErrorListener)
+				errors.addAll(((SQLWalkerErrorListener) listener).getSyntaxErrors());
+		}
+		return errors;
+	}
+
+	private void restoreErrorReporting(SQLSelectParserParser parser, ANTLRErrorStrategy errorHandler,
+			List<ANTLRErrorListener> listeners) {
+		if (parser.getErrorHandler() == errorHandler)
+			return;
+		parser.setErrorHandler(errorHandler);
+		parser.removeErrorListeners();
+		for (ANTLRErrorListener listener : listeners)
+			parser.addErrorListener(listener);
+	}
+
+	/**
+	 * Input stream whose character buffer is refilled for each query
+	 */
+	private static final class ReusableInputStream extends ANTLRInputStream {
+
+		ReusableInputStream() {
+			super();
+			data = new char[0];
+		}
+
+		void load(String query) {
+			int length = query.length();
+			if (data.length < length)
+				data = new char[Math.max(length, INITIAL_BUFFER_SIZE)];
+			query.getChars(0, length, data, 0);
+			n = length;
+			p = 0;
+		}
+
+		void clear(int maxRetained) {
+			if (data.length > maxRetained)
+				data = new char[0];
+			n = 0;
+			p = 0;
+		}
+	}
+
+	/**
+	 * Token stream that can be pointed at a new token source; the runtime's
+	 * setTokenSource leaves the end of file flag of the previous input set
+	 */
+	private static final class ReusableTokenStream extends CommonTokenStream {
+
+		ReusableTokenStream(TokenSource tokenSource) {
+			super(tokenSource);
+		}
+
+		@Override
+		public void setTokenSource(TokenSource tokenSource) {
+			super.setTokenSource(tokenSource);
+			fetchedEOF = false;
+		}
+	}
+
+	/**
+	 * The lexer, parser and error collection of one thread
+	 */
+	private static final class PooledParser {
+		final ReusableInputStream input = new ReusableInputStream();
+		final SQLSelectParserLexer lexer = new SQLSelectParserLexer(input);
+		final ReusableTokenStream tokens = new ReusableTokenStream(lexer);
+		final SQLSelectParserParser parser = new SQLSelectParserParser(tokens);
+		final ParseBudgetSimulator simulator = new ParseBudgetSimulator(parser, parser.getInterpreter());
+		final ANTLRErrorStrategy errorHandler = new DefaultErrorStrategy();
+		final SQLWalkerErrorListener errorListener = new SQLWalkerErrorListener();
+		boolean inUse = false;
+
+		PooledParser() {
+			parser.setInterpreter(simulator);
+		}
+
+		void reset(String query) {
+			input.load(query);
+			lexer.setInputStream(input);
+			tokens.setTokenSource(lexer);
+
+			parser.setErrorHandler(errorHandler);
+			parser.setInputStream(tokens);
+			parser.setBuildParseTree(true);
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			parser.removeParseListeners();
+			parser.removeErrorListeners();
+			parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+			errorListener.clear();
+			parser.addErrorListener(errorListener);
+		}
+
+		void clear() {
+			// Let go of the finished parse; the syntax errors stay readable until the next reset
+			input.clear(MAX_RETAINED_INPUT);
+			lexer.setInputStream(input);
+			tokens.setTokenSource(lexer);
+			parser.setInputStream(tokens);
+			parser.removeParseListeners();
+		}
+	}
+}
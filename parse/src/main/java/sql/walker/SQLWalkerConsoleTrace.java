@@ -0,0 +1,41 @@
+package sql.walker;
+
+import java.io.PrintStream;
+
+/**
+ * Trace sink that prints the selected trace types, one message per line
+ */
+public class SQLWalkerConsoleTrace implements SQLWalkerTraceSink {
+
+	private final PrintStream out;
+	private final boolean[] enabled = new boolean[RESULT_TRACE + 1];
+
+	/**
+	 * Print the selected trace types to System.out
+	 *
+	 * @param traceTypes
+	 */
+	public SQLWalkerConsoleTrace(int... traceTypes) {
+		this(System.out, traceTypes);
+	}
+
+	/**
+	 * @param out
+	 * @param traceTypes
+	 */
+	public SQLWalkerConsoleTrace(PrintStream out, int... traceTypes) {
+		this.out = out;
+		for (int traceType : traceTypes)
+			enabled[traceType] = true;
+	}
+
+	@Override
+	public boolean isTracing(int traceType) {
+		return traceType >= 0 && traceType < enabled.length && enabled[traceType];
+	}
+
+	@Override
+	public void trace(int traceType, String message) {
+		out.println(message);
+	}
+}
@@ -5,19 +5,86 @@ import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.misc.Utils;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Collects the syntax errors of a parse as detached SyntaxErrors, keeping at most
+ * a fixed number of them; later errors are only counted. A ParseBudgetError is
+ * always kept.
+ *
+ * @author geoffreyhowe
+ *
+ */
 public class SQLWalkerErrorListener  extends BaseErrorListener
 {
+    /**
+     * Number of errors kept when no other limit is given
+     */
+    public static final int DEFAULT_MAX_ERRORS = 100;
+
     private final List<SyntaxError> syntaxErrors = new ArrayList<>();
+    private volatile int maxErrors;
+    private int errorCount = 0;
 
     public SQLWalkerErrorListener()
     {
+        this(DEFAULT_MAX_ERRORS);
+    }
+
+    /**
+     * @param maxErrors
+     *            the most errors to keep
+     */
+    public SQLWalkerErrorListener(int maxErrors)
+    {
+        setMaxErrors(maxErrors);
+    }
+
+    /**
+     * @return the errors kept, in the order they were reported
+     */
+    public List<SyntaxError> getSyntaxErrors()
+    {
+        return Collections.unmodifiableList(syntaxErrors);
+    }
+
+    /**
+     * @return the number of errors reported, including those not kept
+     */
+    public int getErrorCount()
+    {
+        return errorCount;
+    }
+
+    /**
+     * @return true if errors were reported beyond the ones kept
+     */
+    public boolean isTruncated()
+    {
+        return errorCount > syntaxErrors.size();
+    }
+
+    public int getMaxErrors()
+    {
+        return maxErrors;
+    }
+
+    /**
+     * @param maxErrors
+     *            the most errors to keep from the next error on
+     */
+    public void setMaxErrors(int maxErrors)
+    {
+        if (maxErrors < 0)
+            throw new IllegalArgumentException("Error limit must not be negative: " + maxErrors);
+        this.maxErrors = maxErrors;
     }
 
-    List<SyntaxError> getSyntaxErrors()
+    public void clear()
     {
-        return syntaxErrors;
+        syntaxErrors.clear();
+        errorCount = 0;
     }
 
     @Override
@@ -26,7 +93,12 @@ public class SQLWalkerErrorListener  extends BaseErrorListener
                             int line, int charPositionInLine,
                             String msg, RecognitionException e)
     {
-        syntaxErrors.add(new SyntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e));
+        errorCount++;
+        if (e instanceof ParseBudgetExceededException)
+            // The abort ends the parse, so it is kept whatever the limit
+            syntaxErrors.add(new ParseBudgetError(recognizer, offendingSymbol, line, charPositionInLine, msg, (ParseBudgetExceededException) e));
+        else if (syntaxErrors.size() < maxErrors)
+            syntaxErrors.add(new SyntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e));
     }
 
     @Override
@@ -34,4 +106,4 @@ public class SQLWalkerErrorListener  extends BaseErrorListener
     {
         return Utils.join(syntaxErrors.iterator(), "\n");
     }
-}
\ No newline at end of file
+}
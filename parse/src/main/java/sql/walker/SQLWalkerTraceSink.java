@@ -0,0 +1,43 @@
+package sql.walker;
+
+/**
+ * Receives the diagnostic trace of a SQL Parse Event Walker. The walker asks
+ * isTracing before it builds any message, so a sink that traces nothing costs
+ * one call per trace point.
+ */
+public interface SQLWalkerTraceSink {
+
+	/**
+	 * Trace types
+	 */
+	int PARSE_TRACE = 1;
+	int SYMBOL_TRACE = 2;
+	int OTHER_TRACE = 3;
+	int RESULT_TRACE = 4;
+
+	/**
+	 * The default sink; traces nothing
+	 */
+	SQLWalkerTraceSink NONE = new SQLWalkerTraceSink() {
+		@Override
+		public boolean isTracing(int traceType) {
+			return false;
+		}
+
+		@Override
+		public void trace(int traceType, String message) {
+		}
+	};
+
+	/**
+	 * @param traceType
+	 * @return true if messages of this trace type should be built and passed to trace
+	 */
+	boolean isTracing(int traceType);
+
+	/**
+	 * @param traceType
+	 * @param message
+	 */
+	void trace(int traceType, String message);
+}
@@ -0,0 +1,163 @@
+package sql.walker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parses and walks many queries in parallel on an executor. Each worker thread uses
+ * its pooled parser from the factory, and results are delivered in the order of
+ * the requests. A query that fails to parse yields a result holding its syntax
+ * errors instead of a Snippet, and one whose walk fails a result holding the
+ * walker's exception; neither stops the batch.
+ */
+public class SnippetBatchParser {
+
+	private final SQLSelectParserFactory factory;
+	private final ExecutorService executor;
+
+	/**
+	 * Optional cache consulted before parsing
+	 */
+	private SnippetCache cache;
+
+	/**
+	 * Symbol Swap Maps handed to every walker
+	 */
+	private HashMap<String, String> entityTableNameMap;
+	private HashMap<String, Map<String, String>> attributeColumnMap;
+
+	/**
+	 * Most requests submitted to the executor ahead of the oldest unfinished one
+	 */
+	private int maxInFlight = 4 * Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @param factory
+	 * @param executor
+	 *            runs the parses; it is not shut down by the batch parser
+	 */
+	public SnippetBatchParser(SQLSelectParserFactory factory, ExecutorService executor) {
+		this.factory = factory;
+		this.executor = executor;
+	}
+
+	public void setCache(SnippetCache cache) {
+		this.cache = cache;
+	}
+
+	public void setEntityTableNameMap(HashMap<String, String> entityTableNameMap) {
+		this.entityTableNameMap = entityTableNameMap;
+	}
+
+	public void setAttributeColumnMap(HashMap<String, Map<String, String>> attributeColumnMap) {
+		this.attributeColumnMap = attributeColumnMap;
+	}
+
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		if (maxInFlight <= 0)
+			throw new IllegalArgumentException("maxInFlight must be positive");
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Parse a collection of requests
+	 *
+	 * @param requests
+	 * @return one result per request, in iteration order
+	 * @throws InterruptedException
+	 */
+	public List<SnippetParseResult> parseAll(Collection<SnippetParseRequest> requests) throws InterruptedException {
+		final List<SnippetParseResult> results = new ArrayList<SnippetParseResult>(requests.size());
+		parse(requests.iterator(), new SnippetResultHandler() {
+			@Override
+			public void handle(SnippetParseRequest request, SnippetParseResult result) {
+				results.add(result);
+			}
+		});
+		return results;
+	}
+
+	/**
+	 * Parse a stream of requests, handing each result to the handler on the calling
+	 * thread in request order. At most maxInFlight requests are read ahead, so the
+	 * source can be arbitrarily long.
+	 *
+	 * @param requests
+	 * @param handler
+	 * @throws InterruptedException
+	 */
+	public void parse(Iterator<SnippetParseRequest> requests, SnippetResultHandler handler)
+			throws InterruptedException {
+		ArrayDeque<SnippetParseRequest> pendingRequests = new ArrayDeque<SnippetParseRequest>();
+		ArrayDeque<Future<SnippetParseResult>> pendingResults = new ArrayDeque<Future<SnippetParseResult>>();
+		try {
+			while (requests.hasNext()) {
+				if (pendingResults.size() >= maxInFlight)
+					handler.handle(pendingRequests.poll(), await(pendingResults.poll()));
+				SnippetParseRequest request = requests.next();
+				pendingRequests.add(request);
+				pendingResults.add(executor.submit(task(request)));
+			}
+			while (!pendingResults.isEmpty())
+				handler.handle(pendingRequests.poll(), await(pendingResults.poll()));
+		} finally {
+			for (Future<SnippetParseResult> result : pendingResults)
+				result.cancel(true);
+		}
+	}
+
+	/**
+	 * Parse one request on the calling thread. The Snippet's AST and Query Interface
+	 * are built here too, so a pool's workers do that work rather than the thread
+	 * handling the results.
+	 *
+	 * @param request
+	 * @return the Snippet, the syntax errors or the walker's failure
+	 */
+	public SnippetParseResult parse(SnippetParseRequest request) {
+		try {
+			SnippetParseResult result;
+			if (cache != null)
+				result = cache.get(request.getQuery(), request.getEntryRule(), entityTableNameMap, attributeColumnMap);
+			else
+				result = factory.parseSnippet(request.getQuery(), request.getEntryRule(), entityTableNameMap,
+						attributeColumnMap);
+			if (!result.hasErrors())
+				result.getSnippet().materialize();
+			return result;
+		} catch (RuntimeException e) {
+			return new SnippetParseResult(request.getQuery(), request.getEntryRule(), e);
+		}
+	}
+
+	private Callable<SnippetParseResult> task(final SnippetParseRequest request) {
+		return new Callable<SnippetParseResult>() {
+			@Override
+			public SnippetParseResult call() {
+				return parse(request);
+			}
+		};
+	}
+
+	private SnippetParseResult await(Future<SnippetParseResult> result) throws InterruptedException {
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			// parse(request) reports its own failures, so this is an Error from the worker
+			throw new IllegalStateException("Batch parse failed", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,233 @@
+package sql.walker;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.Vocabulary;
+
+import sql.SQLSelectParserLexer;
+
+/**
+ * Bounded cache of parsed Snippets in front of the parser factory and the SQL Parse
+ * Event Walker. Queries are keyed by their normalized text: the lexer's tokens
+ * separated by single spaces, comments dropped and keywords in lower case, so
+ * submissions that differ only in layout or keyword case share one entry. The
+ * normalized text is only the key: on a miss the caller's own query is parsed, so
+ * a cached Snippet is the one parseSnippet gives for the query that first filled
+ * the entry, with token positions and keyword values taken from that query.
+ *
+ * Entries are also keyed by the entry rule and by the identity of the entity and
+ * attribute maps given to the walker, or without them of the factory's name
+ * mapping, so swapping the mapping leaves the old entries unused. The maps are
+ * compared by identity, not content: callers must pass the same map instances to
+ * share entries, as equal maps built separately always miss, and must call
+ * invalidateAll after changing a map in place. Entries are evicted least recently
+ * used first when either the entry count or the total weight, the summed length of
+ * the normalized queries, exceeds its bound. Only queries without syntax errors are
+ * cached. Cached Snippets are frozen and shared between callers.
+ */
+public class SnippetCache {
+
+	private final SQLSelectParserFactory factory;
+	private final int maxEntries;
+	private final long maxWeight;
+
+	/**
+	 * Access ordered, so iteration starts at the least recently used entry
+	 */
+	private final LinkedHashMap<CacheKey, SnippetParseResult> entries = new LinkedHashMap<CacheKey, SnippetParseResult>(
+			16, 0.75f, true);
+	private long weight = 0;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * @param factory
+	 * @param maxEntries
+	 *            largest number of cached Snippets
+	 * @param maxWeight
+	 *            largest summed length of the cached normalized queries
+	 */
+	public SnippetCache(SQLSelectParserFactory factory, int maxEntries, long maxWeight) {
+		if (maxEntries <= 0 || maxWeight <= 0)
+			throw new IllegalArgumentException("Cache bounds must be positive");
+		this.factory = factory;
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * Get the Snippet of a complete SQL statement without entity or attribute mapping
+	 *
+	 * @param query
+	 * @return the cached or newly parsed result
+	 */
+	public SnippetParseResult get(String query) {
+		return get(query, SQLSelectEntryRule.SQL, null, null);
+	}
+
+	/**
+	 * Get the Snippet of a query, parsing and walking it on a miss
+	 *
+	 * @param query
+	 * @param rule
+	 * @param entityMap
+	 * @param attributeMap
+	 * @return the cached or newly parsed result; results with syntax errors are not
+	 *         cached
+	 */
+	public SnippetParseResult get(String query, SQLSelectEntryRule rule, HashMap<String, String> entityMap,
+			HashMap<String, Map<String, String>> attributeMap) {
+		String normalized = normalize(query);
+		// Without maps the factory's name mapping applies; key on the one parsed with
+		NameMapping mapping = (entityMap == null && attributeMap == null) ? factory.getNameMapping() : null;
+		CacheKey key = new CacheKey(normalized, rule, (mapping == null) ? entityMap : mapping, attributeMap);
+		SnippetParseResult result;
+		synchronized (entries) {
+			result = entries.get(key);
+		}
+		if (result != null) {
+			hitCount.incrementAndGet();
+			return result;
+		}
+		missCount.incrementAndGet();
+
+		if (entityMap == null && attributeMap == null)
+			result = factory.parseSnippet(query, rule, mapping);
+		else
+			result = factory.parseSnippet(query, rule, entityMap, attributeMap);
+		if (result.hasErrors())
+			return result;
+		result.getSnippet().freeze();
+
+		synchronized (entries) {
+			SnippetParseResult previous = entries.put(key, result);
+			if (previous != null)
+				weight -= key.weight();
+			weight += key.weight();
+			evict();
+		}
+		return result;
+	}
+
+	/**
+	 * Drop all entries, for instance after the entity or attribute maps were changed in place
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+			weight = 0;
+		}
+	}
+
+	private void evict() {
+		Iterator<CacheKey> keys = entries.keySet().iterator();
+		while ((entries.size() > maxEntries || weight > maxWeight) && keys.hasNext()) {
+			CacheKey eldest = keys.next();
+			keys.remove();
+			weight -= eldest.weight();
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getWeight() {
+		synchronized (entries) {
+			return weight;
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public String toString() {
+		return "SnippetCache [size=" + size() + ", weight=" + getWeight() + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
+	/**
+	 * Normalize a query for use as a cache key: tokens separated by single spaces,
+	 * comments removed and keywords in lower case. Identifiers, literals and
+	 * substitution variables keep their case.
+	 *
+	 * @param query
+	 * @return the normalized query text
+	 */
+	public static String normalize(String query) {
+		SQLSelectParserLexer lexer = new SQLSelectParserLexer(new ANTLRInputStream(query));
+		lexer.removeErrorListeners();
+		Vocabulary vocabulary = lexer.getVocabulary();
+		StringBuilder normalized = new StringBuilder(query.length());
+		for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+			String text = token.getText();
+			if (text.equalsIgnoreCase(vocabulary.getSymbolicName(token.getType())))
+				text = text.toLowerCase();
+			if (normalized.length() > 0)
+				normalized.append(' ');
+			normalized.append(text);
+		}
+		return normalized.toString();
+	}
+
+	/**
+	 * Normalized query plus the settings that change the walker's output
+	 */
+	private static final class CacheKey {
+		private final String normalized;
+		private final SQLSelectEntryRule rule;
+		private final Object entityMap;
+		private final Object attributeMap;
+		private final int hash;
+
+		CacheKey(String normalized, SQLSelectEntryRule rule, Object entityMap, Object attributeMap) {
+			this.normalized = normalized;
+			this.rule = rule;
+			this.entityMap = entityMap;
+			this.attributeMap = attributeMap;
+			this.hash = ((normalized.hashCode() * 31 + rule.hashCode()) * 31 + System.identityHashCode(entityMap)) * 31
+					+ System.identityHashCode(attributeMap);
+		}
+
+		long weight() {
+			return normalized.length();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof CacheKey))
+				return false;
+			CacheKey other = (CacheKey) obj;
+			return hash == other.hash && rule == other.rule && entityMap == other.entityMap
+					&& attributeMap == other.attributeMap && normalized.equals(other.normalized);
+		}
+	}
+}
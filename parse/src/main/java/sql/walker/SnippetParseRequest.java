@@ -0,0 +1,50 @@
+package sql.walker;
+
+/**
+ * One query for the batch parser: the SQL text, the start symbol to parse it with
+ * and an optional attachment, such as the query's catalog record, that is handed
+ * back with the result
+ */
+public class SnippetParseRequest {
+
+	private final String query;
+	private final SQLSelectEntryRule entryRule;
+	private final Object attachment;
+
+	/**
+	 * A complete SQL statement
+	 *
+	 * @param query
+	 */
+	public SnippetParseRequest(String query) {
+		this(query, SQLSelectEntryRule.SQL, null);
+	}
+
+	/**
+	 * @param query
+	 * @param entryRule
+	 * @param attachment
+	 */
+	public SnippetParseRequest(String query, SQLSelectEntryRule entryRule, Object attachment) {
+		this.query = query;
+		this.entryRule = entryRule;
+		this.attachment = attachment;
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	public SQLSelectEntryRule getEntryRule() {
+		return entryRule;
+	}
+
+	public Object getAttachment() {
+		return attachment;
+	}
+
+	@Override
+	public String toString() {
+		return "SnippetParseRequest [entryRule=" + entryRule + ", query=" + query + "]";
+	}
+}
@@ -0,0 +1,99 @@
+package sql.walker;
+
+import java.util.Collections;
+import java.util.List;
+
+import mumble.sql.Snippet;
+
+/**
+ * Outcome of parsing and walking one query: the Snippet when the query parsed
+ * cleanly, otherwise the syntax errors reported by the parser, or the exception
+ * thrown by the walker on a query that did parse
+ */
+public class SnippetParseResult {
+
+	private final String query;
+	private final SQLSelectEntryRule entryRule;
+	private final Snippet snippet;
+	private final List<SyntaxError> syntaxErrors;
+	private final RuntimeException failure;
+
+	public SnippetParseResult(String query, SQLSelectEntryRule entryRule, Snippet snippet,
+			List<SyntaxError> syntaxErrors) {
+		this(query, entryRule, snippet, syntaxErrors, null);
+	}
+
+	/**
+	 * Result of a query whose walk failed
+	 *
+	 * @param query
+	 * @param entryRule
+	 * @param failure
+	 *            the exception thrown by the walker
+	 */
+	public SnippetParseResult(String query, SQLSelectEntryRule entryRule, RuntimeException failure) {
+		this(query, entryRule, null, null, failure);
+	}
+
+	private SnippetParseResult(String query, SQLSelectEntryRule entryRule, Snippet snippet,
+			List<SyntaxError> syntaxErrors, RuntimeException failure) {
+		this.query = query;
+		this.entryRule = entryRule;
+		this.snippet = snippet;
+		this.syntaxErrors = (syntaxErrors == null) ? Collections.<SyntaxError> emptyList()
+				: Collections.unmodifiableList(syntaxErrors);
+		this.failure = failure;
+	}
+
+	/**
+	 * @return the query text that was parsed
+	 */
+	public String getQuery() {
+		return query;
+	}
+
+	public SQLSelectEntryRule getEntryRule() {
+		return entryRule;
+	}
+
+	/**
+	 * @return the Snippet, or null if the query did not parse
+	 */
+	public Snippet getSnippet() {
+		return snippet;
+	}
+
+	public List<SyntaxError> getSyntaxErrors() {
+		return syntaxErrors;
+	}
+
+	/**
+	 * @return the exception thrown by the walker, or null if it did not fail
+	 */
+	public RuntimeException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * @return true if there is no Snippet, because of syntax errors or a walker failure
+	 */
+	public boolean hasErrors() {
+		return snippet == null;
+	}
+
+	/**
+	 * @return true if the query parsed but the walker failed on it
+	 */
+	public boolean hasFailure() {
+		return failure != null;
+	}
+
+	@Override
+	public String toString() {
+		if (hasFailure())
+			return entryRule + " walker failure: " + failure;
+		if (hasErrors())
+			return entryRule + " errors: " + syntaxErrors;
+		return entryRule + ": " + snippet.getSqlAbstractTree();
+	}
+}
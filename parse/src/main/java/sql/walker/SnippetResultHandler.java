@@ -0,0 +1,13 @@
+package sql.walker;
+
+/**
+ * Receives the results of a streaming batch parse, in the order of the requests
+ */
+public interface SnippetResultHandler {
+
+	/**
+	 * @param request
+	 * @param result
+	 */
+	void handle(SnippetParseRequest request, SnippetParseResult result);
+}
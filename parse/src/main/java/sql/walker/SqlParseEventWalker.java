@@ -99,18 +99,27 @@ import static mumble.sql.MumbleConstants.PSS_WHERE_KEY;
 import static mumble.sql.MumbleConstants.PSS_WINDOW_FUNCTION_KEY;
 import static mumble.sql.MumbleConstants.PSS_WITH_KEY;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.misc.NotNull;
 import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.antlr.v4.runtime.tree.TerminalNodeImpl;
 
 import mumble.sql.Snippet;
+import mumble.sql.TokenPosition;
+import mumble.sql.ast.AstBuilder;
+import mumble.sql.ast.AstInterner;
+import mumble.sql.ast.AstNode;
+import mumble.sql.ast.ColumnRef;
+import mumble.sql.ast.TableRef;
 import sql.SQLSelectParserBaseListener;
 import sql.SQLSelectParserParser;
 /**
@@ -122,15 +131,15 @@ import sql.SQLSelectParserParser;
  */
 public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
-	final static Boolean showParse = false;
-	final static Boolean showSymbols = false;
-	final static Boolean showOther = false;
-	final static Boolean showResults = true;
+	final static int parseTrace = SQLWalkerTraceSink.PARSE_TRACE;
+	final static int symbolTrace = SQLWalkerTraceSink.SYMBOL_TRACE;
+	final static int otherTrace = SQLWalkerTraceSink.OTHER_TRACE;
+	final static int resultTrace = SQLWalkerTraceSink.RESULT_TRACE;
 
-	final static Integer parseTrace = 1;
-	final static Integer symbolTrace = 2;
-	final static Integer otherTrace = 3;
-	final static Integer resultTrace = 4;
+	/**
+	 * Destination of the diagnostic trace; nothing is traced by default
+	 */
+	private SQLWalkerTraceSink traceSink = SQLWalkerTraceSink.NONE;
 
 	/**
 	 * SQL Abstract Syntax Tree: This collects and constructs a nested Map data
@@ -154,16 +163,53 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	private HashMap<String, Object> substitutionsMap = new HashMap<String, Object>();
 
 	/**
-	 * Depth of token stack
+	 * Depth of token stack, indexed by rule index
+	 */
+	private int[] stackTree = new int[SQLSelectParserParser.ruleNames.length];
+
+	/**
+	 * Nodes under construction, indexed by rule index and then stack depth; the
+	 * array of a rule is allocated when the rule is first entered and grown as
+	 * it recurses
+	 */
+	private Object[][] nodeStack = new Object[SQLSelectParserParser.ruleNames.length][];
+
+	/**
+	 * Set when an exit handler has already placed the current node in its parent,
+	 * so exitEveryRule must not add it again
+	 */
+	private boolean skipNode = false;
+
+	/**
+	 * Scope stack of the enclosing queries: their Symbol Tables and their flags,
+	 * packed as bits, indexed by depth
+	 */
+	private Object[] symbolTableStack = new Object[8];
+	private int[] flagStack = new int[8];
+	private int scopeDepth = 0;
+
+	/**
+	 * Column names and token texts of the walk, so equal texts of the token
+	 * positions in the Symbol Table share one String
+	 */
+	private HashMap<String, String> tokenTexts = new HashMap<String, String>();
+
+	/**
+	 * Kinds of the Symbol Table entries the walk named itself, by name; any other
+	 * entry is a table
+	 */
+	private HashMap<String, SymbolKind> symbolKinds = new HashMap<String, SymbolKind>();
+
+	/**
+	 * The last query interface named, and the query count it was named with
 	 */
-	private HashMap<Integer, Integer> stackTree = new HashMap<Integer, Integer>();
+	private String lastQueryName = null;
+	private int lastQueryCount = -1;
 
 	/**
-	 * Depth of token stack; this keeps track of recursive depth in the
-	 * multi-stack dta structure, allowing correct indexing of clauses during
-	 * the walking operation
+	 * Table Dictionary references of the table names of the walk
 	 */
-	private HashMap<String, Integer> stackSymbols = new HashMap<String, Integer>();
+	private HashMap<String, String> tableReferences = new HashMap<String, String>();
 
 	/**
 	 * Number of query and subqueries encountered
@@ -181,11 +227,20 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * 
 	 * Need to be placed on the stack at the same time as the nested Queries
 	 */
-	private Boolean unionClauseFound = false;
-	private Boolean firstUnionClause = false;
-	private Boolean intersectClauseFound = false;
-	private Boolean firstIntersectClause = false;
-	private Boolean useAsLeaf = false;
+	private boolean unionClauseFound = false;
+	private boolean firstUnionClause = false;
+	private boolean intersectClauseFound = false;
+	private boolean firstIntersectClause = false;
+	private boolean useAsLeaf = false;
+
+	/**
+	 * Bits of the flags in a scope stack frame
+	 */
+	private static final int UNION_CLAUSE_FOUND = 1;
+	private static final int FIRST_UNION_CLAUSE = 2;
+	private static final int INTERSECT_CLAUSE_FOUND = 4;
+	private static final int FIRST_INTERSECT_CLAUSE = 8;
+	private static final int USE_AS_LEAF = 16;
 
 	// Extra-Grammar Identifiers
 
@@ -195,6 +250,21 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	private HashMap<String, String> entityTableNameMap;
 	private HashMap<String, Map<String, String>> attributeColumnMap;
 
+	/**
+	 * Shared case insensitive mapping, used in place of the maps above when set
+	 */
+	private NameMapping nameMapping;
+
+	/**
+	 * Cleared to leave the Table Dictionary empty, for walks that do not need it
+	 */
+	private boolean buildTableDictionary = true;
+
+	/**
+	 * Table the AST of each Snippet shares equal subtrees through, or null
+	 */
+	private AstInterner interner;
+
 	public void setEntityTableNameMap(HashMap<String, String> entityTableNameMap) {
 		this.entityTableNameMap = entityTableNameMap;
 	}
@@ -203,7 +273,17 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		this.attributeColumnMap = attributeColumnMap;
 	}
 
+	public NameMapping getNameMapping() {
+		return nameMapping;
+	}
+
+	public void setNameMapping(NameMapping nameMapping) {
+		this.nameMapping = nameMapping;
+	}
+
 	private String getTableName(String entityName) {
+		if (nameMapping != null)
+			return nameMapping.getTableName(entityName);
 		return getLookupValue(entityTableNameMap, entityName);
 	}
 
@@ -228,23 +308,82 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	// Constructors
 	public SqlParseEventWalker() {
 		super();
+		symbolKinds.put(SymbolKind.INTERFACE.getPrefix(), SymbolKind.INTERFACE);
+	}
+
+	/**
+	 * Make the walker ready to walk another parse tree. The results of the last walk
+	 * are let go rather than cleared, so the maps returned by the getters and the
+	 * Snippets already emitted keep their contents; the stacks keep their size and
+	 * the entity and attribute maps, the name mapping, the Table Dictionary option
+	 * and the trace sink are kept.
+	 */
+	public void reset() {
+		sqlTree = new HashMap<String, Object>();
+		tableDictionaryMap = new HashMap<String, Object>();
+		symbolTable = new HashMap<String, Object>();
+		substitutionsMap = new HashMap<String, Object>();
+
+		// A walk that was abandoned part way leaves nodes and scopes behind
+		Arrays.fill(stackTree, 0);
+		for (Object[] nodes : nodeStack) {
+			if (nodes != null)
+				Arrays.fill(nodes, null);
+		}
+		skipNode = false;
+		Arrays.fill(symbolTableStack, null);
+		scopeDepth = 0;
+		tokenTexts.clear();
+		symbolKinds.clear();
+		symbolKinds.put(SymbolKind.INTERFACE.getPrefix(), SymbolKind.INTERFACE);
+		lastQueryName = null;
+		lastQueryCount = -1;
+		tableReferences.clear();
+
+		queryCount = 0;
+		predicandCount = 0;
+		unionClauseFound = false;
+		firstUnionClause = false;
+		intersectClauseFound = false;
+		firstIntersectClause = false;
+		useAsLeaf = false;
 	}
 
 	// Getters and Setters
-	public static Boolean getShowparse() {
-		return showParse;
+	public SQLWalkerTraceSink getTraceSink() {
+		return traceSink;
 	}
 
-	public static Boolean getShowsymbols() {
-		return showSymbols;
+	public void setTraceSink(SQLWalkerTraceSink traceSink) {
+		this.traceSink = (traceSink == null) ? SQLWalkerTraceSink.NONE : traceSink;
 	}
 
-	public static Boolean getShowother() {
-		return showOther;
+	public boolean isBuildTableDictionary() {
+		return buildTableDictionary;
 	}
 
-	public static Boolean getShowresults() {
-		return showResults;
+	/**
+	 * The Symbol Table is always built, as the walk resolves columns against it; the
+	 * Table Dictionary is only collected from it, so it can be left out
+	 * 
+	 * @param buildTableDictionary
+	 *            false to leave the Table Dictionary of the walk empty
+	 */
+	public void setBuildTableDictionary(boolean buildTableDictionary) {
+		this.buildTableDictionary = buildTableDictionary;
+	}
+
+	public AstInterner getInterner() {
+		return interner;
+	}
+
+	/**
+	 * @param interner
+	 *            table to share the subtrees of Snippet ASTs with those of other
+	 *            Snippets through, such as AstInterner.GLOBAL, or null to share none
+	 */
+	public void setInterner(AstInterner interner) {
+		this.interner = interner;
 	}
 
 	public HashMap<String, Object> getSqlTree() {
@@ -259,22 +398,26 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		return symbolTable;
 	}
 
-	@SuppressWarnings("unchecked")
 	public HashSet<String> getInterface() {
+		return getQueryInterface(symbolTable);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static HashSet<String> getQueryInterface(HashMap<String, Object> symbolTable) {
 		// TODO: When a query has a with, the interface can appear in anyone of
 		// the symbol table queries, because it will be a list.
 		HashSet<String> interfac = new HashSet<String>();
-		HashMap<String, Object> hold = null;
+		Map<String, Object> hold = null;
 		if (symbolTable != null) {
 			for (String key : symbolTable.keySet()) {
 				if (key.equals(PSS_WITH_KEY)) {
 				} else {
-					hold = (HashMap<String, Object>) symbolTable.get(key);
+					hold = (Map<String, Object>) symbolTable.get(key);
 					break;
 				}
 			}
 			if (hold != null) {
-				hold = (HashMap<String, Object>) hold.get("interface");
+				hold = (Map<String, Object>) hold.get("interface");
 			}
 		}
 		if (hold != null)
@@ -285,111 +428,115 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	}
 
 	/**
-	 * Emit a Snippet object with all of the parts of the SQL Parse Event Walker results related to the query
+	 * Emit a Snippet object with all of the parts of the SQL Parse Event Walker results related to the query.
+	 * The AST and the Query Interface are built from the results when the Snippet is first asked for them.
 	*
 	 * @return
 	 */
 	public Snippet getSnippet() {
-		return new Snippet(sqlTree, tableDictionaryMap, symbolTable, substitutionsMap, getInterface());
+		return new Snippet(new WalkResults(sqlTree, symbolTable, interner), tableDictionaryMap, symbolTable,
+				substitutionsMap);
+	}
+
+	/**
+	 * The results of one walk, which reset lets go of rather than clears, so they
+	 * can still be built after the walker has moved on
+	 */
+	private static final class WalkResults implements Snippet.Source {
+		private final HashMap<String, Object> sqlTree;
+		private final HashMap<String, Object> symbolTable;
+		private final AstInterner interner;
+
+		WalkResults(HashMap<String, Object> sqlTree, HashMap<String, Object> symbolTable, AstInterner interner) {
+			this.sqlTree = sqlTree;
+			this.symbolTable = symbolTable;
+			this.interner = interner;
+		}
+
+		@Override
+		public AstNode buildAbstractTree() {
+			// Build the finished tree into AST nodes, sharing them with the query interfaces
+			AstBuilder builder = new AstBuilder(interner);
+			AstNode tree = builder.build(sqlTree);
+			builder.share(symbolTable);
+			return tree;
+		}
+
+		@Override
+		public HashSet<String> buildQueryInterface() {
+			return getQueryInterface(symbolTable);
+		}
 	}
 	
 	// Other Methods
 
 	/**
+	 * @param traceType
+	 * @return true if the trace sink wants messages of this type
+	 */
+	private boolean isTracing(int traceType) {
+		return traceSink.isTracing(traceType);
+	}
+
+	/**
+	 * Send a trace message built from its parts to the trace sink. The parts are
+	 * only converted to text when the trace type is enabled; parse tree parts are
+	 * rendered with their text.
+	 * 
+	 * @param traceType
 	 * @param trace
 	 */
-	private void showTrace(Integer traceType, Object trace) {
-		if (traceType == parseTrace && showParse)
-			System.out.println(trace);
-		if (traceType == symbolTrace && showSymbols)
-			System.out.println(trace);
-		if (traceType == resultTrace && showResults)
-			System.out.println(trace);
-		if (traceType == otherTrace && showOther)
-			System.out.println(trace);
+	private void showTrace(int traceType, Object... trace) {
+		if (!traceSink.isTracing(traceType))
+			return;
+		StringBuilder message = new StringBuilder();
+		for (Object part : trace) {
+			if (part instanceof ParseTree)
+				message.append(((ParseTree) part).getText());
+			else
+				message.append(part);
+		}
+		traceSink.trace(traceType, message.toString());
 	}
 
 	/**
 	 * Multi-stack management operations for recursive clauses
 	 */
 
-	private Integer pushStack(Integer ruleIndex) {
-		Integer context = stackTree.get(ruleIndex);
-		Integer newLevel;
-		if (context == null) {
-			newLevel = 1;
-		} else {
-			newLevel = context + 1;
-		}
-		stackTree.put(ruleIndex, newLevel);
-		showTrace(otherTrace, "PUSH - " + makeMapIndex(ruleIndex, newLevel) + ": " + stackTree);
+	private int pushStack(int ruleIndex) {
+		int newLevel = ++stackTree[ruleIndex];
+		if (isTracing(otherTrace))
+			showTrace(otherTrace, "PUSH - ", ruleIndex, "_", newLevel, ": ", stackTreeTrace());
 		return newLevel;
 	}
 
-	private Integer popStack(Integer ruleIndex) {
-		Integer level = stackTree.get(ruleIndex) - 1;
-		if (level == 0) {
-			stackTree.remove(ruleIndex);
-		}
-		stackTree.put(ruleIndex, level);
-		showTrace(otherTrace, "POP - " + makeMapIndex(ruleIndex, level) + ": " + stackTree);
+	private int popStack(int ruleIndex) {
+		int level = --stackTree[ruleIndex];
+		if (isTracing(otherTrace))
+			showTrace(otherTrace, "POP - ", ruleIndex, "_", level, ": ", stackTreeTrace());
 		return level;
 	}
 
-	private Integer currentStackLevel(int ruleIndex) {
-		return stackTree.get(ruleIndex);
-	}
-
-	private Integer pushStack(String key, Object symbols) {
-		Integer level = stackSymbols.get(key);
-		Integer newLevel;
-		if (level == null) {
-			newLevel = 1;
-		} else {
-			newLevel = level + 1;
-		}
-		stackSymbols.put(key, newLevel);
-		String symbolKey = key + "_" + newLevel;
-		collect(symbolKey, symbols);
-		showTrace(otherTrace, "PUSH - " + symbolKey + ": " + symbols);
-		return newLevel;
-	}
-
-	private Object popStack(String key) {
-		Integer level = stackSymbols.get(key);
-		String symbolKey = key + "_" + level;
-		if (level == 1)
-			stackSymbols.remove(key);
-		else
-			stackSymbols.put(key, level - 1);
-		showTrace(otherTrace, "POP - " + symbolKey + ": " + stackSymbols);
-		return sqlTree.remove(symbolKey);
+	private int currentStackLevel(int ruleIndex) {
+		return stackTree[ruleIndex];
 	}
 
+	/**
+	 * Start the scope of a nested query: save the Symbol Table and flags of the
+	 * enclosing query and start new ones
+	 */
 	private void pushSymbolTable() {
-		Object symbols = symbolTable;
-		if (symbols != null) {
-			pushStack("symbolTable", symbols);
+		if (scopeDepth == flagStack.length) {
+			symbolTableStack = Arrays.copyOf(symbolTableStack, scopeDepth * 2);
+			flagStack = Arrays.copyOf(flagStack, scopeDepth * 2);
 		}
-		symbolTable = new HashMap<String, Object>();
-		
-		// Push current flags onto stack
-		pushFlagMap();
-		
-	}
-
-	private void pushFlagMap() {
-		// Build flag map for stack
-		HashMap<String, Object> flagMap = new HashMap<String, Object> ();
-		flagMap.put("unionClauseFound",unionClauseFound);
-		flagMap.put("firstUnionClause",firstUnionClause);
-		flagMap.put("intersectClauseFound",intersectClauseFound);
-		flagMap.put("firstIntersectClause",firstIntersectClause);
-		flagMap.put("useAsLeaf",useAsLeaf);
+		symbolTableStack[scopeDepth] = symbolTable;
+		flagStack[scopeDepth] = packFlags();
+		scopeDepth++;
+		if (isTracing(otherTrace))
+			showTrace(otherTrace, "PUSH - scope_", scopeDepth, ": ", symbolTable);
 
-		pushStack("flagMapTable", flagMap);
-
-		// Reset Flags
+		symbolTable = new HashMap<String, Object>();
 		unionClauseFound = false;
 		firstUnionClause = false;
 		intersectClauseFound = false;
@@ -401,37 +548,41 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param key
 	 * @param symbols
 	 */
-	@SuppressWarnings("unchecked")
 	private void popSymbolTable(String key, HashMap<String, Object> symbols) {
-		symbolTable = (HashMap<String, Object>) popStack("symbolTable");
+		popScope();
 		symbolTable.put(key, symbols);
-		
-		popFlagMap();
 	}
 
-	@SuppressWarnings("unchecked")
 	private void popSymbolTablePutAll(HashMap<String, Object> symbols) {
-		symbolTable = (HashMap<String, Object>) popStack("symbolTable");
+		popScope();
 		symbolTable.putAll(symbols);
-
-		popFlagMap();
 	}
 
+	/**
+	 * Return to the scope of the enclosing query, restoring its Symbol Table and flags
+	 */
 	@SuppressWarnings("unchecked")
-	private void popFlagMap() {
-		// Pop Flags and reset them
-		HashMap<String, Object> flagMap = (HashMap<String, Object>) popStack("flagMapTable");
+	private void popScope() {
+		if (isTracing(otherTrace))
+			showTrace(otherTrace, "POP - scope_", scopeDepth, ": ", symbolTable);
+		scopeDepth--;
+		symbolTable = (HashMap<String, Object>) symbolTableStack[scopeDepth];
+		symbolTableStack[scopeDepth] = null;
+		unpackFlags(flagStack[scopeDepth]);
+	}
 
-		// Reset Flags
-		unionClauseFound = (Boolean) flagMap.get ("unionClauseFound");
-		firstUnionClause =  (Boolean) flagMap.get ("firstUnionClause");
-		intersectClauseFound =  (Boolean) flagMap.get ("intersectClauseFound");
-		firstIntersectClause =  (Boolean) flagMap.get ("firstIntersectClause");
-		useAsLeaf =  (Boolean) flagMap.get ("useAsLeaf");
+	private int packFlags() {
+		return (unionClauseFound ? UNION_CLAUSE_FOUND : 0) | (firstUnionClause ? FIRST_UNION_CLAUSE : 0)
+				| (intersectClauseFound ? INTERSECT_CLAUSE_FOUND : 0)
+				| (firstIntersectClause ? FIRST_INTERSECT_CLAUSE : 0) | (useAsLeaf ? USE_AS_LEAF : 0);
 	}
 
-	private Integer currentStackLevel(String key) {
-		return stackSymbols.get(key);
+	private void unpackFlags(int flags) {
+		unionClauseFound = (flags & UNION_CLAUSE_FOUND) != 0;
+		firstUnionClause = (flags & FIRST_UNION_CLAUSE) != 0;
+		intersectClauseFound = (flags & INTERSECT_CLAUSE_FOUND) != 0;
+		firstIntersectClause = (flags & FIRST_INTERSECT_CLAUSE) != 0;
+		useAsLeaf = (flags & USE_AS_LEAF) != 0;
 	}
 
 	/**
@@ -442,52 +593,82 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param hashMap
 	 * @return
 	 */
-	private Object collect(int ruleIndex, Integer stackLevel, Object item) {
-		String index = makeMapIndex(ruleIndex, stackLevel);
-		collect(index, item);
-		if (item instanceof Map<?, ?>)
-			return getNodeMap(ruleIndex, stackLevel);
-		else
-			return getNode(ruleIndex, stackLevel);
-	}
-
-	/**
-	 * @param index
-	 * @param item
-	 */
-	private void collect(String index, Object item) {
-		sqlTree.put(index, item);
+	private Object collect(int ruleIndex, int stackLevel, Object item) {
+		Object[] nodes = nodeStack[ruleIndex];
+		if (nodes == null) {
+			nodes = new Object[Math.max(4, stackLevel + 1)];
+			nodeStack[ruleIndex] = nodes;
+		} else if (stackLevel >= nodes.length) {
+			nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, stackLevel + 1));
+			nodeStack[ruleIndex] = nodes;
+		}
+		nodes[stackLevel] = item;
+		return item;
 	}
 
 	/**
 	 * SQLTree operations when re-writing the AST during the walk
 	 */
 
-	private Object getNode(int ruleIndex, Integer stackLevel) {
-		String mapIdx = makeMapIndex(ruleIndex, stackLevel);
-		return sqlTree.get(mapIdx);
+	private Object getNode(int ruleIndex, int stackLevel) {
+		Object[] nodes = nodeStack[ruleIndex];
+		if (nodes == null || stackLevel < 0 || stackLevel >= nodes.length)
+			return null;
+		return nodes[stackLevel];
 	}
 
-	private Object removeNode(int ruleIndex, Integer stackLevel) {
-		String mapIdx = makeMapIndex(ruleIndex, stackLevel);
-		return sqlTree.remove(mapIdx);
+	private Object removeNode(int ruleIndex, int stackLevel) {
+		Object[] nodes = nodeStack[ruleIndex];
+		if (nodes == null || stackLevel < 0 || stackLevel >= nodes.length)
+			return null;
+		Object node = nodes[stackLevel];
+		nodes[stackLevel] = null;
+		return node;
 	}
 
 	@SuppressWarnings("unchecked")
-	private Map<String, Object> getNodeMap(int ruleIndex, Integer stackLevel) {
-		String mapIdx = makeMapIndex(ruleIndex, stackLevel);
-		Map<String, Object> idMap = (Map<String, Object>) sqlTree.get(mapIdx);
-		return idMap;
+	private Map<String, Object> getNodeMap(int ruleIndex, int stackLevel) {
+		return (Map<String, Object>) getNode(ruleIndex, stackLevel);
 	}
 
 	@SuppressWarnings("unchecked")
-	private Map<String, Object> removeNodeMap(int ruleIndex, Integer stackLevel) {
-		String mapIdx = makeMapIndex(ruleIndex, stackLevel);
-		return (Map<String, Object>) sqlTree.remove(mapIdx);
+	private Map<String, Object> removeNodeMap(int ruleIndex, int stackLevel) {
+		return (Map<String, Object>) removeNode(ruleIndex, stackLevel);
+	}
+
+	/**
+	 * Rule depths for the trace, as the rule index to depth map they used to be kept in
+	 */
+	private Map<Integer, Integer> stackTreeTrace() {
+		Map<Integer, Integer> depths = new TreeMap<Integer, Integer>();
+		for (int ruleIndex = 0; ruleIndex < stackTree.length; ruleIndex++) {
+			if (stackTree[ruleIndex] > 0)
+				depths.put(ruleIndex, stackTree[ruleIndex]);
+		}
+		return depths;
 	}
 
-	private String makeMapIndex(int ruleIndex, Integer stackIndex) {
-		return ruleIndex + "_" + stackIndex;
+	/**
+	 * The AST together with the nodes under construction, keyed by ruleIndex_stackLevel,
+	 * and the Symbol Tables of the enclosing queries as they used to be kept in the AST,
+	 * for the trace
+	 */
+	private Map<String, Object> sqlTreeTrace() {
+		Map<String, Object> tree = new HashMap<String, Object>(sqlTree);
+		for (int ruleIndex = 0; ruleIndex < nodeStack.length; ruleIndex++) {
+			Object[] nodes = nodeStack[ruleIndex];
+			if (nodes == null)
+				continue;
+			for (int level = 0; level < nodes.length; level++) {
+				if (nodes[level] != null)
+					tree.put(ruleIndex + "_" + level, nodes[level]);
+			}
+		}
+		for (int depth = 0; depth < scopeDepth; depth++)
+			tree.put("symbolTable_" + (depth + 1), symbolTableStack[depth]);
+		if (skipNode)
+			tree.put("SKIP", "TRUE");
+		return tree;
 	}
 
 
@@ -544,7 +725,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 					ref.putAll((Map<String, Object>) aliasSet);
 			}
 		} else if (tableReference instanceof HashMap<?, ?>) {
-			showTrace(symbolTrace, "Error collecting table: " + tableReference);
+			showTrace(symbolTrace, "Error collecting table: ", tableReference);
 		}
 	}
 
@@ -573,7 +754,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				addItemToSymbolTable(localSymbolTable, item, token);
 			}
 		} else if (tableReference instanceof HashMap<?, ?>) {
-			showTrace(symbolTrace, "Error collecting table: " + tableReference);
+			showTrace(symbolTrace, "Error collecting table: ", tableReference);
 		}
 	}
 	
@@ -599,6 +780,25 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	}
 
 	
+	/**
+	 * @param token
+	 * @param name
+	 *            the column name the token is entered under
+	 * @return the position of the token, its text sharing one String with the equal
+	 *         names and texts of the walk
+	 */
+	private TokenPosition positionOf(Token token, String name) {
+		if (!tokenTexts.containsKey(name))
+			tokenTexts.put(name, name);
+		String text = token.getText();
+		String shared = tokenTexts.get(text);
+		if (shared == null)
+			tokenTexts.put(text, text);
+		else
+			text = shared;
+		return TokenPosition.of(token, text);
+	}
+
 	/**
 	 * Determines the type of the item subtree and adds it to the Symbol Table
 	 * in the correct location
@@ -611,7 +811,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	private void addItemToSymbolTable(Object localSymbolTable, Object item, Token token) {
 		if (item instanceof String)
 			// Item is a column reference
-			((HashMap<String, Object>) localSymbolTable).put((String) item, token.toString());
+			((HashMap<String, Object>) localSymbolTable).put((String) item, positionOf(token, (String) item));
 		else {
 			HashMap<String, Object> node = (HashMap<String, Object>) item;
 			if (node.containsKey(PSS_SUBSTITUTION_KEY)) {
@@ -636,30 +836,13 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * Put the query interface into the Symbol Table
 	 */
 	private void captureQueryInterface() {
-		String prefx = "query";
-		HashMap<String, Object> interfac = getInterfaceFromQuery(prefx);
-		if (interfac == null) {
-			prefx = "insert";
-			interfac = getInterfaceFromQuery(prefx);
-		}
-		if (interfac == null) {
-			prefx = "update";
-			interfac = getInterfaceFromQuery(prefx);
-		}
-		if (interfac == null) {
-			prefx = PSS_UNION_KEY;
-			interfac = getInterfaceFromQuery(prefx);
-		}
-		if (interfac == null) {
-			prefx = PSS_INTERSECT_KEY;
-			interfac = getInterfaceFromQuery(prefx);
-		}
-		if (interfac == null) {
-			prefx = PSS_VALUES_KEY;
-			interfac = getInterfaceFromQuery(prefx);
-		}
+		// Only the interface named with the last query count can be in this scope
+		if (lastQueryName == null || lastQueryCount != queryCount - 1)
+			return;
+		HashMap<String, Object> interfac = getInterface((HashMap<String, Object>) symbolTable.get(lastQueryName));
 		if (interfac != null) {
 			// need to get the interface from inside the query
+			String prefx = kindOf(lastQueryName).getPrefix();
 			HashMap<String, Object> newif = new HashMap<String, Object>();
 			for (String key : interfac.keySet()) {
 				newif.put(key, prefx + "_column");
@@ -669,14 +852,39 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	}
 
 	/**
-	 * @param hdr
-	 * @return
+	 * Name the Symbol Table entry of a query interface with the query count
+	 * 
+	 * @param kind
+	 * @return the name
 	 */
-	private HashMap<String, Object> getInterfaceFromQuery(String hdr) {
-		String queryName = hdr + (queryCount - 1);
-		HashMap<String, Object> query = (HashMap<String, Object>) symbolTable.get(queryName);
-		HashMap<String, Object> interfac = getInterface(query);
-		return interfac;
+	private String nameQuery(SymbolKind kind) {
+		String name = kind.symbolName(queryCount);
+		symbolKinds.put(name, kind);
+		lastQueryName = name;
+		lastQueryCount = queryCount;
+		return name;
+	}
+
+	/**
+	 * Name the Symbol Table entry holding the Symbol Table of a query
+	 * 
+	 * @param queryName
+	 *            the name of the query interface
+	 * @return the name
+	 */
+	private String nameDefinition(String queryName) {
+		String name = "def_" + queryName;
+		symbolKinds.put(name, kindOf(queryName).definition());
+		return name;
+	}
+
+	/**
+	 * @param name
+	 * @return the kind of the Symbol Table entry
+	 */
+	private SymbolKind kindOf(String name) {
+		SymbolKind kind = symbolKinds.get(name);
+		return (kind == null) ? SymbolKind.TABLE : kind;
 	}
 
 	/**
@@ -702,18 +910,18 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param ruleIndex
 	 */
 	private void handleOneChild(int ruleIndex) {
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 		String[] keys = new String[1];
 		keys = subMap.keySet().toArray(keys);
 
 		if (keys.length == 1) {
-			showTrace(parseTrace, "Just One Entry: " + subMap);
+			showTrace(parseTrace, "Just One Entry: ", subMap);
 			Object item = subMap.remove(keys[0]);
 			collect(ruleIndex, stackLevel, item);
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 	}
 
@@ -724,15 +932,15 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param ruleIndex
 	 */
 	private void handleListList(int ruleIndex, int parentRuleIndex) {
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> item = removeNodeMap(ruleIndex, stackLevel);
 		item.remove("Type");
 
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = getNodeMap(parentRuleIndex, parentStackLevel);
 		subMap.putAll(item);
-		sqlTree.put("SKIP", "TRUE");
+		skipNode = true;
 	}
 
 	/**
@@ -743,27 +951,27 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param ctx
 	 */
 	private void handleListItem(int ruleIndex, int parentRuleIndex) {
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 		String[] keys = new String[1];
 		keys = subMap.keySet().toArray(keys);
 
 		if (keys.length == 1) {
-			showTrace(parseTrace, "Just One Entry: " + subMap);
+			showTrace(parseTrace, "Just One Entry: ", subMap);
 			Object item = subMap.remove(keys[0]);
 
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			subMap = getNodeMap(parentRuleIndex, parentStackLevel);
 			Integer indx = subMap.size();
 			subMap.put(indx.toString(), item);
-			sqlTree.put("SKIP", "TRUE");
+			skipNode = true;
 
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
-		showTrace(parseTrace, "handleListItem: " + subMap);
+		showTrace(parseTrace, "handleListItem: ", subMap);
 	}
 
 	/**
@@ -773,23 +981,23 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param operand
 	 */
 	private void handleOperandList(int ruleIndex, String operand) {
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
 			Map<String, Object> item = (Map<String, Object>) subMap.remove("1");
 			collect(ruleIndex, stackLevel, item);
-			showTrace(parseTrace, operand + "-less " + operand + " predicate: " + item);
+			showTrace(parseTrace, operand, "-less ", operand, " predicate: ", item);
 
 		} else if (subMap.size() >= 2) {
 			HashMap<String, Object> item = new HashMap<String, Object>();
 			item.put(operand, subMap);
 
 			collect(ruleIndex, stackLevel, item);
-			showTrace(parseTrace, operand + "-ed predicate: " + item);
+			showTrace(parseTrace, operand, "-ed predicate: ", item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -800,13 +1008,13 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param ruleIndex
 	 */
 	private void handlePushDown(int ruleIndex) {
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		Map<String, Object> newMap = collectNewRuleMap(ruleIndex, stackLevel);
 		newMap.put(type.toString(), subMap);
-		showTrace(parseTrace, "handlePushDown: " + subMap);
+		showTrace(parseTrace, "handlePushDown: ", subMap);
 	}
 
 	/**
@@ -816,11 +1024,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @param parentStackLevel
 	 * @param item
 	 */
-	private void addToParent(int parentRuleIndex, Integer parentStackLevel, Object item) {
+	private void addToParent(int parentRuleIndex, int parentStackLevel, Object item) {
 		Map<String, Object> pMap = getNodeMap(parentRuleIndex, parentStackLevel);
 		Integer indx = pMap.size();
 		pMap.put(indx.toString(), item);
-		sqlTree.put("SKIP", "TRUE");
+		skipNode = true;
 	}
 
 	/*****************************************************************************************************
@@ -846,7 +1054,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitSql(@NotNull SQLSelectParserParser.SqlContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_SQL_TREE_KEY, subMap.remove("1"));
@@ -863,7 +1071,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitColumn_value(SQLSelectParserParser.Column_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_COLUMN_TREE_KEY, subMap.remove("1"));
@@ -872,26 +1080,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		// Add TABLE references to Table Dictionary
 		HashMap<String, Object> hold = symbolTable;
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 
@@ -907,7 +1099,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitPredicand_value(@NotNull SQLSelectParserParser.Predicand_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_PREDICAND_TREE_KEY, subMap.remove("1"));
@@ -916,26 +1108,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		// Add TABLE references to Table Dictionary
 		HashMap<String, Object> hold = symbolTable;
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 
@@ -951,7 +1127,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitIn_list_predicate_value(SQLSelectParserParser.In_list_predicate_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_IN_LIST_TREE_KEY, subMap.remove("1"));
@@ -960,26 +1136,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		// Add TABLE references to Table Dictionary
 		HashMap<String, Object> hold = symbolTable;
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 
@@ -995,7 +1155,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitCondition_value(SQLSelectParserParser.Condition_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_CONDITION_TREE_KEY, subMap.remove("1"));
@@ -1004,26 +1164,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		// Add TABLE references to Table Dictionary
 		HashMap<String, Object> hold = symbolTable;
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 
@@ -1038,7 +1182,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitTuple_value(SQLSelectParserParser.Tuple_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		HashMap<String, Object> item = new HashMap<String, Object> ();
@@ -1059,7 +1203,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			hold.putAll((HashMap<String, Object>)  subMap.remove("2"));
 			hold.put(PSS_COLUMNS_KEY, (HashMap<String, Object>)  subMap.remove("3"));
 		} else {	
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 
 		sqlTree.put(PSS_TUPLE_TREE_KEY, item);
@@ -1077,7 +1221,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitQuery_value(SQLSelectParserParser.Query_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_QUERY_TREE_KEY, subMap.remove("1"));
@@ -1086,26 +1230,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		// Add TABLE references to Table Dictionary
 		HashMap<String, Object> hold = symbolTable;
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 
@@ -1120,7 +1248,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitJoin_extension_value(SQLSelectParserParser.Join_extension_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_JOIN_EXTENSION_TREE_KEY, subMap.remove("1"));
@@ -1138,7 +1266,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitValues_statement_end(SQLSelectParserParser.Values_statement_endContext ctx) {
 //		int ruleIndex = ctx.getRuleIndex();
-//		Integer stackLevel = currentStackLevel(ruleIndex);
+//		int stackLevel = currentStackLevel(ruleIndex);
 //		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 //		Object type = subMap.remove("Type");
 //		HashMap<String, Object> item = new HashMap<String, Object> ();
@@ -1164,7 +1292,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 //		
 //		sqlTree.put(PSS_VALUES_TREE_KEY, item);
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		sqlTree.put(PSS_VALUES_TREE_KEY, subMap.remove("1"));
@@ -1202,8 +1330,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -1221,16 +1349,16 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.put(PSS_WITH_KEY, withList);
 			subMap.put(PSS_QUERY_KEY, query);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+			showTrace(parseTrace, "Wrong number of entries: ", ctx);
 		}
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "WITH QUERY: " + subMap);
+		showTrace(parseTrace, "WITH QUERY: ", subMap);
 	}
 
 	@Override
 	public void exitWith_clause(@NotNull SQLSelectParserParser.With_clauseContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -1245,7 +1373,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			newMap.putAll((Map<String, Object>) subMap.remove(key));
 		}
 
-		showTrace(parseTrace, "WITH CLAUSE: " + newMap);
+		showTrace(parseTrace, "WITH CLAUSE: ", newMap);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -1254,8 +1382,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -1282,10 +1410,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				symbolTable.put(PSS_WITH_KEY, with);
 			}
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+			showTrace(parseTrace, "Wrong number of entries: ", ctx);
 		}
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "WITH QUERY: " + subMap);
+		showTrace(parseTrace, "WITH QUERY: ", subMap);
 	}
 
 	@Override
@@ -1310,7 +1438,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitInsert_expression(@NotNull SQLSelectParserParser.Insert_expressionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		String[] keys = new String[1];
 		Object type = subMap.remove("Type");
@@ -1339,7 +1467,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 					} else if (childKey == (Integer) SQLSelectParserParser.RULE_returning) {
 						subMap.put(PSS_RETURNING_KEY, segment);
 					} else {
-						showTrace(parseTrace, "Too Many Entries" + segment);
+						showTrace(parseTrace, "Too Many Entries", segment);
 					}
 				}
 			}
@@ -1360,19 +1488,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		String holdTabRef = null;
 
 		for (String tab_ref : symbols.keySet()) {
-			if ((tab_ref.equals("interface")) || (tab_ref.startsWith("def_query")) || (tab_ref.startsWith("def_insert"))
-					|| (tab_ref.startsWith("def_update")) || (tab_ref.startsWith("def_union"))
-					|| (tab_ref.startsWith("def_intersect"))) {
-			} else {
+			SymbolKind kind = kindOf(tab_ref);
+			if (!kind.isDefinition()) {
 				Object item = symbols.get(tab_ref);
 				if (item instanceof HashMap<?, ?>) {
 					hold.put(tab_ref, item);
 					holdTabRef = tab_ref;
 					count++;
-					if ((tab_ref.startsWith("query")) || (tab_ref.startsWith("insert"))
-							|| (tab_ref.startsWith("update")) || (tab_ref.startsWith(PSS_UNION_KEY))
-							|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-					} else {
+					if (!kind.isQuery()) {
 						tableCount++;
 						onlyTableName = tab_ref;
 					}
@@ -1404,26 +1527,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 		}
 		// TODO: Add TABLE references to Table Dictionary
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith("insert")) || (tab_ref.startsWith("update"))
-						|| (tab_ref.startsWith(PSS_UNION_KEY)) || (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 	}
@@ -1437,7 +1544,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitUpdate_expression(@NotNull SQLSelectParserParser.Update_expressionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		String[] keys = new String[1];
 		Object type = subMap.remove("Type");
@@ -1471,7 +1578,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 					} else if (childKey == (Integer) SQLSelectParserParser.RULE_returning) {
 						subMap.put(PSS_RETURNING_KEY, segment);
 					} else {
-						showTrace(parseTrace, "Too Many Entries" + segment);
+						showTrace(parseTrace, "Too Many Entries", segment);
 					}
 				}
 			}
@@ -1492,17 +1599,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		String holdTabRef = null;
 
 		for (String tab_ref : symbols.keySet()) {
-			if ((tab_ref.equals("interface")) || (tab_ref.startsWith("def_query")) || (tab_ref.startsWith("def_union"))
-					|| (tab_ref.startsWith("def_intersect"))) {
-			} else {
+			SymbolKind kind = kindOf(tab_ref);
+			if (!kind.isDefinition()) {
 				Object item = symbols.get(tab_ref);
 				if (item instanceof HashMap<?, ?>) {
 					hold.put(tab_ref, item);
 					holdTabRef = tab_ref;
 					count++;
-					if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-							|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-					} else {
+					if (!kind.isQuery()) {
 						tableCount++;
 						onlyTableName = tab_ref;
 					}
@@ -1534,26 +1638,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 		}
 		// TODO: Add TABLE references to Table Dictionary
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) || (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))) {
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 	}
@@ -1578,26 +1666,26 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitAssignment_expression(@NotNull SQLSelectParserParser.Assignment_expressionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 2) {
-			showTrace(parseTrace, "Comparison: " + subMap);
+			showTrace(parseTrace, "Comparison: ", subMap);
 			Map<String, Object> left = (Map<String, Object>) subMap.remove("1");
 			subMap.put(PSS_SET_KEY, left);
 
 			Map<String, Object> right = (Map<String, Object>) subMap.remove("2");
 			subMap.put(PSS_TO_KEY, right);
 
-			showTrace(parseTrace, "Assignment: " + subMap);
+			showTrace(parseTrace, "Assignment: ", subMap);
 
 			// Put target column symbol into update table's set and interface
 			Map<String, Object> unk = (HashMap<String, Object>) symbolTable.get(PSS_UNKNOWN_KEY);
-			String column = ((HashMap<String, String>) ((HashMap<String, Object>) left).get(PSS_COLUMN_KEY)).get("name");
+			String column = (String) ((Map<String, Object>) left.get(PSS_COLUMN_KEY)).get(PSS_NAME_KEY);
 
 			String[] keys = new String[1];
 			keys = symbolTable.keySet().toArray(keys);
@@ -1609,7 +1697,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 				} else {
 					// must be the table
-					showTrace(symbolTrace, "Key for not 'UNKNOWN': " + key + " Entry: " + symbolTable.get(key));
+					showTrace(symbolTrace, "Key for not 'UNKNOWN': ", key, " Entry: ", symbolTable.get(key));
 					Object item = symbolTable.get(key);
 					if (item instanceof Map<?, ?>) {
 						HashMap<String, Object> map = (HashMap<String, Object>) item;
@@ -1618,7 +1706,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				}
 			}
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
 
@@ -1643,8 +1731,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -1652,10 +1740,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (subMap.size() == 1) {
 				item.putAll((Map<String, Object>) subMap.remove("1"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case: " + item);
+			showTrace(parseTrace, "Case: ", item);
 			
 			// Add item to symbol table
 			Map<String, Object> values = (Map<String, Object>) item.get(PSS_VALUES_KEY);
@@ -1684,8 +1772,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// Symbol Table Construction
 			HashMap<String, Object> symbols = symbolTable;
 
-			String key = PSS_VALUES_KEY + queryCount;
-			popSymbolTable("def_" + key, symbols);
+			String key = nameQuery(SymbolKind.VALUES);
+			popSymbolTable(nameDefinition(key), symbols);
 			queryCount++;
 
 			symbolTable.put(interfaceAlias, key);
@@ -1701,8 +1789,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -1720,11 +1808,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				// Resolve Symbol Table, eliminate virtual references because this statement has an actual columns list.
 				consolidateValuesStatementSymbolTable((String) aliasMap.get(PSS_ALIAS_KEY));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "Case: " + subMap);
+			showTrace(parseTrace, "Case: ", subMap);
 			
 		}
 		
@@ -1734,8 +1822,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -1751,11 +1839,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				// Resolve Symbol Table, eliminate virtual references because this statement has an actual columns list.
 				consolidateValuesStatementSymbolTable((String) aliasMap.get(PSS_ALIAS_KEY));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "Case: " + subMap);
+			showTrace(parseTrace, "Case: ", subMap);
 			}
 		
 		
@@ -1765,8 +1853,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -1774,13 +1862,13 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				// Variation 1: Just a matrix of rows
 				subMap.putAll((Map<String, Object>) subMap.remove("1"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 
 			Map<String, Object> item = new HashMap<String, Object>();
 			item.put(PSS_VALUES_KEY, subMap);
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case: " + item);
+			showTrace(parseTrace, "Case: ", item);
 
 		}
 	// TODO: add symbol tree collection
@@ -1789,7 +1877,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		public void exitValues_matrix(@NotNull SQLSelectParserParser.Values_matrixContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			subMap.remove("Type");
 			Map<String, Object> item = new HashMap<String, Object>();
@@ -1804,7 +1892,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 			
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 			addToParent(parentRuleIndex, parentStackLevel, item);
 		}
 
@@ -1813,14 +1901,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		public void exitValues_row(@NotNull SQLSelectParserParser.Values_rowContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			subMap.remove("Type");
 			Map<String, Object> item = (Map<String, Object>) subMap.remove("1");
 			item.put(PSS_ROW_KEY, item.remove("list"));
 
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 			addToParent(parentRuleIndex, parentStackLevel, item);
 		}
 
@@ -1828,14 +1916,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		public void exitValues_columns(@NotNull SQLSelectParserParser.Values_columnsContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			subMap.remove("Type");
 			Map<String, Object> item = (Map<String, Object>) subMap.remove("1");
 			item.put(PSS_COLUMNS_KEY, item.remove("list"));
 
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 			addToParent(parentRuleIndex, parentStackLevel, item);
 		}
 		
@@ -1888,7 +1976,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		if (intersectClauseFound) {
 			// Retrieve outer symbol table, insert this symbol table into it
-			String key = PSS_INTERSECT_KEY + queryCount;
+			String key = nameQuery(SymbolKind.INTERSECT);
 			popSymbolTable(key, symbols);
 			queryCount++;
 		} else {
@@ -1911,7 +1999,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitIntersect_clause(@NotNull SQLSelectParserParser.Intersect_clauseContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
@@ -1935,15 +2023,15 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			
 			subMap.put(PSS_INTERSECT_KEY, item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+			showTrace(parseTrace, "Wrong number of entries: ", ctx);
 		}
-		showTrace(parseTrace, "Intersect Operator: " + subMap);
+		showTrace(parseTrace, "Intersect Operator: ", subMap);
 
 		// Get first interface to represent intersection output
 		if (firstIntersectClause) {
-			showTrace(symbolTrace, "Intersect So Far: " + symbolTable);
+			showTrace(symbolTrace, "Intersect So Far: ", symbolTable);
 			captureQueryInterface();
-			showTrace(symbolTrace, "Intersect So Far: " + symbolTable);
+			showTrace(symbolTrace, "Intersect So Far: ", symbolTable);
 
 		}
 	}
@@ -1966,7 +2054,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		if (unionClauseFound) {
 			// Retrieve outer symbol table, insert this symbol table into it
-			String key = PSS_UNION_KEY + queryCount;
+			String key = nameQuery(SymbolKind.UNION);
 			popSymbolTable(key, symbols);
 			queryCount++;
 		} else {
@@ -1987,7 +2075,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitUnion_clause(@NotNull SQLSelectParserParser.Union_clauseContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
@@ -2011,15 +2099,15 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			
 			subMap.put(PSS_UNION_KEY, item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+			showTrace(parseTrace, "Wrong number of entries: ", ctx);
 		}
-		showTrace(parseTrace, "Union Operator: " + subMap);
+		showTrace(parseTrace, "Union Operator: ", subMap);
 
 		// Get first interface to represent union output
 		if (firstUnionClause) {
-			showTrace(symbolTrace, "Union So Far: " + symbolTable);
+			showTrace(symbolTrace, "Union So Far: ", symbolTable);
 			captureQueryInterface();
-			showTrace(symbolTrace, "Union So Far: " + symbolTable);
+			showTrace(symbolTrace, "Union So Far: ", symbolTable);
 		}
 
 	}
@@ -2037,7 +2125,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitQuery_primary(@NotNull SQLSelectParserParser.Query_primaryContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
@@ -2053,7 +2141,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 		if (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_nonparenthesized_value_expression_primary) {
 			// Subquery is acting as a lookup function
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 			HashMap<String, Object> item = new HashMap<String, Object>();
@@ -2077,7 +2165,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitQuery_specification(@NotNull SQLSelectParserParser.Query_specificationContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		String[] keys = new String[1];
 		Object type = subMap.remove("Type");
@@ -2116,7 +2204,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				} else if (childKey == (Integer) SQLSelectParserParser.RULE_limit_clause) {
 					subMap.put(PSS_LIMIT_KEY, segment);
 				} else {
-					showTrace(parseTrace, "Too Many Entries" + segment);
+					showTrace(parseTrace, "Too Many Entries", segment);
 				}
 			}
 		}
@@ -2126,7 +2214,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		HashMap<String, Object> symbols = convertSymbolTableToTableDictionary();
 
 		// Retrieve outer symbol table, insert this symbol table into it
-		String key = "query" + queryCount;
+		String key = nameQuery(SymbolKind.QUERY);
 		popSymbolTable(key, symbols);
 		queryCount++;
 	}
@@ -2146,8 +2234,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 		
 		String item = ctx.getChild(0).getText();
 		
@@ -2155,7 +2243,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		subMap.put(PSS_QUALIFIER_KEY, item);
 		subMap.put("Type", SQLSelectParserParser.RULE_set_qualifier);
 		
-		showTrace(parseTrace, "Qualifier: " + subMap);
+		showTrace(parseTrace, "Qualifier: ", subMap);
 	
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
 	}
@@ -2175,8 +2263,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
@@ -2194,10 +2282,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		if (subMap.size() == 0) {
 			// Select Item did not have an Alias, construct one from options
-			showTrace(parseTrace, "Just One Item: " + item);
-			HashMap<String, Object> node = (HashMap<String, Object>) item.get(PSS_COLUMN_KEY);
+			showTrace(parseTrace, "Just One Item: ", item);
+			Map<String, Object> node = (Map<String, Object>) item.get(PSS_COLUMN_KEY);
 			if (node == null)
-				node = (HashMap<String, Object>) item.get(PSS_SUBSTITUTION_KEY);
+				node = (Map<String, Object>) item.get(PSS_SUBSTITUTION_KEY);
 			if (node != null)
 				if (node.containsKey(PSS_NAME_KEY))
 					// Select Item is a column or substitution, use its name
@@ -2215,14 +2303,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 		} else {
 			// Select Item has an alias
-			showTrace(parseTrace, "Item and Alias: " + item);
+			showTrace(parseTrace, "Item and Alias: ", item);
 
 			Map<String, Object> aliasMap = (Map<String, Object>) subMap.remove("2");
 			interfaceAlias = (String) aliasMap.get(PSS_ALIAS_KEY);
 			((Map<String, Object>) item).putAll(aliasMap);
 		}
 		addToParent(parentRuleIndex, parentStackLevel, item);
-		showTrace(parseTrace, "SELECT ITEM: " + item);
+		showTrace(parseTrace, "SELECT ITEM: ", item);
 
 		// Add item to symbol table
 		HashMap<String, Object> selectInterface = (HashMap<String, Object>) symbolTable.get("interface");
@@ -2237,17 +2325,17 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitAs_clause(@NotNull SQLSelectParserParser.As_clauseContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + subMap);
+			showTrace(parseTrace, "Just One Identifier: ", subMap);
 			String alias = (String) subMap.remove("1");
 			subMap.put(PSS_ALIAS_KEY, alias);
-			showTrace(parseTrace, "Alias: " + alias + " Map: " + subMap);
+			showTrace(parseTrace, "Alias: ", alias, " Map: ", subMap);
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 
 	}
@@ -2257,8 +2345,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -2270,7 +2358,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		subMap.remove("Type");
 		if (ctx.getChildCount() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + ctx.getText());
+			showTrace(parseTrace, "Just One Identifier: ", ctx);
 			item.put(PSS_TABLE_REF_KEY, "*");
 			item.put(PSS_NAME_KEY, "*");
 
@@ -2278,7 +2366,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 			subMap.put(PSS_COLUMN_KEY, item);
 		} else if (ctx.getChildCount() == 3) {
-			showTrace(parseTrace, "Three entries: " + ctx.getText());
+			showTrace(parseTrace, "Three entries: ", ctx);
 			item.put(PSS_TABLE_REF_KEY, ctx.getChild(0).getText());
 
 			collectSymbolTableItem(item.get(PSS_TABLE_REF_KEY), "*", ctx.getStart());
@@ -2288,7 +2376,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		// Add item to parent map
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "Table Alias . Column Name: " + subMap);
+		showTrace(parseTrace, "Table Alias . Column Name: ", subMap);
 	}
 
 /*
@@ -2339,14 +2427,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "Join Extension: " + subMap);
+		showTrace(parseTrace, "Join Extension: ", subMap);
 
 		convertSymbolTableToTableDictionary();
 	}
@@ -2371,19 +2459,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		String holdTabRef = null;
 
 		for (String tab_ref : symbols.keySet()) {
-			if ((tab_ref.equals("interface")) || (tab_ref.startsWith("def_query")) || (tab_ref.startsWith("def_insert"))
-					|| (tab_ref.startsWith("def_update")) || (tab_ref.startsWith("def_union"))
-					|| (tab_ref.startsWith("def_intersect")) || (tab_ref.startsWith("def_values"))) {
-			} else {
+			SymbolKind kind = kindOf(tab_ref);
+			if (!kind.isDefinition()) {
 				Object item = symbols.get(tab_ref);
 				if (item instanceof HashMap<?, ?>) {
 					hold.put(tab_ref, item);
 					holdTabRef = tab_ref;
 					count++;
-					if ((tab_ref.startsWith("query")) || (tab_ref.startsWith("insert"))
-							|| (tab_ref.startsWith("update")) || (tab_ref.startsWith(PSS_UNION_KEY))
-							|| (tab_ref.startsWith(PSS_INTERSECT_KEY)) || (tab_ref.startsWith(PSS_VALUES_KEY))) {
-					} else {
+					if (!kind.isQuery()) {
 						tableCount++;
 						onlyTableName = tab_ref;
 					}
@@ -2415,44 +2498,63 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 		}
 		// TODO: Add TABLE references to Table Dictionary
-		if (hold.size() > 0) {
+		if (buildTableDictionary && hold.size() > 0) {
 			for (String tab_ref : hold.keySet()) {
-				if ((tab_ref.startsWith("query")) 
-						|| (tab_ref.startsWith(PSS_UNION_KEY))
-						|| (tab_ref.startsWith(PSS_INTERSECT_KEY))
-						|| (tab_ref.startsWith(PSS_VALUES_KEY))) {
-//				}
-//				else if (tab_ref.startsWith(PSS_VALUES_KEY)) {
-//					showTrace(parseTrace, "Symbol Tree: " + symbols);
-				} else {
-					String reference;
-					if (tab_ref.startsWith("<"))
-						// Tuple Substitution Variable, do NOT alter case
-						reference = tab_ref;
-					else
-						reference = tab_ref.toLowerCase();
-					HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
-					if (currItem != null)
-						currItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-					else {
-						HashMap<String, Object> newItem = new HashMap<String, Object>();
-						newItem.putAll((Map<? extends String, ? extends Object>) hold.get(tab_ref));
-						tableDictionaryMap.put(reference, newItem);
-					}
-				}
+				if (!kindOf(tab_ref).isQuery())
+					addTableReference(tab_ref, hold.get(tab_ref));
 			}
 		}
 		return symbols;
 	}
 
+	/**
+	 * Merge the columns of a table reference of the Symbol Table into its entry in
+	 * the Table Dictionary
+	 * 
+	 * @param tab_ref
+	 * @param columns
+	 */
+	@SuppressWarnings("unchecked")
+	private void addTableReference(String tab_ref, Object columns) {
+		String reference = tableReferences.get(tab_ref);
+		if (reference == null) {
+			if (tab_ref.startsWith("<"))
+				// Tuple Substitution Variable, do NOT alter case
+				reference = tab_ref;
+			else
+				reference = tab_ref.toLowerCase();
+			tableReferences.put(tab_ref, reference);
+		}
+		HashMap<String, Object> currItem = (HashMap<String, Object>) tableDictionaryMap.get(reference);
+		if (currItem != null)
+			currItem.putAll((Map<? extends String, ? extends Object>) columns);
+		else {
+			HashMap<String, Object> newItem = new HashMap<String, Object>();
+			newItem.putAll((Map<? extends String, ? extends Object>) columns);
+			tableDictionaryMap.put(reference, newItem);
+		}
+	}
+
+	/**
+	 * Nothing is added to a table item once its table primary is walked, so one
+	 * naming a table is built as its AST node
+	 * 
+	 * @param item
+	 * @return the TableRef, or the item itself if it names a query or substitution
+	 */
+	private static Object tableNode(Map<String, Object> item) {
+		TableRef node = TableRef.of(item);
+		return (node == null) ? item : node;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public void exitTable_primary(@NotNull SQLSelectParserParser.Table_primaryContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -2469,20 +2571,12 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 					alias = table.toString();
 					collectSymbolTable(alias, table);
 
-					subMap.put(PSS_TABLE_KEY, item);
+					subMap.put(PSS_TABLE_KEY, tableNode(item));
 				} else {
 					alias = "unnamed";
 					Map<String, Object> aliasMap = new HashMap<String, Object>();
 					aliasMap.put(alias, alias);
-					Boolean done = collectQuerySymbolTable(PSS_QUERY_KEY, aliasMap, alias, item);
-					if (!done)
-						done = collectQuerySymbolTable("insert", aliasMap, alias, item);
-					if (!done)
-						done = collectQuerySymbolTable("update", aliasMap, alias, item);
-					if (!done)
-						done = collectQuerySymbolTable(PSS_UNION_KEY, aliasMap, alias, item);
-					if (!done)
-						done = collectQuerySymbolTable(PSS_INTERSECT_KEY, aliasMap, alias, item);
+					collectQuerySymbolTable(aliasMap, alias, item);
 				}
 			} else { // VALUES STATEMENT can only happen in this instance
 				subMap.putAll(item);
@@ -2516,23 +2610,15 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			} else {// then it's a query, add it to the tree no matter what kind of query it is
 				item.put(PSS_QUERY_KEY, reference);
 				// Add the query to the symbol table tree 
-				Boolean done = collectQuerySymbolTable(PSS_QUERY_KEY, item, alias, reference);
-				if (!done)
-					done = collectQuerySymbolTable(PSS_INSERT_KEY, item, alias, reference);
-				if (!done)
-					done = collectQuerySymbolTable(PSS_UPDATE_KEY, item, alias, reference);
-				if (!done)
-					done = collectQuerySymbolTable(PSS_UNION_KEY, item, alias, reference);
-				if (!done)
-					done = collectQuerySymbolTable(PSS_INTERSECT_KEY, item, alias, reference);
+				collectQuerySymbolTable(item, alias, reference);
 			}
 
-			subMap.put(PSS_TABLE_KEY, item);
+			subMap.put(PSS_TABLE_KEY, tableNode(item));
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+			showTrace(parseTrace, "Wrong number of entries: ", ctx);
 		}
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "TABLE PRIMARY: " + subMap);
+		showTrace(parseTrace, "TABLE PRIMARY: ", subMap);
 	}
 	
 
@@ -2542,8 +2628,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -2558,7 +2644,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		if (reference.containsKey(PSS_TABLE_KEY)) {
 			Object table = reference.get(PSS_TABLE_KEY);
 			symbolTable.put((String) table, new HashMap<String, Object>());
-			tableDictionaryMap.put((String) table, new HashMap<String, Object>());
+			if (buildTableDictionary)
+				tableDictionaryMap.put((String) table, new HashMap<String, Object>());
 			subMap.put(PSS_TABLE_KEY, reference);
 
 		} else if (reference.containsKey(PSS_VALUES_KEY)) {
@@ -2577,7 +2664,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (alias == null)
 				alias = "unnamed";
 			// Construct new Symbol Table
-			String key = PSS_VALUES_KEY + queryCount;
+			String key = nameQuery(SymbolKind.VALUES);
 			symbolTable.put(alias, key);
 			
 			HashMap<String, Object> queryBody =  new HashMap<String, Object>();
@@ -2585,7 +2672,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			queryBody.put("interface",symbols.get(alias));
 			
 			symbolTable.put(key,symbols.get(alias));
-			symbolTable.put("def_" + key, queryBody);
+			symbolTable.put(nameDefinition(key), queryBody);
 			
 			
 			// Construct Table Dictionary
@@ -2598,32 +2685,36 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// Collect Symbol Table Reference
 			String name = (String) substitution.get("name");
 			symbolTable.put(name, new HashMap<String, Object>());
-			tableDictionaryMap.put(name, new HashMap<String, Object>());
+			if (buildTableDictionary)
+				tableDictionaryMap.put(name, new HashMap<String, Object>());
 			subMap.putAll(reference);
 
 		} else { // then it's a query, add it to the tree no matter what kind of query it is
 			item.put(PSS_QUERY_KEY, reference);
 			// Add the query to the symbol table tree 
-			Boolean done = collectQuerySymbolTable(PSS_QUERY_KEY, item, alias, reference);
-			if (!done)
-					done = collectQuerySymbolTable(PSS_INSERT_KEY, item, alias, reference);
-			if (!done)
-					done = collectQuerySymbolTable(PSS_UPDATE_KEY, item, alias, reference);
-			if (!done)
-					done = collectQuerySymbolTable(PSS_UNION_KEY, item, alias, reference);
-			if (!done)
-					done = collectQuerySymbolTable(PSS_INTERSECT_KEY, item, alias, reference);
+			collectQuerySymbolTable(item, alias, reference);
 			subMap.putAll(reference);
 		}
 
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "TABLE PRIMARY: " + subMap);
+		showTrace(parseTrace, "TABLE PRIMARY: ", subMap);
 	}
 	
 
-	private Boolean collectQuerySymbolTable(String hdr, Map<String, Object> item, String alias,
-			Map<String, Object> reference) {
-		String queryName = hdr + (queryCount - 1);
+	/**
+	 * Move the last query named, the derived table just walked, under its alias in
+	 * the Symbol Table, with its own Symbol Table as its definition
+	 * 
+	 * @param item
+	 * @param alias
+	 * @param reference
+	 * @return false if no query of this scope was named with the last query count
+	 */
+	private Boolean collectQuerySymbolTable(Map<String, Object> item, String alias, Map<String, Object> reference) {
+		// A table named like a query is still a table
+		if (lastQueryName == null || lastQueryCount != queryCount - 1 || !kindOf(lastQueryName).isQuery())
+			return false;
+		String queryName = lastQueryName;
 		Map<String, Object> query = (Map<String, Object>) symbolTable.remove(queryName);
 		if (query != null) {
 //			item.put(hdr, reference);
@@ -2657,7 +2748,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 					symbolTable.put(PSS_UNKNOWN_KEY, unk);
 			}
 			// Add query definition back into symbol table
-			symbolTable.put("def_" + queryName, query);
+			symbolTable.put(nameDefinition(queryName), query);
 			return true;
 		} else
 			return false;
@@ -2666,12 +2757,12 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitTable_or_query_name(@NotNull SQLSelectParserParser.Table_or_query_nameContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + subMap);
+			showTrace(parseTrace, "Just One Identifier: ", subMap);
 			String table = (String) subMap.remove("1");
 
 			// try swapping names here
@@ -2680,9 +2771,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			collectSymbolTable(table, table);
 
 			subMap.put(PSS_TABLE_KEY, table);
-			showTrace(parseTrace, "table: " + table + " Map: " + subMap);
+			showTrace(parseTrace, "table: ", table, " Map: ", subMap);
 		} else if (subMap.size() == 2) {
-			showTrace(parseTrace, "Two entries: " + subMap);
+			showTrace(parseTrace, "Two entries: ", subMap);
 			String schema = (String) subMap.remove("1");
 			subMap.put(PSS_SCHEMA_KEY, schema);
 			String table = (String) subMap.remove("2");
@@ -2693,9 +2784,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			collectSymbolTable(table, table);
 
 			subMap.put(PSS_TABLE_KEY, table);
-			showTrace(parseTrace, "Schema: " + schema + " Table: " + table + " Map: " + subMap);
+			showTrace(parseTrace, "Schema: ", schema, " Table: ", table, " Map: ", subMap);
 		} else if (subMap.size() == 3) {
-			showTrace(parseTrace, "Three entries: " + subMap);
+			showTrace(parseTrace, "Three entries: ", subMap);
 			String dbname = (String) subMap.remove("1");
 			subMap.put(PSS_DATABASE_NAME_KEY, dbname);
 			String schema = (String) subMap.remove("2");
@@ -2708,9 +2799,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			collectSymbolTable(table, table);
 
 			subMap.put(PSS_TABLE_KEY, table);
-			showTrace(parseTrace, "Database: " + dbname + "Schema: " + schema + " Table: " + table + " Map: " + subMap);
+			showTrace(parseTrace, "Database: ", dbname, "Schema: ", schema, " Table: ", table, " Map: ", subMap);
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 	}
 
@@ -2719,8 +2810,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		showTrace(parseTrace, subMap);
@@ -2734,7 +2825,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		// Add item to parent map
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "UNQUALIFIED JOIN: " + subMap);
+		showTrace(parseTrace, "UNQUALIFIED JOIN: ", subMap);
 	}
 
 	@Override
@@ -2742,8 +2833,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -2766,7 +2857,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		// Add item to parent map
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "QUALIFIED JOIN: " + subMap);
+		showTrace(parseTrace, "QUALIFIED JOIN: ", subMap);
 	}
 
 	// join_type does NOT need its own methods
@@ -2777,8 +2868,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -2791,11 +2882,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// Add On clause to previous Join statement
 			item = (Map<String, Object>) subMap.remove("1");
 			join.put(PSS_JOIN_ON_KEY, item);
-			showTrace(parseTrace, "join On Clause: " + join);
+			showTrace(parseTrace, "join On Clause: ", join);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+			showTrace(parseTrace, "Wrong number of entries: ", ctx);
 		}
-		sqlTree.put("SKIP", "TRUE");
+		skipNode = true;
 	}
 
 	@Override
@@ -2803,8 +2894,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		subMap = (Map<String, Object>) subMap.get("1");
@@ -2838,7 +2929,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitColumn_reference_list(@NotNull SQLSelectParserParser.Column_reference_listContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 	}
@@ -2846,33 +2937,31 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitColumn_reference(@NotNull SQLSelectParserParser.Column_referenceContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
-		Map<String, Object> columnSubTree = new HashMap<String, Object>();
 		Object columnRef = null;
 		String tableRef = null;
 		String tableRefKey = PSS_UNKNOWN_KEY;
 		Boolean doNotSkip = true;
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + subMap);
+			showTrace(parseTrace, "Just One Identifier: ", subMap);
 			columnRef = subMap.remove("1");
 		} else if (subMap.size() == 2) {
-			showTrace(parseTrace, "Two entries: " + subMap);
+			showTrace(parseTrace, "Two entries: ", subMap);
 			// tableRefKey = "table_ref";
 			tableRef = (String) subMap.remove("1");
 			tableRefKey = tableRef;
 			columnRef = subMap.remove("2");
 
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 			doNotSkip = false;
 		}
 		if (doNotSkip) {
 			// Add column to SQL AST Tree
-			columnSubTree.put(PSS_TABLE_REF_KEY, tableRef);
 			if (columnRef instanceof HashMap<?, ?>) {
 				// should be a substitution
 				HashMap<String, Object> columnMap = (HashMap<String, Object>) columnRef;
@@ -2882,49 +2971,50 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				// Add reference to Substitution Variables list
 				substitutionsMap.put((String) substitutionMap.get("name"), PSS_COLUMN_KEY);
 
+				Map<String, Object> columnSubTree = new HashMap<String, Object>();
+				columnSubTree.put(PSS_TABLE_REF_KEY, tableRef);
 				columnSubTree.putAll((HashMap<String, Object>) columnRef);
+				subMap.put(PSS_COLUMN_KEY, columnSubTree);
 			} else {
-				columnSubTree.put(PSS_NAME_KEY, columnRef);
+				// Nothing is added to a plain column later, so it is built as its AST node
+				subMap.put(PSS_COLUMN_KEY, new ColumnRef((String) columnRef, tableRef));
 			}
-			subMap.put(PSS_COLUMN_KEY, columnSubTree);
 
 			// Capture SymbolTable entry
 			collectSymbolTableItem(tableRefKey, columnRef, ctx.getStart());
 		}
-		showTrace(parseTrace, "Column Reference: " + subMap);
+		showTrace(parseTrace, "Column Reference: ", subMap);
 	}
 
 
 	@Override
 	public void exitColumn_primary(@NotNull SQLSelectParserParser.Column_primaryContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
-		Map<String, Object> columnSubTree = new HashMap<String, Object>();
 		Object columnRef = null;
 		String tableRef = null;
 		String tableRefKey = PSS_UNKNOWN_KEY;
 		Boolean doNotSkip = true;
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + subMap);
+			showTrace(parseTrace, "Just One Identifier: ", subMap);
 			columnRef = subMap.remove("1");
 		} else if (subMap.size() == 2) {
-			showTrace(parseTrace, "Two entries: " + subMap);
+			showTrace(parseTrace, "Two entries: ", subMap);
 			// tableRefKey = "table_ref";
 			tableRef = (String) subMap.remove("1");
 			tableRefKey = tableRef;
 			columnRef = subMap.remove("2");
 
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 			doNotSkip = false;
 		}
 		if (doNotSkip) {
 			// Add column to SQL AST Tree
-			columnSubTree.put(PSS_TABLE_REF_KEY, tableRef);
 			if (columnRef instanceof HashMap<?, ?>) {
 				// should be a substitution
 				HashMap<String, Object> columnMap = (HashMap<String, Object>) columnRef;
@@ -2934,16 +3024,19 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				// Add reference to Substitution Variables list
 				substitutionsMap.put((String) substitutionMap.get("name"), PSS_COLUMN_KEY);
 
+				Map<String, Object> columnSubTree = new HashMap<String, Object>();
+				columnSubTree.put(PSS_TABLE_REF_KEY, tableRef);
 				columnSubTree.putAll((HashMap<String, Object>) columnRef);
+				subMap.put(PSS_COLUMN_KEY, columnSubTree);
 			} else {
-				columnSubTree.put(PSS_NAME_KEY, columnRef);
+				// Nothing is added to a plain column later, so it is built as its AST node
+				subMap.put(PSS_COLUMN_KEY, new ColumnRef((String) columnRef, tableRef));
 			}
-			subMap.put(PSS_COLUMN_KEY, columnSubTree);
 
 			// Capture SymbolTable entry
 			collectSymbolTableItem(tableRefKey, columnRef, ctx.getStart());
 		}
-		showTrace(parseTrace, "Column Reference: " + subMap);
+		showTrace(parseTrace, "Column Reference: ", subMap);
 	}
 
 /*
@@ -2956,7 +3049,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitPredicand_primary(@NotNull SQLSelectParserParser.Predicand_primaryContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
@@ -2975,17 +3068,17 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitParenthesized_value_expression(
 			@NotNull SQLSelectParserParser.Parenthesized_value_expressionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
 			Map<String, Object> item = (Map<String, Object>) subMap.remove("1");
 			subMap.put(PSS_PARENTHESES_KEY, item);
-			showTrace(parseTrace, "Parenthesed Clause: " + subMap);
+			showTrace(parseTrace, "Parenthesed Clause: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -3005,7 +3098,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitCount_all_aggregate(@NotNull SQLSelectParserParser.Count_all_aggregateContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
@@ -3017,16 +3110,16 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			item.put(PSS_PARAMETERS_KEY, "*");
 			subMap.put(PSS_FUNCTION_KEY, item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
-		showTrace(parseTrace, "Aggregate Function: " + subMap);
+		showTrace(parseTrace, "Aggregate Function: ", subMap);
 	}
 
 	// Part of the <aggregate_function> rule
 	@Override
 	public void exitGeneral_set_function(@NotNull SQLSelectParserParser.General_set_functionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
@@ -3050,9 +3143,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			item.put(PSS_PARAMETERS_KEY, subMap.remove("3"));
 			subMap.put(PSS_FUNCTION_KEY, item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
-		showTrace(parseTrace, "Aggregate Function: " + subMap);
+		showTrace(parseTrace, "Aggregate Function: ", subMap);
 	}
 
 	// set_function_type does NOT need its own exit method
@@ -3071,8 +3164,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3087,13 +3180,13 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				subMap.putAll((Map<String, Object>) subMap.remove("2"));
 				subMap.putAll((Map<String, Object>) subMap.remove("3"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 
 			Map<String, Object> item = new HashMap<String, Object>();
 			item.put(PSS_CASE_KEY, subMap);
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case: " + item);
+			showTrace(parseTrace, "Case: ", item);
 
 		}
 
@@ -3102,8 +3195,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3111,10 +3204,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (subMap.size() >= 1) {
 				item.put(PSS_CLAUSES_KEY, subMap);
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case Variation 2, Without Item: When Clause List: " + item);
+			showTrace(parseTrace, "Case Variation 2, Without Item: When Clause List: ", item);
 		}
 
 		@Override
@@ -3122,8 +3215,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3132,10 +3225,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				item.put(PSS_WHEN_KEY, subMap.remove("1"));
 				item.put(PSS_THEN_KEY, subMap.remove("2"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case Variation 2, Without Item: Case When Clause: " + item);
+			showTrace(parseTrace, "Case Variation 2, Without Item: Case When Clause: ", item);
 
 		}
 
@@ -3144,8 +3237,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3153,10 +3246,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (subMap.size() >= 1) {
 				item.put(PSS_CLAUSES_KEY, subMap);
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case Variation 1, With Item: When Value List: " + item);
+			showTrace(parseTrace, "Case Variation 1, With Item: When Value List: ", item);
 		}
 
 		@Override
@@ -3164,8 +3257,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3174,10 +3267,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				item.put(PSS_WHEN_KEY, subMap.remove("1"));
 				item.put(PSS_THEN_KEY, subMap.remove("2"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Case Variation 1, With Item: When Value Clause: " + item);
+			showTrace(parseTrace, "Case Variation 1, With Item: When Value Clause: ", item);
 
 		}
 
@@ -3186,8 +3279,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3195,10 +3288,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (subMap.size() == 1) {
 				item.put(PSS_ELSE_KEY, subMap.remove("1"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			addToParent(parentRuleIndex, parentStackLevel, item);
-			showTrace(parseTrace, "Else Clause: " + item);
+			showTrace(parseTrace, "Else Clause: ", item);
 
 		}
 
@@ -3223,7 +3316,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		@Override
 		public void exitCast_function_expression(@NotNull SQLSelectParserParser.Cast_function_expressionContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
@@ -3238,9 +3331,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				item.put(PSS_DATATYPE_KEY, subMap.remove("3"));
 				subMap.put(PSS_FUNCTION_KEY, item);
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + subMap);
+				showTrace(parseTrace, "Wrong number of entries: ", subMap);
 			}
-			showTrace(parseTrace, "CAST Function: " + subMap);
+			showTrace(parseTrace, "CAST Function: ", subMap);
 		}
 
 		@Override
@@ -3253,7 +3346,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		@Override
 		public void exitVariable_size_data_type(@NotNull SQLSelectParserParser.Variable_size_data_typeContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
@@ -3268,9 +3361,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (subMap.size() == 2) {
 				subMap.putAll((Map<String, Object>)  subMap.remove("2"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
-			showTrace(parseTrace, "Variable Data Type: " + subMap);
+			showTrace(parseTrace, "Variable Data Type: ", subMap);
 		}
 
 
@@ -3279,8 +3372,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3288,16 +3381,16 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.remove("Type");
 			
 			if (ctx.getChildCount() == 1) {
-				showTrace(parseTrace, "one word data type: " + ctx.getText());
+				showTrace(parseTrace, "one word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				subMap.put("1", part);
 			} else if (ctx.getChildCount() == 2) {
-				showTrace(parseTrace, "two word data type: " + ctx.getText());
+				showTrace(parseTrace, "two word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				subMap.put("1", part);
 			} else if (ctx.getChildCount() == 3) {
-				showTrace(parseTrace, "three word data type: " + ctx.getText());
+				showTrace(parseTrace, "three word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				part = part + " " + ctx.getChild(2).getText().toUpperCase();
@@ -3306,7 +3399,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// Add item to parent map
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
 
-			showTrace(parseTrace, "Variable Data Type Name: " + subMap);
+			showTrace(parseTrace, "Variable Data Type Name: ", subMap);
 		}
 
 		@Override
@@ -3314,8 +3407,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3325,19 +3418,19 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 			subMap.remove("Type");
 			if (ctx.getChildCount() == 3) {
-				showTrace(parseTrace, "Three entries: " + ctx.getText());
+				showTrace(parseTrace, "Three entries: ", ctx);
 				subMap.put(PSS_LENGTH_KEY, ctx.getChild(1).getText());
 			}
 			// Add item to parent map
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "Data Type Length: " + subMap);
+			showTrace(parseTrace, "Data Type Length: ", subMap);
 		}
 
 
 		@Override
 		public void exitPrecision_scale_data_type(@NotNull SQLSelectParserParser.Precision_scale_data_typeContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
@@ -3352,9 +3445,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (subMap.size() == 2) {
 				subMap.putAll((Map<String, Object>)  subMap.remove("2"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
-			showTrace(parseTrace, "Precision Data Type: " + subMap);
+			showTrace(parseTrace, "Precision Data Type: ", subMap);
 		}
 
 
@@ -3363,8 +3456,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3372,11 +3465,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.remove("Type");
 			
 			if (ctx.getChildCount() == 1) {
-				showTrace(parseTrace, "one word data type: " + ctx.getText());
+				showTrace(parseTrace, "one word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				subMap.put("1", part);
 			} else if (ctx.getChildCount() == 2) {
-				showTrace(parseTrace, "two word data type: " + ctx.getText());
+				showTrace(parseTrace, "two word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				subMap.put("1", part);
@@ -3384,7 +3477,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// Add item to parent map
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
 
-			showTrace(parseTrace, "Precision Data Type Name: " + subMap);
+			showTrace(parseTrace, "Precision Data Type Name: ", subMap);
 		}
 
 		@Override
@@ -3392,31 +3485,31 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			subMap = makeRuleMap(ruleIndex);
 			subMap.remove("Type");
 			
 			if (ctx.getChildCount() == 3) {
-				showTrace(parseTrace, "Three entries: " + ctx.getText());
+				showTrace(parseTrace, "Three entries: ", ctx);
 				subMap.put(PSS_PRECISION_KEY, ctx.getChild(1).getText());
 			} else if (ctx.getChildCount() == 5) {
-				showTrace(parseTrace, "Three entries: " + ctx.getText());
+				showTrace(parseTrace, "Three entries: ", ctx);
 				subMap.put(PSS_PRECISION_KEY, ctx.getChild(1).getText());
 				subMap.put(PSS_SCALE_KEY, ctx.getChild(3).getText());
 			} 
 			// Add item to parent map
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "Precision Param: " + subMap);
+			showTrace(parseTrace, "Precision Param: ", subMap);
 		}
 
 
 		@Override
 		public void exitStatic_data_type(@NotNull SQLSelectParserParser.Static_data_typeContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
@@ -3427,9 +3520,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				else
 					subMap.put(PSS_TYPE_KEY, ((HashMap<String, String>) item).get("1"));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
-			showTrace(parseTrace, "Static Data Type: " + subMap);
+			showTrace(parseTrace, "Static Data Type: ", subMap);
 		}
 
 		@Override
@@ -3437,8 +3530,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3446,22 +3539,22 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.remove("Type");
 			
 			if (ctx.getChildCount() == 1) {
-				showTrace(parseTrace, "one word data type: " + ctx.getText());
+				showTrace(parseTrace, "one word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				subMap.put("1", part);
 			} else if (ctx.getChildCount() == 2) {
-				showTrace(parseTrace, "two word data type: " + ctx.getText());
+				showTrace(parseTrace, "two word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				subMap.put("1", part);
 			} else if (ctx.getChildCount() == 3) {
-				showTrace(parseTrace, "three word data type: " + ctx.getText());
+				showTrace(parseTrace, "three word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				part = part + " " + ctx.getChild(2).getText().toUpperCase();
 				subMap.put("1", part);
 			} else if (ctx.getChildCount() == 4) {
-				showTrace(parseTrace, "four word data type: " + ctx.getText());
+				showTrace(parseTrace, "four word data type: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				part = part + " " + ctx.getChild(2).getText().toUpperCase();
@@ -3470,7 +3563,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 			// Add item to parent map
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "Static Data Type: " + subMap);
+			showTrace(parseTrace, "Static Data Type: ", subMap);
 		}
 
 		/*
@@ -3491,20 +3584,20 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
 			if (subMap.size() == 2) {
-				showTrace(parseTrace, "Window Over Partition: " + subMap);
+				showTrace(parseTrace, "Window Over Partition: ", subMap);
 				Map<String, Object> item = new HashMap<String, Object>();
 				item.putAll((Map<String, Object>) subMap.remove("1"));
 				item.putAll((Map<String, Object>) subMap.remove("2"));
 				subMap.put(PSS_WINDOW_FUNCTION_KEY, item);
 			} else {
-				showTrace(parseTrace, "Incorrect number of entries: " + subMap);
+				showTrace(parseTrace, "Incorrect number of entries: ", subMap);
 			}
 		}
 
@@ -3514,8 +3607,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3531,7 +3624,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				type = hold.remove("Type");
 				item.put(PSS_PARAMETERS_KEY, hold.remove(type.toString()));
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + ctx.getText());
+				showTrace(parseTrace, "Wrong number of entries: ", ctx);
 			}
 			
 			item.put(PSS_FUNCTION_NAME_KEY, functType);
@@ -3546,7 +3639,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.put(PSS_FUNCTION_KEY, item);
 
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "WINDOW FUNCTION: " + subMap);
+			showTrace(parseTrace, "WINDOW FUNCTION: ", subMap);
 		}
 
 		@SuppressWarnings("unchecked")
@@ -3555,8 +3648,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3577,7 +3670,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				item.putAll((Map<String, Object>) subMap.remove("3"));
 				subMap.put(PSS_OVER_KEY, item);
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + subMap);
+				showTrace(parseTrace, "Wrong number of entries: ", subMap);
 			}
 		}
 
@@ -3587,8 +3680,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
@@ -3600,7 +3693,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				item.put(PSS_PARTITION_BY_KEY, item.remove(type.toString()));
 				addToParent(parentRuleIndex, parentStackLevel, item);
 			} else {
-				showTrace(parseTrace, "Not enough entries: " + subMap);
+				showTrace(parseTrace, "Not enough entries: ", subMap);
 			}
 
 		}
@@ -3612,20 +3705,20 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
 			if (subMap.size() == 2) {
-				showTrace(parseTrace, "Window Over Partition: " + subMap);
+				showTrace(parseTrace, "Window Over Partition: ", subMap);
 				Map<String, Object> item = new HashMap<String, Object>();
 				item.put(PSS_TYPE_KEY, (String) subMap.remove("1"));
 				item.putAll((Map<String, Object>) subMap.remove("2"));
 				subMap.put(PSS_BRACKET_FRAME_KEY, item);
 			} else {
-				showTrace(parseTrace, "Incorrect number of entries: " + subMap);
+				showTrace(parseTrace, "Incorrect number of entries: ", subMap);
 			}
 		}
 
@@ -3643,20 +3736,20 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
 			if (subMap.size() == 2) {
-				showTrace(parseTrace, "Window Over Partition: " + subMap);
+				showTrace(parseTrace, "Window Over Partition: ", subMap);
 				Map<String, Object> item = new HashMap<String, Object>();
 				item.put(PSS_RANGE_BEGIN_KEY,  subMap.remove("1"));
 				item.put(PSS_RANGE_END_KEY,  subMap.remove("2"));
 				subMap.put(PSS_BETWEEN_KEY, item);
 			} else {
-				showTrace(parseTrace, "Incorrect number of entries: " + subMap);
+				showTrace(parseTrace, "Incorrect number of entries: ", subMap);
 			}
 		}
 
@@ -3671,17 +3764,17 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		public void exitPreceding_frame_edge(
 				@NotNull SQLSelectParserParser.Preceding_frame_edgeContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
 			if (subMap.size() == 1) {
 				subMap.put(PSS_VALUE_KEY, (String) subMap.remove("1"));
 				subMap.put(PSS_BRACKET_DIRECTION_KEY, PSS_PRECEDING_KEY);
-				showTrace(parseTrace, "Preceding Edge Clause: " + subMap);
+				showTrace(parseTrace, "Preceding Edge Clause: ", subMap);
 
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + subMap);
+				showTrace(parseTrace, "Wrong number of entries: ", subMap);
 			}
 		}
 
@@ -3689,17 +3782,17 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		public void exitFollowing_frame_edge(
 				@NotNull SQLSelectParserParser.Following_frame_edgeContext ctx) {
 			int ruleIndex = ctx.getRuleIndex();
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			Object type = subMap.remove("Type");
 
 			if (subMap.size() == 1) {
 				subMap.put(PSS_VALUE_KEY, (String) subMap.remove("1"));
 				subMap.put(PSS_BRACKET_DIRECTION_KEY, PSS_FOLLOWING_KEY);
-				showTrace(parseTrace, "Preceding Edge Clause: " + subMap);
+				showTrace(parseTrace, "Preceding Edge Clause: ", subMap);
 
 			} else {
-				showTrace(parseTrace, "Wrong number of entries: " + subMap);
+				showTrace(parseTrace, "Wrong number of entries: ", subMap);
 			}
 		}
 
@@ -3709,8 +3802,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3718,7 +3811,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.remove("Type");
 			
 			if (ctx.getChildCount() == 2) {
-				showTrace(parseTrace, "two word frame edge: " + ctx.getText());
+				showTrace(parseTrace, "two word frame edge: ", ctx);
 				String part = ctx.getChild(0).getText().toUpperCase();
 				part = part + " " + ctx.getChild(1).getText().toUpperCase();
 				subMap.put(PSS_VALUE_KEY, part);
@@ -3727,7 +3820,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 			// Add item to parent map
 			addToParent(parentRuleIndex, parentStackLevel, subMap);
-			showTrace(parseTrace, "Static Data Type: " + subMap);
+			showTrace(parseTrace, "Static Data Type: ", subMap);
 		}
 
 		// item_select_function does NOT need its own exit method
@@ -3737,8 +3830,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3759,8 +3852,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			int ruleIndex = ctx.getRuleIndex();
 			int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3788,8 +3881,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3801,13 +3894,13 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		subMap.remove("Type");
 		if (ctx.getChildCount() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + ctx.getText());
+			showTrace(parseTrace, "Just One Identifier: ", ctx);
 			item.put(PSS_NAME_KEY, ctx.getChild(0).getText());
 			subMap.put(PSS_SUBSTITUTION_KEY, item);
 		}
 		// Add item to parent map
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "Substitution Variable: " + subMap);
+		showTrace(parseTrace, "Substitution Variable: ", subMap);
 	}
 
 	@Override
@@ -3815,8 +3908,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -3829,7 +3922,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		subMap.remove("Type");
 		if (ctx.getChildCount() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + ctx.getText());
+			showTrace(parseTrace, "Just One Identifier: ", ctx);
 			String variable_name = ctx.getChild(0).getText();
 			item.put(PSS_NAME_KEY, variable_name);
 			item.put(PSS_PARTS_KEY, subItem);
@@ -3860,7 +3953,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 		// Add item to parent map
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
-		showTrace(parseTrace, "Substitution Variable: " + subMap);
+		showTrace(parseTrace, "Substitution Variable: ", subMap);
 	}
 
 	@Override
@@ -3893,8 +3986,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 		if (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_over_clause) {
 
-			Integer stackLevel = currentStackLevel(ruleIndex);
-			Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
+			int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 			Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 			// Part of a window function
@@ -3914,23 +4007,23 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 //		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 2) {
-			showTrace(parseTrace, "Limit only: " + subMap);
+			showTrace(parseTrace, "Limit only: ", subMap);
 
 			Map<String, Object> left = (Map<String, Object>) subMap.remove("1");
 			subMap.putAll(left);
 
-			showTrace(parseTrace, "Limit only: " + subMap);
+			showTrace(parseTrace, "Limit only: ", subMap);
 			handlePushDown(ruleIndex);
 			
 		} else if (subMap.size() == 3) {
-			showTrace(parseTrace, "Limit AND OFFSET: " + subMap);
+			showTrace(parseTrace, "Limit AND OFFSET: ", subMap);
 
 			Map<String, Object> limit = (Map<String, Object>) subMap.remove("1");
 
@@ -3939,11 +4032,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			subMap.put(PSS_OFFSET_KEY, offset);
 			subMap.putAll(limit);
 
-			showTrace(parseTrace, "LIMIT AND OFFSET: " + subMap);
+			showTrace(parseTrace, "LIMIT AND OFFSET: ", subMap);
 			handlePushDown(ruleIndex);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -3953,8 +4046,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 
@@ -3981,30 +4074,30 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitNegative_predicate(@NotNull SQLSelectParserParser.Negative_predicateContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Not negated predicate: " + subMap);
+			showTrace(parseTrace, "Not negated predicate: ", subMap);
 
 			Map<String, Object> left = (Map<String, Object>) subMap.remove("1");
 			subMap.putAll(left);
 
-			showTrace(parseTrace, "Negated predicate: " + subMap);
+			showTrace(parseTrace, "Negated predicate: ", subMap);
 
 		} else if (subMap.size() == 2) {
-			showTrace(parseTrace, "Negated predicate: " + subMap);
+			showTrace(parseTrace, "Negated predicate: ", subMap);
 
 			String negation = (String) subMap.remove("1");
 
 			Map<String, Object> left = (Map<String, Object>) subMap.remove("2");
 			subMap.put(negation, left);
 
-			showTrace(parseTrace, "Negated predicate: " + subMap);
+			showTrace(parseTrace, "Negated predicate: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4014,14 +4107,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		// {condition={left={substitution={name=<subject code>,
 		// type=predicand}}, operator=is true}}
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
 			Map<String, Object> left = (Map<String, Object>) subMap.remove("1");
 			subMap.putAll(left);
-			showTrace(parseTrace, "Clause: " + subMap);
+			showTrace(parseTrace, "Clause: ", subMap);
 		} else if (subMap.size() == 2) {
 			// TODO: Grammar peculiarity results in Substitution Variable
 			// mislabelled as a condition when it should be a predicand.
@@ -4038,10 +4131,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 			item = (Map<String, Object>) subMap.remove("2");
 			subMap.putAll(item);
-			showTrace(parseTrace, "Clause: " + subMap);
+			showTrace(parseTrace, "Clause: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4051,7 +4144,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
@@ -4061,9 +4154,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// If the clause remaining is an embedded Condition Substitution
 			// Variable, this captures and labels it
 			subMap = checkForSubstitutionVariable(subMap, PSS_CONDITION_KEY);
-			showTrace(parseTrace, "Clause: " + subMap);
+			showTrace(parseTrace, "Clause: ", subMap);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4071,12 +4164,12 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitNull_predicate(@NotNull SQLSelectParserParser.Null_predicateContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 2) {
-			showTrace(parseTrace, "Comparison: " + subMap);
+			showTrace(parseTrace, "Comparison: ", subMap);
 			Map<String, Object> condition = new HashMap<String, Object>();
 			Map<String, Object> left = (Map<String, Object>) subMap.remove("1");
 			condition.put(PSS_LEFT_FACTOR_KEY, left);
@@ -4084,10 +4177,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			condition.putAll((Map<String, Object>) subMap.remove("2"));
 
 			subMap.put(PSS_CONDITION_KEY, condition);
-			showTrace(parseTrace, "IS NULL Clause: " + subMap);
+			showTrace(parseTrace, "IS NULL Clause: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4096,8 +4189,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -4121,8 +4214,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -4143,17 +4236,17 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitParen_clause(@NotNull SQLSelectParserParser.Paren_clauseContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
 			Map<String, Object> item = (Map<String, Object>) subMap.remove("1");
 			subMap.put(PSS_PARENTHESES_KEY, item);
-			showTrace(parseTrace, "Parenthesed Clause: " + subMap);
+			showTrace(parseTrace, "Parenthesed Clause: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4161,12 +4254,12 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitComparison_predicate(@NotNull SQLSelectParserParser.Comparison_predicateContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 3) {
-			showTrace(parseTrace, "Comparison: " + subMap);
+			showTrace(parseTrace, "Comparison: ", subMap);
 			Map<String, Object> condition = new HashMap<String, Object>();
 
 			Object operator = subMap.remove("2");
@@ -4184,10 +4277,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			condition.put(PSS_RIGHT_FACTOR_KEY, right);
 
 			subMap.put(PSS_CONDITION_KEY, condition);
-			showTrace(parseTrace, "Comparison: " + subMap);
+			showTrace(parseTrace, "Comparison: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4195,19 +4288,19 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitComparison_operator(@NotNull SQLSelectParserParser.Comparison_operatorContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Comparison Operator: " + subMap);
+			showTrace(parseTrace, "Comparison Operator: ", subMap);
 		} else if (subMap.size() == 2) {
-			showTrace(parseTrace, "Comparison Operator: " + subMap);
+			showTrace(parseTrace, "Comparison Operator: ", subMap);
 			String notvar = (String) subMap.remove("1");
 			String operator = (String) subMap.remove("2");
 			subMap.put("1", notvar + '_' + operator);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4216,12 +4309,12 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitBetween_predicate(@NotNull SQLSelectParserParser.Between_predicateContext ctx) {
 		// RULE_between_predicate
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() >= 3) {
-			showTrace(parseTrace, "Bewteen: " + subMap);
+			showTrace(parseTrace, "Bewteen: ", subMap);
 			Map<String, Object> condition = new HashMap<String, Object>();
 			condition.put(PSS_ITEM_KEY, subMap.remove("1"));
 			String itemKey = PSS_RANGE_BEGIN_KEY;
@@ -4267,10 +4360,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			}
 
 			subMap.put(PSS_BETWEEN_KEY, condition);
-			showTrace(parseTrace, "Comparison: " + subMap);
+			showTrace(parseTrace, "Comparison: ", subMap);
 
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 	}
 
@@ -4278,28 +4371,28 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitIn_predicate(@NotNull SQLSelectParserParser.In_predicateContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
 		if (subMap.size() == 2) {
-			showTrace(parseTrace, "In predicate: " + subMap);
+			showTrace(parseTrace, "In predicate: ", subMap);
 			subMap.put(PSS_ITEM_KEY, subMap.remove("1"));
 			subMap.put(PSS_IN_LIST_KEY, subMap.remove("2"));
 		} else if (subMap.size() == 3) {
-			showTrace(parseTrace, "In predicate: " + subMap);
+			showTrace(parseTrace, "In predicate: ", subMap);
 			subMap.put(PSS_ITEM_KEY, subMap.remove("1"));
 			subMap.remove("2");
 			subMap.put(PSS_NOT_IN_LIST_KEY, subMap.remove("3"));
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 
 		Map<String, Object> item = new HashMap<String, Object>();
 		item.put(PSS_IN_KEY, subMap);
 
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 		addToParent(parentRuleIndex, parentStackLevel, item);
 	}
 
@@ -4307,24 +4400,24 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitLike_any_predicate(@NotNull SQLSelectParserParser.Like_any_predicateContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 		String type = new String();
 
 		if (subMap.size() == 3) {
-			showTrace(parseTrace, "In predicate: " + subMap);
+			showTrace(parseTrace, "In predicate: ", subMap);
 			subMap.put(PSS_ITEM_KEY, subMap.remove("1"));
 			type = (String) subMap.remove("2");
 			subMap.put(PSS_LIKE_ANY_LIST_KEY, subMap.remove("3"));
 		} else if (subMap.size() == 4) {
-			showTrace(parseTrace, "In predicate: " + subMap);
+			showTrace(parseTrace, "In predicate: ", subMap);
 			subMap.put(PSS_ITEM_KEY, subMap.remove("1"));
 			subMap.remove("2");
 			type = (String) subMap.remove("3");
 			subMap.put(PSS_NOT_LIKE_ANY_LIST_KEY, subMap.remove("4"));
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
 
 		Map<String, Object> item = new HashMap<String, Object>();
@@ -4334,14 +4427,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			item.put(PSS_LIKE_ANY_KEY, subMap);
 
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 		addToParent(parentRuleIndex, parentStackLevel, item);
 	}
 
 	@Override
 	public void exitLike_any_operator(@NotNull SQLSelectParserParser.Like_any_operatorContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 
@@ -4355,7 +4448,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitIn_predicate_value(@NotNull SQLSelectParserParser.In_predicate_valueContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Map<String, Object> reference = checkForSubstitutionVariable((Map<String, Object>) subMap.get("1"), "in_list");
@@ -4367,14 +4460,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitIn_value_list(@NotNull SQLSelectParserParser.In_value_listContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 		Map<String, Object> item = new HashMap<String, Object>();
 		item.put(PSS_LIST_KEY, subMap);
 
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 		addToParent(parentRuleIndex, parentStackLevel, item);
 	}
 	
@@ -4382,7 +4475,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitFactor(@NotNull SQLSelectParserParser.FactorContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 
 		if (subMap.size() == 3) {
@@ -4403,7 +4496,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				subMap.put("1", subMap.remove("2"));
 			}
 		}
-		showTrace(parseTrace, "Factor: " + subMap);
+		showTrace(parseTrace, "Factor: ", subMap);
 		handleOneChild(ruleIndex);
 	}
 	
@@ -4428,7 +4521,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitAdditive_expression(@NotNull SQLSelectParserParser.Additive_expressionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
@@ -4452,7 +4545,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 			subMap = item;
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 		collect(ruleIndex, stackLevel, subMap);
 	}
@@ -4460,7 +4553,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitMultiplicative_expression(@NotNull SQLSelectParserParser.Multiplicative_expressionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
@@ -4484,7 +4577,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 
 			subMap = item;
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 		collect(ruleIndex, stackLevel, subMap);
 	}
@@ -4518,14 +4611,14 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Just One Item: " + subMap);
+			showTrace(parseTrace, "Just One Item: ", subMap);
 			addToParent(parentRuleIndex, parentStackLevel, subMap.remove("1"));
 		}
 	}
@@ -4533,7 +4626,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitTrim_function(@NotNull SQLSelectParserParser.Trim_functionContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
@@ -4544,9 +4637,9 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			item.put(PSS_PARAMETERS_KEY, subMap.remove("2"));
 			subMap.put(PSS_FUNCTION_KEY, item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
-		showTrace(parseTrace, "TRIM Function: " + subMap);
+		showTrace(parseTrace, "TRIM Function: ", subMap);
 	}
 
 	@Override
@@ -4554,8 +4647,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -4573,7 +4666,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 
 		// Add item to parent map
-		showTrace(parseTrace, "Trim Operands: " + item);
+		showTrace(parseTrace, "Trim Operands: ", item);
 		addToParent(parentRuleIndex, parentStackLevel, item);
 	}
 
@@ -4582,8 +4675,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -4596,7 +4689,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		}
 
 		// Add item to parent map
-		showTrace(parseTrace, "Trim Operands: " + item);
+		showTrace(parseTrace, "Trim Operands: ", item);
 		addToParent(parentRuleIndex, parentStackLevel, item);
 	}
 
@@ -4606,8 +4699,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
@@ -4621,33 +4714,33 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			item.put(PSS_PARAMETERS_KEY, subMap.remove(type.toString()));
 			subMap.put(PSS_FUNCTION_KEY, item);
 		} else {
-			showTrace(parseTrace, "Wrong number of entries: " + subMap);
+			showTrace(parseTrace, "Wrong number of entries: ", subMap);
 		}
-		showTrace(parseTrace, "Function: " + subMap);
+		showTrace(parseTrace, "Function: ", subMap);
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
 	}
 
 	@Override
 	public void exitFunction_name(@NotNull SQLSelectParserParser.Function_nameContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 
 		if (subMap.size() == 1) {
-			showTrace(parseTrace, "Just One Identifier: " + subMap);
+			showTrace(parseTrace, "Just One Identifier: ", subMap);
 			String functName = (String) subMap.remove("1");
 			subMap.put(PSS_FUNCTION_NAME_KEY, functName);
-			showTrace(parseTrace, "function_name: " + functName + " Map: " + subMap);
+			showTrace(parseTrace, "function_name: ", functName, " Map: ", subMap);
 		} else if (subMap.size() == 2) {
-			showTrace(parseTrace, "Two entries: " + subMap);
+			showTrace(parseTrace, "Two entries: ", subMap);
 			String schema = (String) subMap.remove("1");
 			subMap.put(PSS_SCHEMA_KEY, schema);
 			String functName = (String) subMap.remove("2");
 			subMap.put(PSS_FUNCTION_NAME_KEY, functName);
-			showTrace(parseTrace, "Schema: " + schema + " function_name: " + functName + " Map: " + subMap);
+			showTrace(parseTrace, "Schema: ", schema, " function_name: ", functName, " Map: ", subMap);
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 	}
 
@@ -4664,7 +4757,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 		if (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_sql_argument_list) {
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			subMap.remove("Type");
 
@@ -4674,15 +4767,15 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			Boolean doNotSkip = true;
 
 			if (subMap.size() == 1) {
-				showTrace(parseTrace, "Just One Identifier: " + subMap);
+				showTrace(parseTrace, "Just One Identifier: ", subMap);
 				// Get first item, record if it is a Substitution Variable by
 				// adding the Substitution List
 				valueExpression = checkForSubstitutionVariable((Map<String, Object>) subMap.remove("1"), "predicand");
 
 				// Get Value Expression entry
-				HashMap<String, Object> node = (HashMap<String, Object>) valueExpression.get(PSS_COLUMN_KEY);
+				Map<String, Object> node = (Map<String, Object>) valueExpression.get(PSS_COLUMN_KEY);
 				if (node == null)
-					node = (HashMap<String, Object>) valueExpression.get(PSS_SUBSTITUTION_KEY);
+					node = (Map<String, Object>) valueExpression.get(PSS_SUBSTITUTION_KEY);
 				if (node != null) {
 					if (node.containsKey(PSS_TABLE_REF_KEY))
 						// Value is associated with a table
@@ -4698,7 +4791,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				}
 
 			} else {
-				showTrace(parseTrace, "Too many entries: " + subMap);
+				showTrace(parseTrace, "Too many entries: ", subMap);
 				doNotSkip = false;
 			}
 			if (doNotSkip) {
@@ -4707,11 +4800,11 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 				// Add column to SQL AST Tree
 				subMap.putAll(valueExpression);
 			}
-			showTrace(parseTrace, "Column Reference: " + subMap);
+			showTrace(parseTrace, "Column Reference: ", subMap);
 		} else if ((parentRuleIndex == (Integer) SQLSelectParserParser.RULE_search_condition)
 				|| (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_parenthesized_value_expression)
 				|| (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_condition_value)) {
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			subMap = (Map<String, Object>) subMap.get("1");
 			// Get first item, record if it is a Substitution Variable by
@@ -4724,7 +4817,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		} else if ((parentRuleIndex == (Integer) SQLSelectParserParser.RULE_case_expression)
 				|| (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_when_value_clause)
 				|| (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_case_result)) {
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			subMap = (Map<String, Object>) subMap.get("1");
 			// Get first item, record if it is a Substitution Variable by
@@ -4737,7 +4830,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		} else if ((parentRuleIndex == (Integer) SQLSelectParserParser.RULE_aggregate_function)
 				|| (parentRuleIndex == (Integer) SQLSelectParserParser.RULE_trim_operands)) {
 			// Trim and Aggregate Function Parameter
-			Integer stackLevel = currentStackLevel(ruleIndex);
+			int stackLevel = currentStackLevel(ruleIndex);
 			Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 			subMap = (Map<String, Object>) subMap.get("1");
 			// Get first item, record if it is a Substitution Variable by
@@ -4778,7 +4871,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitSort_specifier(@NotNull SQLSelectParserParser.Sort_specifierContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		Object type = subMap.remove("Type");
 		HashMap<String, Object> item = new HashMap<String, Object>();
@@ -4798,13 +4891,13 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			if (item2 == null) {
 				item.put(PSS_SORT_ORDER_KEY, "ASC");
 				item.put(PSS_NULL_ORDER_KEY, null);
-				showTrace(parseTrace, "One Entry: " + item);
+				showTrace(parseTrace, "One Entry: ", item);
 			} else if (item3 != null) {
 				item.put(PSS_SORT_ORDER_KEY, item2);
 				Map<String, Object> hold = (Map<String, Object>) item3;
 				type = hold.remove("Type").toString();
 				item.put(PSS_NULL_ORDER_KEY, ((HashMap<String, Object>) hold.get(type)).get("1"));
-				showTrace(parseTrace, "Three entries: " + item);
+				showTrace(parseTrace, "Three entries: ", item);
 
 			} else { // Item 2 is not null and Item 3 is null :- Item 2 could be ASC/DESC or Nulls command
 				if (item2 instanceof Map<?,?>) {
@@ -4813,21 +4906,21 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 					Map<String, Object> hold = (Map<String, Object>) item2;
 					type = hold.remove("Type").toString();
 					item.put(PSS_NULL_ORDER_KEY, ((HashMap<String, Object>) hold.get(type)).get("1"));
-					showTrace(parseTrace, "Two entries: " + item);
+					showTrace(parseTrace, "Two entries: ", item);
 				} else {
 					//item2 is the ASC/DESC value
 					item.put(PSS_SORT_ORDER_KEY, item2);
 					item.put(PSS_NULL_ORDER_KEY, null);
-					showTrace(parseTrace, "Two entries: " + item);
+					showTrace(parseTrace, "Two entries: ", item);
 				}
 			}
 		}
 		else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
 
 		subMap.put("1", item);
-		showTrace(parseTrace, "Sort Item: " + subMap);
+		showTrace(parseTrace, "Sort Item: ", subMap);
 
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 		handleListItem(ruleIndex, parentRuleIndex);
@@ -4874,7 +4967,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	public void exitRow_value_predicand(@NotNull SQLSelectParserParser.Row_value_predicandContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		// Get first item, record if it is a Substitution Variable by
 		// adding the Substitution List
@@ -4893,20 +4986,20 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitUnsigned_literal(@NotNull SQLSelectParserParser.Unsigned_literalContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Map<String, Object> subMap = getNodeMap(ruleIndex, stackLevel);
 		subMap.remove("Type");
 		String[] keys = new String[1];
 		keys = subMap.keySet().toArray(keys);
 
 		if (keys.length == 1) {
-			showTrace(parseTrace, "Just One Entry: " + subMap);
+			showTrace(parseTrace, "Just One Entry: ", subMap);
 			Object item = subMap.remove(keys[0]);
 			subMap.put(PSS_LITERAL_KEY, item);
 		} else {
-			showTrace(parseTrace, "Too many entries: " + subMap);
+			showTrace(parseTrace, "Too many entries: ", subMap);
 		}
-		showTrace(parseTrace, "Unsigned Literal: " + subMap);
+		showTrace(parseTrace, "Unsigned Literal: ", subMap);
 	}
 
 	@Override
@@ -4957,7 +5050,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		item.put(PSS_NULL_LITERAL_KEY, "null");
 
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		addToParent(parentRuleIndex, parentStackLevel, item);
 	}
@@ -4967,8 +5060,8 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		int ruleIndex = ctx.getRuleIndex();
 		int parentRuleIndex = ctx.getParent().getRuleIndex();
 
-		Integer stackLevel = currentStackLevel(ruleIndex);
-		Integer parentStackLevel = currentStackLevel(parentRuleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
+		int parentStackLevel = currentStackLevel(parentRuleIndex);
 
 		Map<String, Object> subMap = removeNodeMap(ruleIndex, stackLevel);
 
@@ -4976,21 +5069,21 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 		subMap.remove("Type");
 		
 		if (ctx.getChildCount() == 1) {
-			showTrace(parseTrace, "one word PUML Constant: " + ctx.getText());
+			showTrace(parseTrace, "one word PUML Constant: ", ctx);
 			String part = ctx.getChild(0).getText().toUpperCase();
 			subMap.put(PSS_PUML_CONSTANT_KEY, part);
 		}
 		// Add item to parent map
 		addToParent(parentRuleIndex, parentStackLevel, subMap);
 
-		showTrace(parseTrace, "PUML CONSTANT IDENTIFIER: " + subMap);
+		showTrace(parseTrace, "PUML CONSTANT IDENTIFIER: ", subMap);
 	}
 
 	
 	@Override
 	public void enterEveryRule(@NotNull ParserRuleContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLvl = pushStack(ruleIndex);
+		int stackLvl = pushStack(ruleIndex);
 
 		if (ctx.getChildCount() == 1)
 			if (ctx.getChild(0) instanceof TerminalNodeImpl) {
@@ -5002,9 +5095,10 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			collectNewRuleMap(ruleIndex, stackLvl);
 		}
 
-		showTrace(parseTrace, "Enter " + makeMapIndex(ruleIndex, stackLvl) + ": "
-				+ SQLSelectParserParser.ruleNames[ruleIndex] + ": " + sqlTree);
-		showTrace(parseTrace, "");
+		if (isTracing(parseTrace)) {
+			showTrace(parseTrace, "Enter ", ruleIndex, "_", stackLvl, ": ", SQLSelectParserParser.ruleNames[ruleIndex], ": ", sqlTreeTrace());
+			showTrace(parseTrace, "");
+		}
 	}
 
 	/**
@@ -5016,7 +5110,7 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	 * @return
 	 */
 	@SuppressWarnings("unchecked")
-	private Map<String, Object> collectNewRuleMap(int ruleIndex, Integer stackLvl) {
+	private Map<String, Object> collectNewRuleMap(int ruleIndex, int stackLvl) {
 		HashMap<String, Object> item = makeRuleMap(ruleIndex);
 		return (Map<String, Object>) collect(ruleIndex, stackLvl, item);
 
@@ -5037,19 +5131,21 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 	@Override
 	public void exitEveryRule(@NotNull ParserRuleContext ctx) {
 		int ruleIndex = ctx.getRuleIndex();
-		Integer stackLevel = currentStackLevel(ruleIndex);
+		int stackLevel = currentStackLevel(ruleIndex);
 		Object item = null;
 
-		Object skip = sqlTree.remove("SKIP");
-		if (skip == null) {
+		boolean skip = skipNode;
+		skipNode = false;
+		if (!skip) {
 			if (useAsLeaf) {
 				item = ctx.getText();
 				removeNode(ruleIndex, stackLevel);
 				useAsLeaf = false;
 			} else if (ctx.getChildCount() == 1)
 				if (ctx.getChild(0) instanceof TerminalNodeImpl) {
-					// I'm a leaf
+					// I'm a leaf, though a parse listener has no children to tell on entry
 					item = ctx.getText();
+					removeNode(ruleIndex, stackLevel);
 				} else
 					item = removeNode(ruleIndex, stackLevel);
 			else
@@ -5058,28 +5154,29 @@ public class SqlParseEventWalker extends SQLSelectParserBaseListener {
 			// Add item to parent map
 			if (ctx.getParent() != null) {
 				int parentNodeIndex = ctx.getParent().getRuleIndex();
-				Integer parentStackIndex = currentStackLevel(parentNodeIndex);
+				int parentStackIndex = currentStackLevel(parentNodeIndex);
 				if (ruleIndex == parentNodeIndex && stackLevel == parentStackIndex) {
 					// oddity - in case it appears my parent is myself
 					collect(ruleIndex, stackLevel, item);
 				} else {
 					Map<String, Object> idMap = getNodeMap(parentNodeIndex, parentStackIndex);
 					if (idMap == null) {
-						showTrace(parseTrace, "EXIT " + makeMapIndex(ruleIndex, stackLevel) + ": "
-								+ SQLSelectParserParser.ruleNames[ruleIndex] + ": Missing pMap");
+						showTrace(parseTrace, "EXIT ", ruleIndex, "_", stackLevel, ": ", SQLSelectParserParser.ruleNames[ruleIndex], ": Missing pMap");
 						showTrace(parseTrace, "");
 					} else
 						idMap.put(((Integer) (idMap.size())).toString(), item);
 				}
 			} else {
-				showTrace(parseTrace, sqlTree);
+				if (isTracing(parseTrace))
+					showTrace(parseTrace, sqlTreeTrace());
 			}
 		}
 
 		popStack(ruleIndex);
-		showTrace(parseTrace, "EXIT " + makeMapIndex(ruleIndex, stackLevel) + ": "
-				+ SQLSelectParserParser.ruleNames[ruleIndex] + ": " + sqlTree);
-		showTrace(parseTrace, "");
+		if (isTracing(parseTrace)) {
+			showTrace(parseTrace, "EXIT ", ruleIndex, "_", stackLevel, ": ", SQLSelectParserParser.ruleNames[ruleIndex], ": ", sqlTreeTrace());
+			showTrace(parseTrace, "");
+		}
 	}
 
 	@Override
@@ -0,0 +1,136 @@
+package sql.walker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+/**
+ * Parse listener that drives a SQL Parse Event Walker while the parser runs, in
+ * place of a second traversal of the finished parse tree. The walker reads the
+ * children of the rule it exits, so the parser still builds the tree, but once a
+ * rule has been walked its children are replaced by a single node holding their
+ * text, which is all the enclosing rules read of it. Live parse tree nodes then
+ * grow with the nesting depth of the query rather than its length.
+ *
+ * The walker is reset when the parser starts the entry rule again, as the two
+ * stage parse does after SLL prediction fails. Once the parse reports a syntax
+ * error the walker is no longer driven. A failure of the walker is held until the
+ * parse ends, since it may only be the walker seeing a rule the parser is
+ * abandoning.
+ */
+public class StreamingWalkListener implements ParseTreeListener {
+
+	private final SqlParseEventWalker walker;
+	private final Parser parser;
+
+	private boolean started = false;
+	private boolean stopped = false;
+	private RuntimeException failure = null;
+
+	/**
+	 * @param walker
+	 *            a walker ready for a new walk
+	 * @param parser
+	 *            the parser the listener is added to
+	 */
+	public StreamingWalkListener(SqlParseEventWalker walker, Parser parser) {
+		this.walker = walker;
+		this.parser = parser;
+	}
+
+	/**
+	 * @return the walker, holding the result of the walk once the parse has ended
+	 *         without syntax errors or a failure
+	 */
+	public SqlParseEventWalker getWalker() {
+		return walker;
+	}
+
+	/**
+	 * @return the exception that stopped the walker, or null if it did not fail or
+	 *         the parse reported syntax errors
+	 */
+	public RuntimeException getFailure() {
+		return parser.getNumberOfSyntaxErrors() == 0 ? failure : null;
+	}
+
+	@Override
+	public void enterEveryRule(ParserRuleContext ctx) {
+		if (ctx.getParent() == null) {
+			// The entry rule, started again after a failed first stage
+			if (started)
+				walker.reset();
+			started = true;
+			stopped = false;
+			failure = null;
+		}
+		if (isStopped(ctx))
+			return;
+		try {
+			walker.enterEveryRule(ctx);
+			ctx.enterRule(walker);
+		} catch (RuntimeException e) {
+			stop(e);
+		}
+	}
+
+	@Override
+	public void exitEveryRule(ParserRuleContext ctx) {
+		if (isStopped(ctx))
+			return;
+		try {
+			ctx.exitRule(walker);
+			walker.exitEveryRule(ctx);
+		} catch (RuntimeException e) {
+			stop(e);
+			return;
+		}
+		release(ctx);
+	}
+
+	@Override
+	public void visitTerminal(TerminalNode node) {
+		if (!stopped)
+			walker.visitTerminal(node);
+	}
+
+	@Override
+	public void visitErrorNode(ErrorNode node) {
+		stopped = true;
+	}
+
+	private boolean isStopped(ParserRuleContext ctx) {
+		if (!stopped && (ctx.exception != null || parser.getNumberOfSyntaxErrors() > 0))
+			stopped = true;
+		return stopped;
+	}
+
+	private void stop(RuntimeException e) {
+		stopped = true;
+		failure = e;
+	}
+
+	/**
+	 * Replace the children of a walked rule with one node holding their text
+	 *
+	 * @param ctx
+	 */
+	private static void release(ParserRuleContext ctx) {
+		if (ctx.children == null || (ctx.getChildCount() == 1 && ctx.getChild(0) instanceof TerminalNode))
+			return;
+		TerminalNodeImpl text = new TerminalNodeImpl(new CommonToken(Token.INVALID_TYPE, ctx.getText()));
+		text.parent = ctx;
+		List<ParseTree> children = new ArrayList<ParseTree>(1);
+		children.add(text);
+		ctx.children = children;
+	}
+}
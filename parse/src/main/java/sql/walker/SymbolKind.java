@@ -0,0 +1,97 @@
+package sql.walker;
+
+import static mumble.sql.MumbleConstants.PSS_INTERSECT_KEY;
+import static mumble.sql.MumbleConstants.PSS_UNION_KEY;
+import static mumble.sql.MumbleConstants.PSS_VALUES_KEY;
+
+/**
+ * The kinds of entry in a scope of the Symbol Table. The SQL Parse Event Walker
+ * tags the entries it names itself, such as the symbols of subqueries and unions,
+ * with their kind when it creates them; every other entry is a table.
+ */
+enum SymbolKind {
+
+	/**
+	 * A table, or a tuple substitution variable, with the columns used from it
+	 */
+	TABLE(null),
+
+	/**
+	 * The interface of a subquery, union, intersection or values clause, named
+	 * with its prefix and the query count
+	 */
+	QUERY("query"),
+	UNION(PSS_UNION_KEY),
+	INTERSECT(PSS_INTERSECT_KEY),
+	VALUES(PSS_VALUES_KEY),
+
+	/**
+	 * The Symbol Table of a subquery, union, intersection or values clause, named
+	 * "def_" and the name of its interface
+	 */
+	QUERY_DEFINITION("def_query"),
+	UNION_DEFINITION("def_" + PSS_UNION_KEY),
+	INTERSECT_DEFINITION("def_" + PSS_INTERSECT_KEY),
+	VALUES_DEFINITION("def_" + PSS_VALUES_KEY),
+
+	/**
+	 * The interface of the query of the scope
+	 */
+	INTERFACE("interface");
+
+	private final String prefix;
+
+	private SymbolKind(String prefix) {
+		this.prefix = prefix;
+	}
+
+	/**
+	 * @return the start of the names of entries of this kind
+	 */
+	String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * @param queryCount
+	 * @return the name of the entry of this kind for that query
+	 */
+	String symbolName(int queryCount) {
+		return prefix + queryCount;
+	}
+
+	/**
+	 * @return the kind of the Symbol Table of a query whose interface is of this kind
+	 */
+	SymbolKind definition() {
+		switch (this) {
+		case QUERY:
+			return QUERY_DEFINITION;
+		case UNION:
+			return UNION_DEFINITION;
+		case INTERSECT:
+			return INTERSECT_DEFINITION;
+		case VALUES:
+			return VALUES_DEFINITION;
+		default:
+			throw new IllegalStateException(this + " has no definition");
+		}
+	}
+
+	/**
+	 * @return true for the interface of a subquery, union, intersection or values
+	 *         clause
+	 */
+	boolean isQuery() {
+		return this == QUERY || this == UNION || this == INTERSECT || this == VALUES;
+	}
+
+	/**
+	 * @return true for the Symbol Table of a subquery, union, intersection or values
+	 *         clause, or the interface of the scope
+	 */
+	boolean isDefinition() {
+		return this == QUERY_DEFINITION || this == UNION_DEFINITION || this == INTERSECT_DEFINITION
+				|| this == VALUES_DEFINITION || this == INTERFACE;
+	}
+}
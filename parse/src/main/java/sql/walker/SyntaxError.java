@@ -1,35 +1,48 @@
 package sql.walker;
 
+import java.util.BitSet;
+
+import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.IntervalSet;
 
+/**
+ * Position, offending token and expected tokens of a syntax error. Everything is
+ * copied out when the error is reported, so the error keeps neither the parser, the
+ * token nor the exception, and does not hold on to the query's tokens.
+ */
 public class SyntaxError
 {
-    private final Recognizer<?, ?> recognizer;
-    private final Object offendingSymbol;
     private final int line;
     private final int charPositionInLine;
     private final String message;
-    private final RecognitionException e;
+    private final int tokenIndex;
+    private final int tokenType;
+    private final String tokenText;
+    private final BitSet expectedTokens;
 
     public SyntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e)
     {
-        this.recognizer = recognizer;
-        this.offendingSymbol = offendingSymbol;
         this.line = line;
         this.charPositionInLine = charPositionInLine;
         this.message = msg;
-        this.e = e;
-    }
-
-    public Recognizer<?, ?> getRecognizer()
-    {
-        return recognizer;
-    }
-
-    public Object getOffendingSymbol()
-    {
-        return offendingSymbol;
+        if (offendingSymbol instanceof Token)
+        {
+            Token token = (Token) offendingSymbol;
+            this.tokenIndex = token.getTokenIndex();
+            this.tokenType = token.getType();
+            this.tokenText = token.getText();
+        }
+        else
+        {
+            this.tokenIndex = -1;
+            this.tokenType = Token.INVALID_TYPE;
+            this.tokenText = null;
+        }
+        this.expectedTokens = expectedTokens(recognizer, e);
     }
 
     public int getLine()
@@ -47,14 +60,71 @@ public class SyntaxError
         return message;
     }
 
-    public RecognitionException getException()
+    /**
+     * @return index of the offending token, or -1 if there was none
+     */
+    public int getTokenIndex()
+    {
+        return tokenIndex;
+    }
+
+    /**
+     * @return type of the offending token, or Token.INVALID_TYPE if there was none
+     */
+    public int getTokenType()
+    {
+        return tokenType;
+    }
+
+    /**
+     * @return text of the offending token, or null if there was none
+     */
+    public String getTokenText()
+    {
+        return tokenText;
+    }
+
+    /**
+     * @return the token types the parser could have accepted instead, with end of
+     *         file as bit 0, which no token type uses; empty if not known
+     */
+    public BitSet getExpectedTokens()
+    {
+        return (BitSet) expectedTokens.clone();
+    }
+
+    /**
+     * @param tokenType
+     * @return true if the parser could have accepted the token type instead
+     */
+    public boolean isExpected(int tokenType)
     {
-        return e;
+        return expectedTokens.get(tokenType == Token.EOF ? 0 : tokenType);
     }
-    
+
     public String toString()
     {
 		return "Line: " + line + " Character: " + charPositionInLine + " Error: " + message;
-    	
+
+    }
+
+    private static BitSet expectedTokens(Recognizer<?, ?> recognizer, RecognitionException e)
+    {
+        BitSet bits = new BitSet();
+        IntervalSet expected = null;
+        if (e instanceof ParseBudgetExceededException)
+            return bits;
+        if (e != null && e.getRecognizer() != null)
+            expected = e.getExpectedTokens();
+        else if (recognizer instanceof Parser)
+            expected = ((Parser) recognizer).getExpectedTokens();
+        if (expected == null)
+            return bits;
+        for (Interval interval : expected.getIntervals())
+        {
+            for (int type = interval.a; type <= interval.b; type++)
+                bits.set(type == Token.EOF ? 0 : type);
+        }
+        return bits;
     }
-}
\ No newline at end of file
+}
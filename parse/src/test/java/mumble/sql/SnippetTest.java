@@ -48,6 +48,47 @@ public class SnippetTest {
 				hold.getSymbolTable().toString());
 	}
 
+	@Test
+	public void lazyPartsTest() {
+		final String query = " SELECT a.x FROM third a join fourth b on a.y = b.y ";
+
+		final SQLSelectParserParser parser = parse(query);
+		SqlParseEventWalker extractor = runParsertest(query, parser);
+		Snippet hold = extractor.getSnippet();
+
+		Assert.assertFalse("Snippet is built too soon", hold.isMaterialized());
+		Assert.assertEquals("Table Dictionary is wrong", "[third, fourth]",
+				hold.getTableDictionary().keySet().toString());
+		Assert.assertFalse("Table Dictionary built the Snippet", hold.isMaterialized());
+
+		// The walker lets go of its results, so the Snippet is still built from them
+		extractor.reset();
+		Assert.assertEquals("Interface is wrong", "[x]",
+				hold.getQueryInterface().toString());
+		Assert.assertTrue("Snippet is not built", hold.isMaterialized());
+		Assert.assertEquals("AST is wrong", "{SQL={select={1={column={name=x, table_ref=a}}}, from={join={1={table={alias=a, table=third}}, 2={join=join, on={condition={left={column={name=y, table_ref=a}}, right={column={name=y, table_ref=b}}, operator==}}}, 3={table={alias=b, table=fourth}}}}}}",
+				hold.getSqlAbstractTree().toString());
+	}
+
+	@Test
+	public void skipTableDictionaryTest() {
+		final String query = " SELECT a.* FROM third a join fourth b on <OnJoinCondition> ";
+
+		final SQLSelectParserParser parser = parse(query);
+		SqlContext tree = parser.sql();
+		SqlParseEventWalker extractor = new SqlParseEventWalker();
+		extractor.setBuildTableDictionary(false);
+		ParseTreeWalker.DEFAULT.walk(extractor, tree);
+		Snippet hold = extractor.getSnippet();
+
+		Assert.assertEquals("Table Dictionary is wrong", "{}",
+				hold.getTableDictionary().toString());
+		Assert.assertEquals("Symbol Table is wrong", "[query0]",
+				hold.getSymbolTable().keySet().toString());
+		Assert.assertEquals("Interface is wrong", "[*]",
+				hold.getQueryInterface().toString());
+	}
+
 
 	/**
 	 * Run test of the parser from a query
@@ -0,0 +1,69 @@
+package mumble.sql;
+
+import java.util.Map;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.junit.Assert;
+import org.junit.Test;
+
+import sql.SQLSelectParserLexer;
+import sql.walker.SQLSelectEntryRule;
+import sql.walker.SQLSelectParserFactory;
+import sql.walker.SnippetParseResult;
+
+public class TokenPositionTest {
+
+	@Test
+	public void rendersLikeTokenTest() {
+		// This test confirms that positions render every token of a query, EOF included, as ANTLR does
+		final String query = "SELECT a.apple,\n 'x\ty' FROM tab1 a\r\nwhere b = 1";
+
+		SQLSelectParserLexer lexer = new SQLSelectParserLexer(new ANTLRInputStream(query));
+		Token token;
+		do {
+			token = lexer.nextToken();
+			TokenPosition position = TokenPosition.of(token, token.getText());
+			Assert.assertEquals("Position is wrong", token.toString(), position.toString());
+			Assert.assertEquals("Type is wrong", token.getType(), position.getType());
+		} while (token.getType() != Token.EOF);
+	}
+
+	@Test
+	public void channelAndMissingTextTest() {
+		CommonToken token = new CommonToken(327, null);
+		token.setChannel(2);
+		token.setTokenIndex(4);
+		token.setLine(3);
+		token.setCharPositionInLine(9);
+		TokenPosition position = TokenPosition.of(token, null);
+
+		Assert.assertEquals("Position is wrong", token.toString(), position.toString());
+		Assert.assertEquals("Channel is wrong", 2, position.getChannel());
+		Assert.assertEquals("Positions are not equal", position, TokenPosition.of(token, null));
+	}
+
+	@Test
+	public void symbolTableSharesNamesTest() {
+		final String query = "SELECT apple, tab1.pear FROM tab1";
+
+		SnippetParseResult result = new SQLSelectParserFactory().parseSnippet(query, SQLSelectEntryRule.SQL, null,
+				null);
+		Snippet snippet = result.getSnippet();
+
+		Assert.assertEquals("Table Dictionary is wrong",
+				"{tab1={apple=[@1,7:11='apple',<327>,1:7], pear=[@3,14:17='tab1',<327>,1:14]}}",
+				snippet.getTableDictionary().toString());
+		@SuppressWarnings("unchecked")
+		Map<String, Object> columns = (Map<String, Object>) snippet.getTableDictionary().get("tab1");
+		for (Map.Entry<String, Object> column : columns.entrySet()) {
+			TokenPosition position = (TokenPosition) column.getValue();
+			if (position.getText().equals(column.getKey()))
+				Assert.assertSame("Column name is not shared", column.getKey(), position.getText());
+		}
+		Assert.assertEquals("Line is wrong", 1, ((TokenPosition) columns.get("pear")).getLine());
+		Assert.assertEquals("Column is wrong", 14, ((TokenPosition) columns.get("pear")).getCharPositionInLine());
+	}
+
+}
@@ -0,0 +1,202 @@
+package mumble.sql.ast;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import mumble.sql.Snippet;
+import sql.SQLSelectParserParser;
+import sql.walker.SQLSelectParserFactory;
+import sql.walker.SqlParseEventWalker;
+
+public class AstBuilderTest {
+
+	@Test
+	public void typedNodesTest() {
+		final String query = "SELECT a.x, count(*) cnt, 'y' lit FROM tab1 a left join tab2 b on a.id = b.id WHERE a.y > 1";
+
+		SqlParseEventWalker extractor = walk(query);
+		Snippet snippet = extractor.getSnippet();
+		AstNode tree = snippet.getAbstractTree();
+
+		Assert.assertEquals("AST is wrong", extractor.getSqlTree().toString(), tree.toString());
+		Assert.assertEquals("AST is not equal to its map", extractor.getSqlTree(), tree);
+		Assert.assertEquals("AST hash is wrong", extractor.getSqlTree().hashCode(), tree.hashCode());
+		Assert.assertEquals("Map view is wrong", extractor.getSqlTree().toString(),
+				snippet.getSqlAbstractTree().toString());
+
+		Query select = (Query) tree.get("SQL");
+		AstList items = (AstList) select.getSelect();
+		Assert.assertEquals("Select list length is wrong", 3, items.length());
+		ColumnRef column = (ColumnRef) ((AstEntry) items.getItem(1)).getValue();
+		Assert.assertEquals("Column name is wrong", "x", column.getName());
+		Assert.assertEquals("Column table is wrong", "a", column.getTableRef());
+		Assert.assertTrue("Literal is not typed", items.getItem(3) instanceof Literal);
+		Assert.assertEquals("Literal alias is wrong", "lit", ((Literal) items.getItem(3)).getAlias());
+
+		AstList from = (AstList) ((AstEntry) select.getFrom()).getValue();
+		Assert.assertEquals("Table is wrong", "tab1", ((TableRef) ((AstEntry) from.getItem(1)).getValue()).getTable());
+		Join join = (Join) from.getItem(2);
+		Assert.assertEquals("Join type is wrong", "left", join.getType());
+		Assert.assertTrue("Join condition is not typed", ((Condition) join.getOn()).getCondition() instanceof Calc);
+
+		Calc where = (Calc) ((Condition) select.getWhere()).getCondition();
+		Assert.assertEquals("Operator is wrong", ">", where.getOperator());
+		Assert.assertFalse("Comparison is not binary", where.isUnary());
+	}
+
+	@Test
+	public void longListOrderTest() {
+		// Lists of more than twelve items outgrow the default HashMap capacity
+		StringBuilder query = new StringBuilder("SELECT c1");
+		for (int i = 2; i <= 30; i++)
+			query.append(", c").append(i);
+		query.append(" FROM tab1 where c1 in (1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14)");
+
+		SqlParseEventWalker extractor = walk(query.toString());
+		Snippet snippet = extractor.getSnippet();
+		AstNode tree = snippet.getAbstractTree();
+
+		Assert.assertEquals("AST is not equal to its map", extractor.getSqlTree(), tree);
+		Assert.assertEquals("Map view is wrong", tree.toString(), snippet.getSqlAbstractTree().toString());
+		AstList items = (AstList) ((Query) tree.get("SQL")).getSelect();
+		Assert.assertEquals("Item is wrong", "c13", ((ColumnRef) ((AstEntry) items.get("13")).getValue()).getName());
+		for (int index = 0; index < items.size(); index++)
+			Assert.assertEquals("Items should iterate in list order", Integer.toString(index + 1), items.keyAt(index));
+	}
+
+	@Test
+	public void typedOrderTest() {
+		// A typed node iterates in its own order, whatever the order of its map
+		HashMap<String, Object> column = new HashMap<String, Object>(64);
+		column.put("table_ref", "a");
+		column.put("name", "x");
+		HashMap<String, Object> tree = new HashMap<String, Object>();
+		tree.put("column", column);
+
+		AstNode node = new AstBuilder().build(tree);
+		Assert.assertTrue("Column is not typed", node.get("column") instanceof ColumnRef);
+		Assert.assertEquals("AST is wrong", "{column={name=x, table_ref=a}}", node.toString());
+		Assert.assertEquals("AST is not equal to its map", tree, node);
+	}
+
+	@Test
+	public void untypedOrderTest() {
+		// A node of no known shape keeps the order of its map
+		Map<String, Object> tree = new LinkedHashMap<String, Object>();
+		tree.put("right", "b");
+		tree.put("left", "a");
+		tree.put("extra", null);
+
+		AstNode node = new AstBuilder().build(tree);
+		Assert.assertTrue("Node should be generic", node instanceof GenericNode);
+		Assert.assertEquals("AST is wrong", tree.toString(), node.toString());
+	}
+
+	@Test
+	public void sharedInterfaceTest() {
+		final String query = "SELECT a, b FROM tab1";
+
+		SqlParseEventWalker extractor = walk(query);
+		Snippet snippet = extractor.getSnippet();
+
+		AstList items = (AstList) ((Query) snippet.getAbstractTree().get("SQL")).getSelect();
+		@SuppressWarnings("unchecked")
+		Map<String, Object> symbols = (Map<String, Object>) snippet.getSymbolTable().get("query0");
+		@SuppressWarnings("unchecked")
+		Map<String, Object> queryInterface = (Map<String, Object>) symbols.get("interface");
+		@SuppressWarnings("unchecked")
+		Map<String, Object> reference = (Map<String, Object>) queryInterface.get("a");
+		Assert.assertTrue("Interface column is not typed", reference.get("column") instanceof ColumnRef);
+		Assert.assertSame("Interface does not share the column", ((AstEntry) items.get("1")).getValue(),
+				reference.get("column"));
+		Assert.assertEquals("Interface is wrong", "[a, b]", snippet.getQueryInterface().toString());
+	}
+
+	@Test
+	public void fingerprintTest() {
+		Snippet first = walk("SELECT a.x, b.y FROM tab1 a join tab2 b on a.id = b.id WHERE a.z = 1").getSnippet();
+		Snippet same = walk("SELECT a.x,\n  b.y FROM tab1 a join tab2 b\n  on a.id=b.id WHERE a.z = 1").getSnippet();
+		Snippet other = walk("SELECT a.x, b.y FROM tab1 a join tab2 b on a.id = b.id WHERE a.z = 2").getSnippet();
+
+		Assert.assertEquals("Equal ASTs should have equal fingerprints", first.getFingerprint(), same.getFingerprint());
+		Assert.assertNotEquals("Different ASTs should have different fingerprints", first.getFingerprint(),
+				other.getFingerprint());
+		Assert.assertNotEquals("Different ASTs should not be equal", first.getAbstractTree(), other.getAbstractTree());
+
+		// Subtrees compare the same way, whichever queries they came from
+		AstNode firstJoin = (AstNode) ((Query) first.getAbstractTree().get("SQL")).getFrom();
+		AstNode otherJoin = (AstNode) ((Query) other.getAbstractTree().get("SQL")).getFrom();
+		Assert.assertEquals("Equal subtrees should have equal fingerprints", firstJoin.fingerprint(),
+				otherJoin.fingerprint());
+	}
+
+	@Test
+	public void fingerprintIgnoresOrderTest() {
+		// The same entries, built as generic nodes in two orders
+		Map<String, Object> first = new LinkedHashMap<String, Object>();
+		first.put("right", "b");
+		first.put("left", "a");
+		first.put("extra", null);
+		Map<String, Object> second = new LinkedHashMap<String, Object>();
+		second.put("extra", null);
+		second.put("left", "a");
+		second.put("right", "b");
+
+		AstNode firstNode = new AstBuilder().build(first);
+		AstNode secondNode = new AstBuilder().build(second);
+		Assert.assertNotEquals("Nodes should iterate in their maps' orders", firstNode.toString(),
+				secondNode.toString());
+		Assert.assertEquals("Fingerprints should not depend on order", firstNode.fingerprint(),
+				secondNode.fingerprint());
+		Assert.assertEquals("Nodes should be equal", firstNode, secondNode);
+
+		second.put("left", "c");
+		Assert.assertNotEquals("Fingerprint should depend on values", firstNode.fingerprint(),
+				new AstBuilder().build(second).fingerprint());
+	}
+
+	@Test
+	public void internedSubtreesTest() {
+		AstInterner interner = new AstInterner();
+		SqlParseEventWalker first = walk("SELECT a.x FROM tab1 a join tab2 b on a.id = b.id WHERE a.z = 1");
+		SqlParseEventWalker second = walk("SELECT b.y FROM tab1 a join tab2 b on a.id = b.id WHERE a.z = 2");
+
+		AstNode firstTree = new AstBuilder(interner).build(first.getSqlTree());
+		AstNode secondTree = new AstBuilder(interner).build(second.getSqlTree());
+		Assert.assertEquals("AST is wrong", first.getSqlTree().toString(), firstTree.toString());
+		Assert.assertEquals("AST is wrong", second.getSqlTree().toString(), secondTree.toString());
+		Assert.assertSame("Equal from lists should be shared", ((Query) firstTree.get("SQL")).getFrom(),
+				((Query) secondTree.get("SQL")).getFrom());
+		Assert.assertNotSame("Different select lists should not be shared", ((Query) firstTree.get("SQL")).getSelect(),
+				((Query) secondTree.get("SQL")).getSelect());
+
+		// A typed node prints the same whatever its map's order, so it is shared
+		HashMap<String, Object> grown = new HashMap<String, Object>(64);
+		grown.put("table_ref", "a");
+		grown.put("name", "x");
+		AstNode column = (AstNode) ((AstEntry) ((AstList) ((Query) firstTree.get("SQL")).getSelect()).getItem(1))
+				.getValue();
+		Assert.assertSame("Equal columns should be shared", column, new AstBuilder(interner).build(grown));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void immutableTest() {
+		AstNode tree = walk("SELECT a FROM tab1").getSnippet().getAbstractTree();
+		((Query) tree.get("SQL")).put("where", null);
+	}
+
+	private static SqlParseEventWalker walk(final String query) {
+		SQLSelectParserParser parser = new SQLSelectParserFactory().buildParser(query);
+		SQLSelectParserParser.SqlContext tree = parser.sql();
+		Assert.assertEquals("Expected no failures with " + query, 0, parser.getNumberOfSyntaxErrors());
+		SqlParseEventWalker extractor = new SqlParseEventWalker();
+		ParseTreeWalker.DEFAULT.walk(extractor, tree);
+		return extractor;
+	}
+
+}
@@ -0,0 +1,109 @@
+package mumble.sql.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import mumble.sql.Snippet;
+import sql.walker.SQLSelectEntryRule;
+import sql.walker.SQLSelectParserFactory;
+import sql.walker.SnippetParseResult;
+
+public class SnippetCodecTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void roundTripTest() throws IOException {
+		Snippet snippet = parse(
+				"SELECT a.x, b.y AS why FROM tab1 a JOIN tab2 b ON a.k = b.k WHERE a.z IN (1, 2) AND <Condition> AND b.w = 'text'");
+
+		Snippet copy = SnippetDecoder.decode(SnippetEncoder.encode(snippet));
+
+		assertSameParts(snippet, copy);
+		Assert.assertEquals("AST node type is wrong", snippet.getAbstractTree().getClass(),
+				copy.getAbstractTree().getClass());
+		Assert.assertFalse("Decoded Snippet should not be frozen", copy.isFrozen());
+	}
+
+	@Test
+	public void integerTokenTypeTest() throws IOException {
+		// The walker leaves the Integer token type of an EXISTS clause in the tree
+		Snippet snippet = parse("SELECT case when exists (select 1 from t) then 'y' else 'n' end FROM tab1 a");
+		Object type = get(snippet.getSqlAbstractTree(), "SQL", "select", "1", "case", "clauses", "1", "when", "Type");
+		Assert.assertTrue("Expected an Integer token type", type instanceof Integer);
+
+		Snippet copy = SnippetDecoder.decode(SnippetEncoder.encode(snippet));
+
+		assertSameParts(snippet, copy);
+		Assert.assertEquals("Token type is wrong", type,
+				get(copy.getSqlAbstractTree(), "SQL", "select", "1", "case", "clauses", "1", "when", "Type"));
+	}
+
+	@Test
+	public void sharedNodesStaySharedTest() throws IOException {
+		Snippet copy = SnippetDecoder.decode(SnippetEncoder.encode(parse("SELECT a.x FROM tab1 a")));
+
+		Object astColumn = get(copy.getAbstractTree(), "SQL", "select", "1", "column");
+		Object symbolColumn = get(copy.getSymbolTable(), "query0", "interface", "x", "column");
+		Assert.assertNotNull("Column is missing from the AST", astColumn);
+		Assert.assertSame("Symbol Table should share the AST's column node", astColumn, symbolColumn);
+	}
+
+	@Test
+	public void manySnippetsInOneStreamTest() throws IOException {
+		Snippet first = parse("SELECT a.x FROM tab1 a WHERE a.y = 1");
+		Snippet second = parse("SELECT a.x, count(*) FROM tab1 a GROUP BY a.x");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SnippetEncoder encoder = new SnippetEncoder(bytes);
+		encoder.write(first);
+		encoder.write(second);
+		encoder.close();
+
+		Assert.assertTrue("Shared string table should make the stream smaller",
+				bytes.size() < SnippetEncoder.encode(first).length + SnippetEncoder.encode(second).length);
+
+		SnippetDecoder decoder = new SnippetDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+		assertSameParts(first, decoder.read());
+		assertSameParts(second, decoder.read());
+		Assert.assertNull("Expected the end of the stream", decoder.read());
+		decoder.close();
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void notASnippetStreamTest() throws IOException {
+		SnippetDecoder.decode("SELECT a.x FROM tab1 a".getBytes("UTF-8"));
+	}
+
+	private Snippet parse(String query) {
+		SnippetParseResult result = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertFalse("Expected no failures in " + query, result.hasErrors());
+		return result.getSnippet();
+	}
+
+	private static void assertSameParts(Snippet expected, Snippet actual) {
+		Assert.assertEquals("AST is wrong", expected.getSqlAbstractTree().toString(),
+				actual.getSqlAbstractTree().toString());
+		Assert.assertEquals("Table Dictionary is wrong", expected.getTableDictionary().toString(),
+				actual.getTableDictionary().toString());
+		Assert.assertEquals("Symbol Table is wrong", expected.getSymbolTable().toString(),
+				actual.getSymbolTable().toString());
+		Assert.assertEquals("Substitution List is wrong", expected.getSubstitutionsMap(),
+				actual.getSubstitutionsMap());
+		Assert.assertEquals("Interface is wrong", expected.getQueryInterface(), actual.getQueryInterface());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object get(Object map, String... keys) {
+		Object value = map;
+		for (String key : keys)
+			value = ((Map<String, Object>) value).get(key);
+		return value;
+	}
+}
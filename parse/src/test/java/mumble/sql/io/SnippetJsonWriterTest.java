@@ -0,0 +1,127 @@
+package mumble.sql.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import mumble.sql.Snippet;
+import mumble.sql.TokenPosition;
+import sql.walker.SQLSelectEntryRule;
+import sql.walker.SQLSelectParserFactory;
+import sql.walker.SnippetParseResult;
+
+public class SnippetJsonWriterTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void snippetJsonTest() throws IOException {
+		Snippet snippet = parse("SELECT a.x FROM tab1 a WHERE a.y = <var>");
+
+		Assert.assertEquals("JSON is wrong",
+				"{\"sqlAbstractTree\":{\"SQL\":{\"from\":{\"table\":{\"alias\":\"a\",\"table\":\"tab1\"}},"
+						+ "\"select\":{\"1\":{\"column\":{\"name\":\"x\",\"table_ref\":\"a\"}}},"
+						+ "\"where\":{\"condition\":{\"left\":{\"column\":{\"name\":\"y\",\"table_ref\":\"a\"}},"
+						+ "\"operator\":\"=\",\"right\":{\"substitution\":{\"name\":\"<var>\",\"type\":\"predicand\"}}}}}},"
+						+ "\"tableDictionary\":{\"tab1\":{\"x\":{\"channel\":0,\"charPositionInLine\":7,\"line\":1,"
+						+ "\"startIndex\":7,\"stopIndex\":7,\"text\":\"a\",\"tokenIndex\":1,\"type\":"
+						+ type(snippet) + "},\"y\":{\"channel\":0,\"charPositionInLine\":29,\"line\":1,"
+						+ "\"startIndex\":29,\"stopIndex\":29,\"text\":\"a\",\"tokenIndex\":8,\"type\":" + type(snippet)
+						+ "}}},",
+				write(snippet).substring(0, write(snippet).indexOf("\"symbolTable\"")));
+		Assert.assertTrue("Substitutions and interface are wrong",
+				write(snippet).endsWith(",\"substitutionsMap\":{\"<var>\":\"predicand\"},\"queryInterface\":[\"x\"]}\n"));
+	}
+
+	@Test
+	public void stableOrderTest() throws IOException {
+		// List items past the ninth stay in list order, and equal Snippets write equal JSON
+		StringBuilder query = new StringBuilder("SELECT c1");
+		for (int i = 2; i <= 12; i++)
+			query.append(", c").append(i);
+		query.append(" FROM tab1");
+		String json = write(parse(query.toString()));
+
+		Assert.assertEquals("JSON should not depend on the parse", json, write(parse(query.toString())));
+		Assert.assertTrue("List items are out of order", json.indexOf("\"9\":") < json.indexOf("\"10\":"));
+		Assert.assertTrue("Interface is not sorted", json.endsWith(
+				"\"queryInterface\":[\"c1\",\"c10\",\"c11\",\"c12\",\"c2\",\"c3\",\"c4\",\"c5\",\"c6\",\"c7\",\"c8\",\"c9\"]}\n"));
+	}
+
+	@Test
+	public void digitKeysOrderTest() throws IOException {
+		// List positions come before aliases that start with a digit, whatever the map order
+		String[] keys = { "1a", "10", "01_DEGREE_CD", "2", "b", "1" };
+		String expected = "{\"sqlAbstractTree\":null,\"tableDictionary\":null,\"symbolTable\":null,"
+				+ "\"substitutionsMap\":{\"1\":\"v\",\"2\":\"v\",\"10\":\"v\",\"01_DEGREE_CD\":\"v\",\"1a\":\"v\",\"b\":\"v\"},"
+				+ "\"queryInterface\":[]}\n";
+		for (int shift = 0; shift < keys.length; shift++) {
+			LinkedHashMap<String, Object> substitutions = new LinkedHashMap<String, Object>();
+			for (int index = 0; index < keys.length; index++)
+				substitutions.put(keys[(index + shift) % keys.length], "v");
+			Snippet snippet = new Snippet((HashMap<String, Object>) null, null, null, substitutions,
+					new HashSet<String>());
+			Assert.assertEquals("JSON is wrong", expected, write(snippet));
+		}
+	}
+
+	@Test
+	public void escapedStringsTest() throws IOException {
+		HashMap<String, Object> substitutions = new HashMap<String, Object>();
+		substitutions.put("<q\"uote>", "tab\tnew\nline \u00e9 \u20ac \ud83d\ude00 \u0001");
+		Snippet snippet = new Snippet((HashMap<String, Object>) null, null, null, substitutions, new HashSet<String>());
+
+		Assert.assertEquals("JSON is wrong",
+				"{\"sqlAbstractTree\":null,\"tableDictionary\":null,\"symbolTable\":null,"
+						+ "\"substitutionsMap\":{\"<q\\\"uote>\":\"tab\\tnew\\nline \u00e9 \u20ac \ud83d\ude00 \\u0001\"},"
+						+ "\"queryInterface\":[]}\n",
+				write(snippet));
+	}
+
+	@Test
+	public void channelMatchesStreamTest() throws IOException {
+		Snippet snippet = parse(
+				"WITH a AS (SELECT x FROM t1) SELECT a.x, case when a.x > 1 then 'big' else 'small' end as size FROM a");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SnippetJsonWriter writer = new SnippetJsonWriter(Channels.newChannel(bytes));
+		// More than one buffer's worth
+		for (int i = 0; i < 20; i++)
+			writer.write(snippet);
+		writer.close();
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 20; i++)
+			expected.append(write(snippet));
+		Assert.assertEquals("Channel output is wrong", expected.toString(), bytes.toString("UTF-8"));
+	}
+
+	private Snippet parse(String query) {
+		SnippetParseResult result = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertFalse("Expected no failures in " + query, result.hasErrors());
+		return result.getSnippet();
+	}
+
+	private static String write(Snippet snippet) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SnippetJsonWriter writer = new SnippetJsonWriter(bytes);
+		writer.write(snippet);
+		writer.flush();
+		return bytes.toString("UTF-8");
+	}
+
+	/**
+	 * The token type of identifiers, which depends on the generated lexer
+	 */
+	@SuppressWarnings("unchecked")
+	private static int type(Snippet snippet) {
+		HashMap<String, Object> columns = (HashMap<String, Object>) snippet.getTableDictionary().get("tab1");
+		return ((TokenPosition) columns.get("x")).getType();
+	}
+}
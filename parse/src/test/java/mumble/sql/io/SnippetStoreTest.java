@@ -0,0 +1,129 @@
+package mumble.sql.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mumble.sql.Snippet;
+import sql.corpus.CorpusRecord;
+import sql.corpus.CsvCorpusReader;
+import sql.walker.SQLSelectEntryRule;
+import sql.walker.SQLSelectParserFactory;
+import sql.walker.SnippetParseResult;
+
+public class SnippetStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void corpusStoreTest() throws IOException {
+		File storeFile = folder.newFile("corpus.pssd");
+		storeFile.delete();
+		HashMap<String, String> expected = new HashMap<String, String>();
+
+		// A region smaller than many records exercises records crossing regions
+		SnippetStore store = new SnippetStore(storeFile, false, 4096);
+		CsvCorpusReader reader = new CsvCorpusReader(new File("testdata/sqlintellect.csv"));
+		try {
+			// Sixty queries are enough to span many regions
+			while (reader.hasNext() && expected.size() < 60) {
+				CorpusRecord record = reader.next();
+				SnippetParseResult result = factory.parseSnippet(record.get("qry_text"), SQLSelectEntryRule.SQL,
+						null, null);
+				if (result.hasErrors())
+					continue;
+				String id = SnippetStore.id(record.get("task_name"), record.get("data_space_id"));
+				store.put(id, result.getSnippet());
+				expected.put(id, result.getSnippet().getSqlAbstractTree().toString());
+			}
+		} finally {
+			reader.close();
+			store.close();
+		}
+		Assert.assertEquals("Expected parsed queries in the corpus", 60, expected.size());
+
+		store = new SnippetStore(storeFile, true, 4096);
+		try {
+			Assert.assertEquals("Store size is wrong", expected.size(), store.size());
+			for (String id : expected.keySet())
+				Assert.assertEquals("AST is wrong for " + id, expected.get(id),
+						store.get(id).getSqlAbstractTree().toString());
+			Assert.assertNull("Expected no Snippet", store.get(SnippetStore.id("no_task", "0")));
+		} finally {
+			store.close();
+		}
+	}
+
+	@Test
+	public void replaceAndAppendTest() throws IOException {
+		File storeFile = folder.newFile("replace.pssd");
+		storeFile.delete();
+		Snippet first = parse("SELECT a.x FROM tab1 a");
+		Snippet second = parse("SELECT b.y FROM tab2 b WHERE b.z = 1");
+
+		SnippetStore store = new SnippetStore(storeFile);
+		store.put("task/1", first);
+		store.put("task/2", first);
+		// Read before and after the file grows past the mapped part
+		Assert.assertEquals("AST is wrong", first.getSqlAbstractTree().toString(),
+				store.get("task/1").getSqlAbstractTree().toString());
+		store.put("task/1", second);
+		Assert.assertEquals("Replaced AST is wrong", second.getSqlAbstractTree().toString(),
+				store.get("task/1").getSqlAbstractTree().toString());
+		store.close();
+
+		store = new SnippetStore(storeFile);
+		Assert.assertEquals("Store size is wrong", 2, store.size());
+		Assert.assertEquals("Replaced AST is wrong after reopening", second.getSqlAbstractTree().toString(),
+				store.get("task/1").getSqlAbstractTree().toString());
+		Assert.assertEquals("Table Dictionary is wrong", first.getTableDictionary().toString(),
+				store.get("task/2").getTableDictionary().toString());
+		store.close();
+	}
+
+	@Test
+	public void incompleteRecordTest() throws IOException {
+		File storeFile = folder.newFile("incomplete.pssd");
+		storeFile.delete();
+		Snippet snippet = parse("SELECT a.x FROM tab1 a");
+
+		SnippetStore store = new SnippetStore(storeFile);
+		store.put("task/1", snippet);
+		store.put("task/2", snippet);
+		store.close();
+		long complete = storeFile.length();
+
+		RandomAccessFile file = new RandomAccessFile(storeFile, "rw");
+		file.setLength(complete - 3);
+		file.close();
+
+		store = new SnippetStore(storeFile);
+		Assert.assertTrue("Complete record is missing", store.contains("task/1"));
+		Assert.assertFalse("Incomplete record should be dropped", store.contains("task/2"));
+		store.put("task/3", snippet);
+		Assert.assertEquals("Appended AST is wrong", snippet.getSqlAbstractTree().toString(),
+				store.get("task/3").getSqlAbstractTree().toString());
+		store.close();
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void notASnippetStoreTest() throws IOException {
+		new SnippetStore(new File("testdata/sqlintellect.csv"), true, SnippetStore.DEFAULT_REGION_SIZE);
+	}
+
+	private Snippet parse(String query) {
+		SnippetParseResult result = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertFalse("Expected no failures in " + query, result.hasErrors());
+		return result.getSnippet();
+	}
+}
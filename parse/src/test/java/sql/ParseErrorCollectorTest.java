@@ -0,0 +1,80 @@
+package sql;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sql.corpus.CsvCorpusReader;
+import sql.walker.SQLSelectEntryRule;
+import sql.walker.SQLSelectParserFactory;
+import sql.walker.SnippetParseRequest;
+import sql.walker.SnippetParseResult;
+import sql.walker.SyntaxError;
+
+public class ParseErrorCollectorTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void validQueriesTest() {
+		Assert.assertNull("Expected no error", factory.validate(
+				"WITH a AS (SELECT x FROM t1) SELECT a.x, case when a.x > 1 then 'big' else 'small' end as size FROM a union select y, z from t2",
+				SQLSelectEntryRule.SQL));
+		Assert.assertNull("Expected no error",
+				factory.validate("a.b = 12 and (c like 'x%' or d in (1, 2, 3))", SQLSelectEntryRule.CONDITION));
+	}
+
+	@Test
+	public void firstErrorMatchesFullParseTest() {
+		String[] queries = { "SELECT a b c FROM", "SELECT a FROM t WHERE", "SELECT a,, b FROM t",
+				"SELECT a FROM t\n WHERE x = = 1" };
+		for (String query : queries) {
+			ParseError error = factory.validate(query, SQLSelectEntryRule.SQL);
+			SnippetParseResult full = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+			Assert.assertNotNull("Expected an error for " + query, error);
+			SyntaxError first = full.getSyntaxErrors().get(0);
+			// The message may differ, as the full parse tries single token recovery before giving up
+			Assert.assertEquals("Line is wrong for " + query, first.getLine(), error.getLine());
+			Assert.assertEquals("Character is wrong for " + query, first.getCharPositionInLine(),
+					error.getCharPositionInLine());
+		}
+	}
+
+	@Test
+	public void collectorStopsAtFirstErrorTest() {
+		SQLSelectParserParser parser = factory.buildParser("SELECT a FROM t WHERE x = = 1 and y = = 2");
+		parser.removeErrorListeners();
+		ParseErrorCollector collector = new ParseErrorCollector();
+		parser.setErrorHandler(collector);
+		try {
+			parser.sql();
+			Assert.fail("Expected the parse to be cancelled");
+		} catch (org.antlr.v4.runtime.misc.ParseCancellationException e) {
+			// expected
+		}
+		Assert.assertEquals("Expected one error", 1, collector.getErrorList().size());
+		Assert.assertEquals("Token index is wrong", 7, collector.getFirstError().getTokenIndex());
+		Assert.assertEquals("Message is wrong", "no viable alternative at input '='",
+				collector.getFirstError().getMessage());
+		Assert.assertEquals("Parser reported errors", 0, parser.getNumberOfSyntaxErrors());
+	}
+
+	@Test
+	public void corpusValidityMatchesFullParseTest() throws IOException {
+		CsvCorpusReader reader = new CsvCorpusReader(new File("testdata/sqlintellect.csv"));
+		try {
+			Iterator<SnippetParseRequest> requests = reader.requests("qry_text");
+			for (int i = 0; i < 60 && requests.hasNext(); i++) {
+				String query = requests.next().getQuery();
+				boolean valid = factory.validate(query, SQLSelectEntryRule.SQL) == null;
+				boolean parsed = !factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null).hasErrors();
+				Assert.assertEquals("Validity is wrong for record " + (i + 1), parsed, valid);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+}
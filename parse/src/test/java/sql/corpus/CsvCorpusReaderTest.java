@@ -0,0 +1,112 @@
+package sql.corpus;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sql.walker.SnippetParseRequest;
+
+public class CsvCorpusReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sqlIntellectExportTest() throws IOException {
+		// A window smaller than the largest query exercises remapping and growth
+		CsvCorpusReader reader = new CsvCorpusReader(new File("testdata/sqlintellect.csv"),
+				java.nio.charset.Charset.forName("UTF-8"), 4096);
+		try {
+			Assert.assertEquals("Header is wrong",
+					"[member_master_id, member_name, mbr_sk, mbr_uid, data_space_id, data_space_name, parent_data_space_id, parent_data_space_name, domain_id, entity_type, qry_text, task_name]",
+					reader.getHeader().toString());
+
+			CorpusRecord first = reader.next();
+			Assert.assertEquals("Member is wrong", "Atlanta Technical College", first.get("member_name"));
+			Assert.assertEquals("Empty field is wrong", "", first.get("mbr_uid"));
+			Assert.assertEquals("Query is wrong",
+					"select \ncollege_cd,\ncollege_desc,\ncollege_desc\n from atlantatech.osf_cll_college_lkp",
+					first.get("qry_text"));
+			Assert.assertEquals("Task is wrong", "SSF_college_lkp", first.get("task_name"));
+
+			long records = 1;
+			long queryLength = first.get("qry_text").length();
+			CorpusRecord last = first;
+			while (reader.hasNext()) {
+				last = reader.next();
+				Assert.assertEquals("Field count is wrong at " + last.getRecordNumber(), 12, last.size());
+				queryLength += last.get("qry_text").length();
+				records++;
+			}
+			Assert.assertEquals("Record count is wrong", 748, records);
+			Assert.assertEquals("Total query length is wrong", 1974971, queryLength);
+			Assert.assertEquals("Last task is wrong", "cat.studentcourse", last.get("entity_type"));
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void quotingAndWindowBoundariesTest() throws IOException {
+		File csv = folder.newFile("corpus.csv");
+		StringBuilder longQuery = new StringBuilder("select ");
+		for (int i = 0; i < 40; i++)
+			longQuery.append("col").append(i).append(", ");
+		longQuery.append("'it''s' from t");
+		write(csv, "﻿id,qry_text,note\r\n" + "1,\"select \"\"x\"\" from t\",plain\r\n"
+				+ "2,\"select 'café'\nfrom t\",\"\"\r\n" + "\r\n" + "3,\"" + longQuery.toString().replace("\"", "\"\"")
+				+ "\",last\n" + "4,,\"ends, without break\"");
+
+		for (int windowSize = 8; windowSize <= 1024; windowSize *= 4) {
+			CsvCorpusReader reader = new CsvCorpusReader(csv, java.nio.charset.Charset.forName("UTF-8"), windowSize);
+			try {
+				Assert.assertEquals("Header is wrong", "[id, qry_text, note]", reader.getHeader().toString());
+				CorpusRecord record = reader.next();
+				Assert.assertEquals("Doubled quotes are wrong", "select \"x\" from t", record.get("qry_text"));
+				record = reader.next();
+				Assert.assertEquals("Multi-line field is wrong", "select 'café'\nfrom t", record.get(1));
+				Assert.assertEquals("Quoted empty field is wrong", "", record.get("note"));
+				record = reader.next();
+				Assert.assertEquals("Blank line should be skipped", "3", record.get("id"));
+				Assert.assertEquals("Long field is wrong", longQuery.toString(), record.get("qry_text"));
+				record = reader.next();
+				Assert.assertEquals("Last record is wrong", "ends, without break", record.get("note"));
+				Assert.assertEquals("Record number is wrong", 4, record.getRecordNumber());
+				Assert.assertNull("Missing column should be null", record.get("missing"));
+				Assert.assertFalse("Expected end of export", reader.hasNext());
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	@Test
+	public void requestsCarryRecordsTest() throws IOException {
+		CsvCorpusReader reader = new CsvCorpusReader(new File("testdata/sqlintellect.csv"));
+		try {
+			Iterator<SnippetParseRequest> requests = reader.requests("qry_text");
+			SnippetParseRequest request = requests.next();
+			CorpusRecord record = (CorpusRecord) request.getAttachment();
+			Assert.assertEquals("Query is wrong", record.get("qry_text"), request.getQuery());
+			Assert.assertEquals("Record is wrong", "1218", record.get("member_master_id"));
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void write(File file, String text) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(text.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package sql.walker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NameMappingTest {
+
+	@Test
+	public void caseInsensitiveLookupTest() {
+		HashMap<String, String> entityMap = new HashMap<String, String>();
+		entityMap.put("[Student Coursework]", "panto.5637_453");
+		entityMap.put("tab1", "real_table");
+		HashMap<String, Map<String, String>> attributeMap = new HashMap<String, Map<String, String>>();
+		HashMap<String, String> columns = new HashMap<String, String>();
+		columns.put("[College Name]", "clg_name");
+		attributeMap.put("[STUDENT COURSEWORK]", columns);
+		columns = new HashMap<String, String>();
+		columns.put("[Course Number]", "crs_no");
+		attributeMap.put("[Institutional Course]", columns);
+
+		NameMapping mapping = new NameMapping(entityMap, attributeMap);
+		Assert.assertEquals("Size is wrong", 3, mapping.size());
+		Assert.assertEquals("Table is wrong", "panto.5637_453", mapping.getTableName("[student coursework]"));
+		Assert.assertEquals("Table is wrong", "real_table", mapping.getTableName("TAB1"));
+		Assert.assertEquals("Unmapped table is wrong", "Tab2", mapping.getTableName("Tab2"));
+		Assert.assertEquals("Entity without table is wrong", "[Institutional COURSE]",
+				mapping.getTableName("[Institutional COURSE]"));
+		Assert.assertEquals("Column is wrong", "clg_name",
+				mapping.getColumnName("[Student Coursework]", "[college name]"));
+		Assert.assertEquals("Column is wrong", "crs_no", mapping.getColumnName("[institutional course]", "[COURSE NUMBER]"));
+		Assert.assertEquals("Unmapped column is wrong", "x", mapping.getColumnName("tab1", "x"));
+		Assert.assertNull("Null name is wrong", mapping.getTableName(null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void conflictingCaseTest() {
+		HashMap<String, String> entityMap = new HashMap<String, String>();
+		entityMap.put("Tab1", "first_table");
+		entityMap.put("TAB1", "second_table");
+		new NameMapping(entityMap, null);
+	}
+
+	@Test
+	public void emptyMappingTest() {
+		Assert.assertEquals("Size is wrong", 0, NameMapping.EMPTY.size());
+		Assert.assertEquals("Table is wrong", "tab1", NameMapping.EMPTY.getTableName("tab1"));
+		Assert.assertEquals("Column is wrong", "x", NameMapping.EMPTY.getColumnName("tab1", "x"));
+	}
+
+	@Test
+	public void swappedMappingTest() {
+		SQLSelectParserFactory factory = new SQLSelectParserFactory();
+		HashMap<String, String> entityMap = new HashMap<String, String>();
+		entityMap.put("[Student Coursework]", "panto.5637_453");
+		NameMapping first = new NameMapping(entityMap, null);
+		entityMap.put("[Student Coursework]", "panto.5637_454");
+		NameMapping second = new NameMapping(entityMap, null);
+
+		Assert.assertNull("Previous mapping is wrong", factory.setNameMapping(first));
+		SnippetParseResult result = factory.parseSnippet("SELECT aa.x FROM [STUDENT COURSEWORK] aa",
+				SQLSelectEntryRule.SQL, null, null);
+		Assert.assertEquals("Table Dictionary is wrong", "[panto.5637_453]",
+				result.getSnippet().getTableDictionary().keySet().toString());
+
+		SnippetCache cache = new SnippetCache(factory, 10, 10000);
+		SnippetParseResult cached = cache.get("SELECT x FROM [Student Coursework]");
+		Assert.assertSame("Previous mapping is wrong", first, factory.setNameMapping(second));
+		SnippetParseResult swapped = cache.get("SELECT x FROM [Student Coursework]");
+		Assert.assertEquals("AST is wrong", "{SQL={select={1={column={name=x, table_ref=null}}}, from={table={alias=null, table=panto.5637_453}}}}",
+				cached.getSnippet().getSqlAbstractTree().toString());
+		Assert.assertEquals("AST is wrong", "{SQL={select={1={column={name=x, table_ref=null}}}, from={table={alias=null, table=panto.5637_454}}}}",
+				swapped.getSnippet().getSqlAbstractTree().toString());
+
+		// Given maps are used as they are, without the factory's mapping
+		HashMap<String, String> exact = new HashMap<String, String>();
+		exact.put("[Student Coursework]", "exact_table");
+		result = factory.parseSnippet("SELECT x FROM [student coursework]", SQLSelectEntryRule.SQL, exact, null);
+		Assert.assertEquals("Table Dictionary is wrong", "[[student coursework]]",
+				result.getSnippet().getTableDictionary().keySet().toString());
+	}
+
+}
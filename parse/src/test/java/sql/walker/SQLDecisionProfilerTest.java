@@ -0,0 +1,71 @@
+package sql.walker;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sql.SQLSelectParserParser;
+import sql.corpus.CsvCorpusReader;
+
+public class SQLDecisionProfilerTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void decisionsMapToRulesTest() {
+		SQLDecisionProfiler profiler = new SQLDecisionProfiler(factory);
+		Assert.assertEquals("Syntax errors reported", 0,
+				profiler.profile("SELECT a.x, count(*) FROM tab1 a JOIN tab2 b ON a.id = b.id WHERE a.y > 1 group by a.x",
+						SQLSelectEntryRule.SQL));
+		Assert.assertTrue("Syntax errors not reported", profiler.profile("SELECT a b c FROM", SQLSelectEntryRule.SQL) > 0);
+		profiler.profile("a.b = 1 and c in (1, 2)", SQLSelectEntryRule.CONDITION);
+
+		Assert.assertEquals("Query count is wrong", 3, profiler.getQueries());
+		Assert.assertEquals("Failed query count is wrong", 1, profiler.getFailedQueries());
+
+		List<SQLDecisionStats> decisions = profiler.getDecisions(SQLDecisionProfiler.BY_INVOCATIONS);
+		Assert.assertFalse("Expected decisions", decisions.isEmpty());
+		List<String> ruleNames = Arrays.asList(SQLSelectParserParser.ruleNames);
+		long previous = Long.MAX_VALUE;
+		for (SQLDecisionStats stats : decisions) {
+			Assert.assertTrue("Unknown rule " + stats.getRuleName(), ruleNames.contains(stats.getRuleName()));
+			Assert.assertTrue("Decisions are not ranked", stats.getInvocations() <= previous);
+			Assert.assertTrue("Unused decision listed", stats.getInvocations() > 0);
+			previous = stats.getInvocations();
+		}
+
+		long decisionInvocations = 0;
+		for (SQLDecisionStats stats : decisions)
+			decisionInvocations += stats.getInvocations();
+		long ruleInvocations = 0;
+		for (SQLDecisionStats stats : profiler.getRules(SQLDecisionProfiler.BY_TIME))
+			ruleInvocations += stats.getInvocations();
+		Assert.assertEquals("Rule totals are wrong", decisionInvocations, ruleInvocations);
+	}
+
+	@Test
+	public void corpusReportTest() throws IOException {
+		SQLDecisionProfiler profiler = new SQLDecisionProfiler(factory);
+		CsvCorpusReader reader = new CsvCorpusReader(new File("testdata/sqlintellect.csv"));
+		try {
+			// The first records are enough to rank decisions; profiling the whole export takes minutes
+			List<SnippetParseRequest> requests = new ArrayList<SnippetParseRequest>();
+			Iterator<SnippetParseRequest> corpus = reader.requests("qry_text");
+			while (corpus.hasNext() && requests.size() < 40)
+				requests.add(corpus.next());
+			profiler.profileAll(requests.iterator());
+		} finally {
+			reader.close();
+		}
+		Assert.assertEquals("Query count is wrong", 40, profiler.getQueries());
+		String report = profiler.report(10);
+		Assert.assertTrue("Report is missing its header", report.startsWith("Profiled 40 queries"));
+		Assert.assertEquals("Report should list ten decisions", 12, report.split("\n").length);
+	}
+}
@@ -0,0 +1,63 @@
+package sql.walker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SQLEntryRuleSnifferTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void statementsTest() {
+		assertSniffed(SQLSelectEntryRule.SQL, "SELECT a.x FROM tab1 a WHERE a.y = 1");
+		assertSniffed(SQLSelectEntryRule.SQL, "  -- leading comment\n with a as (select x from t1) select a.x from a");
+		assertSniffed(SQLSelectEntryRule.SQL, "(select a from b) union (select c from d)");
+		assertSniffed(SQLSelectEntryRule.VALUES_STATEMENT_END, "values (1, 2, 'aaa'), (92, 3, 'aaa')");
+		assertSniffed(SQLSelectEntryRule.JOIN_EXTENSION, "join tab2 b on a.id = b.id");
+		assertSniffed(SQLSelectEntryRule.JOIN_EXTENSION, "left outer join tab2 b on a.id = b.id <more>");
+		assertSniffed(SQLSelectEntryRule.JOIN_EXTENSION, ", tab3 c");
+	}
+
+	@Test
+	public void expressionsTest() {
+		assertSniffed(SQLSelectEntryRule.CONDITION, "a.b = 12 and (c like 'x%' or d in (1, 2, 3))");
+		assertSniffed(SQLSelectEntryRule.CONDITION, "not exists (select 1 from t)");
+		assertSniffed(SQLSelectEntryRule.CONDITION, "x is null");
+		assertSniffed(SQLSelectEntryRule.IN_LIST, "(1, 2, <list>)");
+		assertSniffed(SQLSelectEntryRule.COLUMN, "tab1.col1");
+		assertSniffed(SQLSelectEntryRule.COLUMN, "<subject_area>");
+		assertSniffed(SQLSelectEntryRule.COLUMN, "tab1.<column>");
+		assertSniffed(SQLSelectEntryRule.PREDICAND,
+				"case when column1 = true then 'Y' when column2 = false then 'N' else 'N' end");
+		assertSniffed(SQLSelectEntryRule.PREDICAND, "coalesce(a.x, b.y, 0)");
+		assertSniffed(SQLSelectEntryRule.PREDICAND, "'literal'");
+		// predicand_value takes no leading sign, condition_value does
+		assertSniffed(SQLSelectEntryRule.CONDITION, "-5");
+		assertSniffed(SQLSelectEntryRule.CONDITION, "-a.x");
+		// A parenthesized query followed by more than a set operator is a value
+		assertSniffed(SQLSelectEntryRule.CONDITION, "(select max(x) from t) > 5");
+		assertSniffed(SQLSelectEntryRule.CONDITION, "(select a from t where (b = 1)) = x");
+		assertSniffed(SQLSelectEntryRule.SQL, "(select a from b) intersect (select c from d);");
+	}
+
+	@Test
+	public void parseFragmentParsesOnceTest() {
+		String[] fragments = { "SELECT a.x FROM tab1 a WHERE a.y = 1", "a.b = 12 and c <> 'x'", "tab1.col1",
+				"case when column1 = true then 'Y' else 'N' end", "(1, 2, 3)", "join tab2 b on a.id = b.id", "-5", "-a.x",
+				"(select max(x) from t) > 5", "(select a from t) = x" };
+		for (String fragment : fragments) {
+			SnippetParseResult result = factory.parseFragment(fragment, null, null);
+			Assert.assertFalse("Expected no failures with " + fragment + ": " + result.getSyntaxErrors(),
+					result.hasErrors());
+			SnippetParseResult direct = factory.parseSnippet(fragment, result.getEntryRule(), null, null);
+			Assert.assertEquals("AST is wrong for " + fragment, direct.getSnippet().getSqlAbstractTree().toString(),
+					result.getSnippet().getSqlAbstractTree().toString());
+			Assert.assertTrue("AST is not filed under the sniffed rule for " + fragment,
+					result.getSnippet().getSqlAbstractTree().containsKey(result.getEntryRule().getTreeKey()));
+		}
+	}
+
+	private static void assertSniffed(SQLSelectEntryRule expected, String query) {
+		Assert.assertEquals("Entry rule is wrong for " + query, expected, SQLEntryRuleSniffer.sniff(query));
+	}
+}
@@ -0,0 +1,365 @@
+package sql.walker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.RuleNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import mumble.sql.Snippet;
+import mumble.sql.ast.AstInterner;
+import sql.SQLSelectParserParser;
+
+public class SQLSelectParserFactoryTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void twoStageSqlMatchesFullLLTest() {
+		final String[] queries = {
+				" SELECT a.* FROM third a join fourth b on <OnJoinCondition> ",
+				"SELECT aa.scbcrse_subj_code, aa.scbcrse_crse_numb FROM scbcrse aa WHERE aa.scbcrse_eff_term = (SELECT MAX(bb.scbcrse_eff_term) FROM scbcrse bb WHERE bb.scbcrse_subj_code = aa.scbcrse_subj_code)",
+				"WITH a AS (SELECT x FROM t1) SELECT a.x, case when a.x > 1 then 'big' else 'small' end as size FROM a union select y, z from t2",
+				" select * from (values (1, 2, 'aaa'), (92, 3, 'aaa')) as source (col1, col2, col3)" };
+		for (String query : queries)
+			assertSameResult(query, SQLSelectEntryRule.SQL);
+	}
+
+	@Test
+	public void twoStageFragmentsMatchFullLLTest() {
+		assertSameResult("case when column1 = true then 'Y' when column2 = false then 'N' else 'N' end", SQLSelectEntryRule.PREDICAND);
+		assertSameResult("a.b = 12 and (c like 'x%' or d in (1, 2, 3))", SQLSelectEntryRule.CONDITION);
+		assertSameResult("tab1.col1", SQLSelectEntryRule.COLUMN);
+		assertSameResult("select a from b where c = 1", SQLSelectEntryRule.QUERY);
+	}
+
+	@Test
+	public void twoStageReportsSameErrorsTest() {
+		final String query = "SELECT a b c FROM";
+		SQLSelectParserParser direct = factory.buildParser(query);
+		direct.sql();
+
+		SQLSelectParserParser twoStage = factory.buildParser(query);
+		factory.parse(twoStage, SQLSelectEntryRule.SQL);
+
+		Assert.assertTrue("Expected failures with " + query, direct.getNumberOfSyntaxErrors() > 0);
+		Assert.assertEquals("Error count is wrong", direct.getNumberOfSyntaxErrors(),
+				twoStage.getNumberOfSyntaxErrors());
+	}
+
+	@Test
+	public void pooledParserIsReusedTest() {
+		final String first = "SELECT a.x FROM tab1 a WHERE a.y = 1";
+		final String second = "SELECT b FROM tab2 union select c from tab3";
+
+		SQLSelectParserParser parser = factory.acquireParser(first);
+		Assert.assertEquals("AST is wrong", walk(factory.buildParser(first)), walk(parser));
+		factory.releaseParser(parser);
+
+		SQLSelectParserParser reused = factory.acquireParser(second);
+		Assert.assertSame("Parser was not reused", parser, reused);
+		SQLSelectParserParser nested = factory.acquireParser(first);
+		Assert.assertNotSame("Nested parser must not be the pooled one", reused, nested);
+		Assert.assertEquals("AST is wrong", walk(factory.buildParser(second)), walk(reused));
+		Assert.assertEquals("Expected no failures with " + second, 0, reused.getNumberOfSyntaxErrors());
+		factory.releaseParser(nested);
+		factory.releaseParser(reused);
+	}
+
+	@Test
+	public void pooledParserResetsErrorsTest() {
+		SQLSelectParserParser parser = factory.acquireParser("SELECT a b c FROM");
+		parser.sql();
+		Assert.assertTrue("Expected failures", parser.getNumberOfSyntaxErrors() > 0);
+		factory.releaseParser(parser);
+
+		parser = factory.acquireParser("SELECT a FROM b");
+		parser.sql();
+		Assert.assertEquals("Expected no failures", 0, parser.getNumberOfSyntaxErrors());
+		factory.releaseParser(parser);
+	}
+
+	@Test
+	public void pooledParsersOnWorkerThreadsTest() throws Exception {
+		final String[] queries = { "SELECT a.x FROM tab1 a WHERE a.y = 1", "SELECT b, count(*) FROM tab2 group by b",
+				"select c from tab3 where d in (select e from tab4)", "SELECT f FROM tab5 order by f desc" };
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 200; i++) {
+				final String query = queries[i % queries.length];
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() {
+						SQLSelectParserParser parser = factory.acquireParser(query);
+						try {
+							return walk(parser);
+						} finally {
+							factory.releaseParser(parser);
+						}
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++)
+				Assert.assertEquals("AST is wrong", walk(factory.buildParser(queries[i % queries.length])),
+						results.get(i).get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parseBudgetAbortsParseTest() {
+		String query = "SELECT a.x, b.y, case when a.z = 1 then 'one' when a.z = 2 then 'two' else 'many' end FROM tab1 a JOIN tab2 b ON a.id = b.id WHERE a.y > 1";
+
+		factory.setParseBudget(new ParseBudget(10, 0, 0));
+		SnippetParseResult tokens = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertTrue("Expected the token budget to abort the parse", tokens.hasErrors());
+		Assert.assertEquals("Expected one error", 1, tokens.getSyntaxErrors().size());
+		Assert.assertTrue("Expected a budget error", tokens.getSyntaxErrors().get(0) instanceof ParseBudgetError);
+
+		factory.setParseBudget(new ParseBudget(0, 0, 5));
+		SQLSelectParserParser parser = factory.buildParser(query);
+		Assert.assertNull("Expected no tree", factory.parse(parser, SQLSelectEntryRule.SQL));
+		Assert.assertEquals("Expected one syntax error", 1, parser.getNumberOfSyntaxErrors());
+		SyntaxError error = factory.getSyntaxErrors(parser).get(0);
+		Assert.assertTrue("Expected a budget error", error instanceof ParseBudgetError);
+		Assert.assertEquals("Message is wrong", "Parse budget of 5 prediction steps exceeded", error.getMessage());
+
+		// The pooled parser is still usable once the budget is lifted
+		factory.setParseBudget(null);
+		SnippetParseResult unlimited = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertFalse("Expected no failures", unlimited.hasErrors());
+		factory.setParseBudget(new ParseBudget(1000, 10000, 100000));
+		SnippetParseResult generous = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertEquals("Generous budget changed the AST", unlimited.getSnippet().getSqlAbstractTree().toString(),
+				generous.getSnippet().getSqlAbstractTree().toString());
+	}
+
+	@Test
+	public void parseBudgetDoesNotHideSyntaxErrorsTest() {
+		factory.setParseBudget(new ParseBudget(1000, 10000, 100000));
+		SnippetParseResult result = factory.parseSnippet("SELECT a b c FROM", SQLSelectEntryRule.SQL, null, null);
+		Assert.assertTrue("Expected failures", result.hasErrors());
+		for (SyntaxError error : result.getSyntaxErrors())
+			Assert.assertFalse("Unexpected budget error", error instanceof ParseBudgetError);
+	}
+
+	@Test
+	public void boundedSyntaxErrorsTest() {
+		String query = "SELECT a,, b,, c FROM t WHERE x = = 1";
+
+		SnippetParseResult all = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertEquals("Expected three errors", 3, all.getSyntaxErrors().size());
+		SyntaxError first = all.getSyntaxErrors().get(0);
+		Assert.assertEquals("Token text is wrong", ",", first.getTokenText());
+		Assert.assertEquals("Token index is wrong", 3, first.getTokenIndex());
+		Assert.assertEquals("Token type is wrong", SQLSelectParserParser.COMMA, first.getTokenType());
+		Assert.assertTrue("Expected an identifier to be expected", first.isExpected(SQLSelectParserParser.Identifier));
+		Assert.assertFalse("Expected no comma to be expected", first.isExpected(SQLSelectParserParser.COMMA));
+
+		factory.setMaxSyntaxErrors(1);
+		SQLSelectParserParser parser = factory.buildParser(query);
+		factory.parse(parser, SQLSelectEntryRule.SQL);
+		Assert.assertEquals("Expected one error kept", 1, factory.getSyntaxErrors(parser).size());
+		for (ANTLRErrorListener listener : parser.getErrorListeners()) {
+			if (listener instanceof SQLWalkerErrorListener) {
+				Assert.assertEquals("Expected all errors counted", 3, ((SQLWalkerErrorListener) listener).getErrorCount());
+				Assert.assertTrue("Expected the errors to be truncated", ((SQLWalkerErrorListener) listener).isTruncated());
+			}
+		}
+		SnippetParseResult pooled = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		Assert.assertEquals("Expected one pooled error kept", 1, pooled.getSyntaxErrors().size());
+		Assert.assertEquals("First error is wrong", first.toString(), pooled.getSyntaxErrors().get(0).toString());
+	}
+
+	@Test
+	public void walkerResetTest() {
+		final String first = "SELECT a.x, (select max(y) from t3) m FROM tab1 a union select b, c from tab2 where d = <var>";
+		final String second = "SELECT apple FROM tab1 where pear in (select fld from orange)";
+
+		SqlParseEventWalker extractor = new SqlParseEventWalker();
+		ParseTreeWalker.DEFAULT.walk(extractor, factory.buildParser(first).sql());
+		Snippet firstSnippet = extractor.getSnippet();
+		String firstResult = firstSnippet.getSqlAbstractTree().toString() + firstSnippet.getSymbolTable()
+				+ firstSnippet.getTableDictionary() + firstSnippet.getSubstitutionsMap();
+
+		// Abandon a walk part way, leaving nodes and scopes on the stacks
+		extractor.reset();
+		try {
+			new ParseTreeWalker() {
+				private int rules = 0;
+
+				@Override
+				protected void enterRule(ParseTreeListener listener, RuleNode r) {
+					if (++rules > 40)
+						throw new IllegalStateException("abandoned");
+					super.enterRule(listener, r);
+				}
+			}.walk(extractor, factory.buildParser(first).sql());
+			Assert.fail("Walk was not abandoned");
+		} catch (IllegalStateException e) {
+		}
+
+		extractor.reset();
+		ParseTreeWalker.DEFAULT.walk(extractor, factory.buildParser(second).sql());
+		Assert.assertEquals("Reset walker result is wrong", walk(factory.buildParser(second)),
+				extractor.getSqlTree().toString() + extractor.getSymbolTable().toString());
+		Assert.assertEquals("Interface is wrong", "[apple]", extractor.getInterface().toString());
+		Assert.assertEquals("Substitutions were kept", "{}", extractor.getSubstitutionsMap().toString());
+
+		Assert.assertEquals("Earlier Snippet was changed", firstResult,
+				firstSnippet.getSqlAbstractTree().toString() + firstSnippet.getSymbolTable()
+						+ firstSnippet.getTableDictionary() + firstSnippet.getSubstitutionsMap());
+	}
+
+	@Test
+	public void pooledWalkerTest() {
+		final String query = "SELECT a.x FROM tab1 a where a.y = <var>";
+		SnippetParseResult first = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		SnippetParseResult second = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+
+		Assert.assertNotSame("Snippets are shared", first.getSnippet(), second.getSnippet());
+		Assert.assertEquals("AST is wrong", first.getSnippet().getSqlAbstractTree(),
+				second.getSnippet().getSqlAbstractTree());
+		Assert.assertEquals("Symbol Table is wrong", first.getSnippet().getSymbolTable().toString(),
+				second.getSnippet().getSymbolTable().toString());
+		Assert.assertEquals("Substitution List is wrong", "{<var>=predicand}",
+				second.getSnippet().getSubstitutionsMap().toString());
+	}
+
+	@Test
+	public void internedSnippetsTest() {
+		final String query = "SELECT a.x, case when a.y > 1 then 'big' else 'small' end size FROM tab1 a";
+		SQLSelectParserFactory interning = new SQLSelectParserFactory();
+		interning.setInterner(new AstInterner());
+		Snippet plain = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null).getSnippet();
+		Snippet first = interning.parseSnippet(query, SQLSelectEntryRule.SQL, null, null).getSnippet();
+		Snippet second = interning.parseSnippet(query, SQLSelectEntryRule.SQL, null, null).getSnippet();
+
+		Assert.assertNotSame("Snippets are shared", first, second);
+		Assert.assertSame("AST should be shared", first.getAbstractTree(), second.getAbstractTree());
+		Assert.assertEquals("AST is wrong", plain.getSqlAbstractTree().toString(),
+				second.getSqlAbstractTree().toString());
+		Assert.assertEquals("Symbol Table is wrong", plain.getSymbolTable().toString(),
+				second.getSymbolTable().toString());
+	}
+
+	@Test
+	public void streamedSnippetMatchesWalkTest() {
+		final String[] queries = {
+				"SELECT a.x, (select max(y) from t3) m FROM tab1 a union select b, c from tab2 where d = <var>",
+				"WITH a AS (SELECT x FROM t1) SELECT a.x, case when a.x > 1 then 'big' else 'small' end as size FROM a",
+				" select * from (values (1, 2, 'aaa'), (92, 3, 'aaa')) as source (col1, col2, col3)",
+				"SELECT count(*) cnt, cast(a as varchar(10)) FROM tab1 left join tab2 on tab1.id = tab2.id" };
+		for (String query : queries)
+			assertSameSnippet(query, SQLSelectEntryRule.SQL);
+		assertSameSnippet("a.b = 12 and (c like 'x%' or d in (1, 2, 3))", SQLSelectEntryRule.CONDITION);
+		assertSameSnippet("tab1.col1", SQLSelectEntryRule.COLUMN);
+	}
+
+	@Test
+	public void streamedSyntaxErrorsTest() {
+		final String query = "SELECT a b c FROM";
+		SnippetParseResult walked = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+		SnippetParseResult streamed = factory.streamSnippet(query, SQLSelectEntryRule.SQL, null, null);
+
+		Assert.assertTrue("Expected failures with " + query, streamed.hasErrors());
+		Assert.assertNull("Snippet is wrong", streamed.getSnippet());
+		Assert.assertEquals("Errors are wrong", walked.getSyntaxErrors().toString(),
+				streamed.getSyntaxErrors().toString());
+	}
+
+	@Test
+	public void streamedWalkerFailureTest() {
+		final IllegalStateException crash = new IllegalStateException("walker bug");
+		SQLSelectParserFactory crashing = new SQLSelectParserFactory() {
+			@Override
+			protected SqlParseEventWalker newWalker() {
+				return new SqlParseEventWalker() {
+					@Override
+					public void exitEveryRule(ParserRuleContext ctx) {
+						throw crash;
+					}
+				};
+			}
+		};
+		SnippetParseResult streamed = crashing.streamSnippet("SELECT a FROM tab1", SQLSelectEntryRule.SQL, null, null);
+
+		Assert.assertTrue("Expected failures", streamed.hasErrors());
+		Assert.assertTrue("Expected a walker failure", streamed.hasFailure());
+		Assert.assertSame("Walker failure is wrong", crash, streamed.getFailure());
+		Assert.assertTrue("Expected no syntax errors", streamed.getSyntaxErrors().isEmpty());
+	}
+
+	@Test
+	public void streamingReleasesSubtreesTest() {
+		final String query = "SELECT a.x, b.y FROM tab1 a join tab2 b on a.id = b.id where a.z in (select z from tab3)";
+		SQLSelectParserParser parser = factory.buildParser(query);
+		StreamingWalkListener listener = new StreamingWalkListener(new SqlParseEventWalker(), parser);
+		parser.addParseListener(listener);
+
+		// Start the entry rule again, as the second stage of a parse does
+		parser.sql();
+		parser.reset();
+		ParserRuleContext tree = parser.sql();
+
+		Assert.assertEquals("Walk is wrong", walk(factory.buildParser(query)),
+				listener.getWalker().getSqlTree().toString() + listener.getWalker().getSymbolTable().toString());
+		Assert.assertEquals("Text is wrong", query.replace(" ", "") + "<EOF>", tree.getText());
+		for (int i = 0; i < tree.getChildCount(); i++)
+			Assert.assertTrue("Subtree was kept", tree.getChild(i).getChildCount() <= 1);
+	}
+
+	private void assertSameSnippet(String query, SQLSelectEntryRule rule) {
+		Snippet walked = factory.parseSnippet(query, rule, null, null).getSnippet();
+		Snippet streamed = factory.streamSnippet(query, rule, null, null).getSnippet();
+
+		Assert.assertEquals("AST is wrong for " + query, walked.getSqlAbstractTree().toString(),
+				streamed.getSqlAbstractTree().toString());
+		Assert.assertEquals("Symbol Table is wrong for " + query, walked.getSymbolTable().toString(),
+				streamed.getSymbolTable().toString());
+		Assert.assertEquals("Table Dictionary is wrong for " + query, walked.getTableDictionary().toString(),
+				streamed.getTableDictionary().toString());
+		Assert.assertEquals("Substitution List is wrong for " + query, walked.getSubstitutionsMap().toString(),
+				streamed.getSubstitutionsMap().toString());
+	}
+
+	private static String walk(SQLSelectParserParser parser) {
+		ParserRuleContext tree = parser.sql();
+		SqlParseEventWalker extractor = new SqlParseEventWalker();
+		ParseTreeWalker.DEFAULT.walk(extractor, tree);
+		return extractor.getSqlTree().toString() + extractor.getSymbolTable().toString();
+	}
+
+	private void assertSameResult(final String query, final SQLSelectEntryRule rule) {
+		SQLSelectParserParser direct = factory.buildParser(query);
+		ParserRuleContext directTree = rule.invoke(direct);
+
+		SQLSelectParserParser twoStage = factory.buildParser(query);
+		ParserRuleContext twoStageTree = factory.parse(twoStage, rule);
+
+		Assert.assertEquals("Expected no failures with " + query, 0, twoStage.getNumberOfSyntaxErrors());
+		Assert.assertEquals("Parse tree is wrong", directTree.toStringTree(direct),
+				twoStageTree.toStringTree(twoStage));
+
+		SqlParseEventWalker directWalker = new SqlParseEventWalker();
+		ParseTreeWalker.DEFAULT.walk(directWalker, directTree);
+		SqlParseEventWalker twoStageWalker = new SqlParseEventWalker();
+		ParseTreeWalker.DEFAULT.walk(twoStageWalker, twoStageTree);
+
+		Assert.assertEquals("AST is wrong", directWalker.getSqlTree().toString(),
+				twoStageWalker.getSqlTree().toString());
+		Assert.assertEquals("Symbol Table is wrong", directWalker.getSymbolTable().toString(),
+				twoStageWalker.getSymbolTable().toString());
+	}
+}
@@ -0,0 +1,101 @@
+package sql.walker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnippetBatchParserTest {
+
+	private static final String[] QUERIES = { "SELECT a.x FROM tab1 a WHERE a.y = 1",
+			"SELECT b, count(*) FROM tab2 group by b", "SELECT a b c FROM",
+			"select c from tab3 where d in (select e from tab4)", "SELECT f FROM tab5 order by f desc" };
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@After
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void resultsInInputOrderTest() throws InterruptedException {
+		List<SnippetParseRequest> requests = new ArrayList<SnippetParseRequest>();
+		for (int i = 0; i < 100; i++)
+			requests.add(new SnippetParseRequest(QUERIES[i % QUERIES.length]));
+
+		SnippetBatchParser batch = new SnippetBatchParser(factory, executor);
+		batch.setMaxInFlight(8);
+		List<SnippetParseResult> results = batch.parseAll(requests);
+
+		Assert.assertEquals("Result count is wrong", requests.size(), results.size());
+		for (int i = 0; i < results.size(); i++) {
+			String query = QUERIES[i % QUERIES.length];
+			SnippetParseResult expected = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+			SnippetParseResult actual = results.get(i);
+			Assert.assertEquals("Query is out of order", query, actual.getQuery());
+			Assert.assertEquals("Error state is wrong for " + query, expected.hasErrors(), actual.hasErrors());
+			if (expected.hasErrors())
+				Assert.assertEquals("Syntax errors are wrong for " + query, expected.getSyntaxErrors().toString(),
+						actual.getSyntaxErrors().toString());
+			else {
+				Assert.assertTrue("Snippet should be built by the worker", actual.getSnippet().isMaterialized());
+				Assert.assertEquals("AST is wrong for " + query,
+						expected.getSnippet().getSqlAbstractTree().toString(),
+						actual.getSnippet().getSqlAbstractTree().toString());
+			}
+		}
+	}
+
+	@Test
+	public void walkerFailureIsNotSyntaxErrorTest() {
+		final IllegalStateException crash = new IllegalStateException("walker bug");
+		SnippetBatchParser batch = new SnippetBatchParser(factory, executor);
+		batch.setCache(new SnippetCache(factory, 10, 10000) {
+			@Override
+			public SnippetParseResult get(String query, SQLSelectEntryRule rule, HashMap<String, String> entityMap,
+					HashMap<String, Map<String, String>> attributeMap) {
+				throw crash;
+			}
+		});
+		SnippetParseResult result = batch.parse(new SnippetParseRequest(QUERIES[0]));
+
+		Assert.assertTrue("Expected no Snippet", result.hasErrors());
+		Assert.assertTrue("Expected a walker failure", result.hasFailure());
+		Assert.assertSame("Walker failure is wrong", crash, result.getFailure());
+		Assert.assertTrue("Expected no syntax errors", result.getSyntaxErrors().isEmpty());
+
+		SnippetParseResult bad = new SnippetBatchParser(factory, executor).parse(new SnippetParseRequest(QUERIES[2]));
+		Assert.assertFalse("Expected syntax errors", bad.getSyntaxErrors().isEmpty());
+		Assert.assertFalse("Syntax errors are not a walker failure", bad.hasFailure());
+	}
+
+	@Test
+	public void streamingHandlerGetsAttachmentsTest() throws InterruptedException {
+		List<SnippetParseRequest> requests = new ArrayList<SnippetParseRequest>();
+		for (int i = 0; i < 20; i++)
+			requests.add(new SnippetParseRequest(QUERIES[i % QUERIES.length], SQLSelectEntryRule.SQL, i));
+
+		final List<Object> attachments = new ArrayList<Object>();
+		SnippetBatchParser batch = new SnippetBatchParser(factory, executor);
+		batch.setCache(new SnippetCache(factory, 10, 10000));
+		batch.setMaxInFlight(3);
+		batch.parse(requests.iterator(), new SnippetResultHandler() {
+			@Override
+			public void handle(SnippetParseRequest request, SnippetParseResult result) {
+				Assert.assertEquals("Result does not belong to request", request.getEntryRule(), result.getEntryRule());
+				attachments.add(request.getAttachment());
+			}
+		});
+
+		for (int i = 0; i < 20; i++)
+			Assert.assertEquals("Attachment is out of order", i, attachments.get(i));
+	}
+}
@@ -0,0 +1,118 @@
+package sql.walker;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnippetCacheTest {
+
+	private final SQLSelectParserFactory factory = new SQLSelectParserFactory();
+
+	@Test
+	public void normalizeTest() {
+		Assert.assertEquals("Normalized query is wrong", "select a . Col1 , 'Mixed  Case' from Tab1 where b = 1",
+				SnippetCache.normalize("SELECT  a.Col1,\n 'Mixed  Case' -- comment\n FROM Tab1\tWhere b=1"));
+	}
+
+	@Test
+	public void layoutAndKeywordCaseShareEntryTest() {
+		SnippetCache cache = new SnippetCache(factory, 10, 10000);
+		SnippetParseResult first = cache.get("SELECT a.x FROM tab1 a WHERE a.y = 1");
+		SnippetParseResult second = cache.get("select a.x\n  from tab1 a\n  where a.y=1");
+
+		Assert.assertFalse("Expected no failures", first.hasErrors());
+		Assert.assertSame("Snippet should be shared", first.getSnippet(), second.getSnippet());
+		Assert.assertTrue("Cached Snippet should be frozen", first.getSnippet().isFrozen());
+		Assert.assertTrue("Cached Snippet should be built before it is shared", first.getSnippet().isMaterialized());
+		Assert.assertEquals("Hit count is wrong", 1, cache.getHitCount());
+		Assert.assertEquals("Miss count is wrong", 1, cache.getMissCount());
+		Assert.assertEquals("AST is wrong",
+				"{SQL={select={1={column={name=x, table_ref=a}}}, from={table={alias=a, table=tab1}}, where={condition={left={column={name=y, table_ref=a}}, right={literal=1}, operator==}}}}",
+				first.getSnippet().getSqlAbstractTree().toString());
+	}
+
+	@Test
+	public void cachedMatchesDirectParseTest() {
+		String query = "SELECT DISTINCT a.Col1, b.y\n  FROM Tab1 a\n  LEFT JOIN tab2 b ON a.x = b.x -- join\n  Where b.y = 'Mixed'";
+		SnippetCache cache = new SnippetCache(factory, 10, 10000);
+		SnippetParseResult cached = cache.get(query);
+		SnippetParseResult direct = factory.parseSnippet(query, SQLSelectEntryRule.SQL, null, null);
+
+		Assert.assertFalse("Expected no failures", cached.hasErrors());
+		Assert.assertEquals("Query is wrong", query, cached.getQuery());
+		Assert.assertEquals("AST is wrong", direct.getSnippet().getSqlAbstractTree().toString(),
+				cached.getSnippet().getSqlAbstractTree().toString());
+		Assert.assertEquals("Symbol Table is wrong", direct.getSnippet().getSymbolTable().toString(),
+				cached.getSnippet().getSymbolTable().toString());
+		Assert.assertEquals("Table Dictionary is wrong", direct.getSnippet().getTableDictionary().toString(),
+				cached.getSnippet().getTableDictionary().toString());
+		Assert.assertEquals("Interface is wrong", direct.getSnippet().getQueryInterface(),
+				cached.getSnippet().getQueryInterface());
+	}
+
+	@Test
+	public void mappingSettingsKeySeparatelyTest() {
+		SnippetCache cache = new SnippetCache(factory, 10, 10000);
+		HashMap<String, String> entityMap = new HashMap<String, String>();
+		entityMap.put("tab1", "real_table");
+
+		SnippetParseResult plain = cache.get("SELECT x FROM tab1");
+		SnippetParseResult mapped = cache.get("SELECT x FROM tab1", SQLSelectEntryRule.SQL, entityMap,
+				(HashMap<String, Map<String, String>>) null);
+
+		Assert.assertNotSame("Mapped query should not share the plain entry", plain.getSnippet(), mapped.getSnippet());
+		Assert.assertEquals("Miss count is wrong", 2, cache.getMissCount());
+		Assert.assertEquals("Size is wrong", 2, cache.size());
+	}
+
+	@Test
+	public void mappingsKeyByIdentityTest() {
+		SnippetCache cache = new SnippetCache(factory, 10, 10000);
+		HashMap<String, String> entityMap = new HashMap<String, String>();
+		entityMap.put("tab1", "real_table");
+		HashMap<String, String> equalMap = new HashMap<String, String>(entityMap);
+
+		SnippetParseResult first = cache.get("SELECT x FROM tab1", SQLSelectEntryRule.SQL, entityMap,
+				(HashMap<String, Map<String, String>>) null);
+		SnippetParseResult same = cache.get("SELECT x FROM tab1", SQLSelectEntryRule.SQL, entityMap,
+				(HashMap<String, Map<String, String>>) null);
+		SnippetParseResult equal = cache.get("SELECT x FROM tab1", SQLSelectEntryRule.SQL, equalMap,
+				(HashMap<String, Map<String, String>>) null);
+
+		Assert.assertSame("Same map instance should share the entry", first.getSnippet(), same.getSnippet());
+		Assert.assertNotSame("Equal map built separately should miss", first.getSnippet(), equal.getSnippet());
+		Assert.assertEquals("Hit count is wrong", 1, cache.getHitCount());
+		Assert.assertEquals("Miss count is wrong", 2, cache.getMissCount());
+	}
+
+	@Test
+	public void evictionBySizeAndWeightTest() {
+		SnippetCache bySize = new SnippetCache(factory, 2, 10000);
+		bySize.get("SELECT a FROM t1");
+		bySize.get("SELECT b FROM t2");
+		bySize.get("SELECT a FROM t1");
+		bySize.get("SELECT c FROM t3");
+		Assert.assertEquals("Size is wrong", 2, bySize.size());
+		Assert.assertEquals("Eviction count is wrong", 1, bySize.getEvictionCount());
+		bySize.get("SELECT a FROM t1");
+		Assert.assertEquals("Least recently used entry should have been evicted", 2, bySize.getHitCount());
+
+		SnippetCache byWeight = new SnippetCache(factory, 100, 40);
+		byWeight.get("SELECT a FROM t1");
+		byWeight.get("SELECT b FROM t2");
+		byWeight.get("SELECT c FROM t3");
+		Assert.assertEquals("Size is wrong", 2, byWeight.size());
+		Assert.assertTrue("Weight is over the bound", byWeight.getWeight() <= 40);
+	}
+
+	@Test
+	public void syntaxErrorsAreNotCachedTest() {
+		SnippetCache cache = new SnippetCache(factory, 10, 10000);
+		SnippetParseResult result = cache.get("SELECT a b c FROM");
+		Assert.assertTrue("Expected failures", result.hasErrors());
+		Assert.assertFalse("Expected syntax errors", result.getSyntaxErrors().isEmpty());
+		Assert.assertEquals("Size is wrong", 0, cache.size());
+	}
+}
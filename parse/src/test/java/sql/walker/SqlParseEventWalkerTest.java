@@ -77,6 +77,50 @@ public class SqlParseEventWalkerTest {
 				extractor.getSymbolTable().toString());
 	}
 	
+	@Test
+	public void deeplyNestedParenthesesTest() {
+		// Nesting deeper than the walker's initial node stacks
+		final int depth = 10;
+		StringBuilder query = new StringBuilder("SELECT ");
+		StringBuilder expected = new StringBuilder("{SQL={select={1=");
+		for (int i = 0; i < depth; i++) {
+			query.append("(");
+			expected.append("{parentheses=");
+		}
+		query.append("a");
+		expected.append("{column={name=a, table_ref=null}}");
+		for (int i = 0; i < depth; i++) {
+			query.append(")");
+			expected.append("}");
+		}
+		query.append(" from tab1");
+		expected.append("}, from={table={alias=null, table=tab1}}}}");
+
+		final SQLSelectParserParser parser = parse(query.toString());
+		SqlParseEventWalker extractor = runParsertest(query.toString(), parser);
+
+		Assert.assertEquals("AST is wrong", expected.toString(), extractor.getSqlTree().toString());
+		Assert.assertEquals("Interface is wrong", "[unnamed_0]", extractor.getInterface().toString());
+	}
+	
+	@Test
+	public void nestedUnionScopesTest() {
+		// Each subquery and union branch saves the enclosing scope; nest deeper than the initial scope stack
+		String query = "select a from t0 union select a from u0";
+		for (int i = 1; i <= 10; i++)
+			query = "select a from (" + query + ") t" + i + " union select a from u" + i;
+
+		final SQLSelectParserParser parser = parse(query);
+		SqlParseEventWalker extractor = runParsertest(query, parser);
+
+		Assert.assertEquals("Interface is wrong", "[a]", extractor.getInterface().toString());
+		Assert.assertEquals("Symbol Table is wrong", "[union32]", extractor.getSymbolTable().keySet().toString());
+		Assert.assertEquals("Table Dictionary is wrong", 12, extractor.getTableColumnMap().size());
+		Assert.assertTrue("Innermost union is missing",
+				extractor.getSymbolTable().toString().contains("t0={a=[@41,157:157='a',<327>,1:157]}"));
+		Assert.assertEquals("Walk left scopes in the AST", "[SQL]", extractor.getSqlTree().keySet().toString());
+	}
+	
 	// Simple Select with Predicands (Casting and Not Casting)
 
 	@Test
@@ -8051,6 +8095,30 @@ public void windowWithLeftBoundRightUnboundedFrameTest() {
 		
 		// END OF VALUES STATEMENT TESTING
 		
+	@Test
+	public void tablesNamedLikeQueriesTest() {
+		// Tables are told from subqueries by how their symbols were made, not by their names
+		final String query = "SELECT q.a, u.b FROM query_log q JOIN updates u ON q.id = u.id";
+		final SQLSelectParserParser parser = parse(query);
+		SqlParseEventWalker extractor = runParsertest(query, parser);
+
+		Assert.assertEquals("Interface is wrong", "[a, b]",
+				extractor.getInterface().toString());
+		Assert.assertEquals("Table Dictionary is wrong", "{updates={b=[@5,12:12='u',<327>,1:12], id=[@19,58:58='u',<327>,1:58]}, query_log={a=[@1,7:7='q',<327>,1:7], id=[@15,51:51='q',<327>,1:51]}}",
+				extractor.getTableColumnMap().toString());
+
+		// A table named like the query count of a derived table that follows it
+		final String derived = "SELECT x.a FROM query2 JOIN (SELECT a FROM t UNION SELECT a FROM u) x ON x.a = query2.a";
+		extractor = runParsertest(derived, parse(derived));
+
+		Assert.assertEquals("Interface is wrong", "[a]",
+				extractor.getInterface().toString());
+		Assert.assertEquals("Table Dictionary is wrong", "{t={a=[@9,36:36='a',<327>,1:36]}, u={a=[@14,58:58='a',<327>,1:58]}, query2={a=[@24,79:84='query2',<327>,1:79]}}",
+				extractor.getTableColumnMap().toString());
+		Assert.assertEquals("Symbol Table is wrong", "{query3={def_union2={query0={t={a=[@9,36:36='a',<327>,1:36]}, interface={a={column={name=a, table_ref=null}}}}, interface={a=query_column}, query1={u={a=[@14,58:58='a',<327>,1:58]}, interface={a={column={name=a, table_ref=null}}}}}, union2={a=[@20,73:73='x',<327>,1:73]}, x=union2, interface={a={column={name=a, table_ref=x}}}, query2={a=[@24,79:84='query2',<327>,1:79]}}}",
+				extractor.getSymbolTable().toString());
+	}
+		
 	// *****************************
 	// COMMON TEST METHODS
 